@@ -1,47 +1,391 @@
 package fr.rader.gertrude;
 
 import fr.rader.gertrude.commands.*;
+import fr.rader.gertrude.events.GuildJoinListener;
 import fr.rader.gertrude.events.SlashCommandAutoCompleteListener;
 import fr.rader.gertrude.events.SlashCommandListener;
+import fr.rader.gertrude.execution.CommandExecutors;
+import fr.rader.gertrude.execution.CooldownStore;
+import fr.rader.gertrude.execution.LocalCooldownStore;
+import fr.rader.gertrude.metrics.CommandMetricsSnapshot;
+import fr.rader.gertrude.metrics.MetricsExporter;
+import fr.rader.gertrude.recording.InteractionRecorder;
+import fr.rader.gertrude.registration.RegistrationListener;
+import fr.rader.gertrude.registration.RegistrationResult;
+import fr.rader.gertrude.registration.RegistrationScheduler;
+import fr.rader.gertrude.registration.RegistrationState;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the brain where you can add new commands and parameters, and send them to Discord as actual commands.
  * To get an instance of this class, you must call {@link Gertrude#summonGertrude(JDA)}.
  * I recommend you call the summonGertrude method after getting your JDA instance.
+ *
+ * Sharded bots call {@link Gertrude#summonGertrude(ShardManager)} instead. The listeners are added to all the shards,
+ * which all look up the commands in the same registry, and global commands are registered once for the whole bot.
  */
 public final class Gertrude {
 
     private static Gertrude instance;
 
+    // only one of them is set
     private final JDA jda;
+    private final ShardManager shardManager;
 
     private GertrudeState state;
 
-    private Gertrude(@NotNull final JDA jda) {
+    private Executor executor;
+    private String bulkheadRejectionMessage;
+    private String cooldownMessage;
+    private boolean interruptSupersededAutoComplete;
+    private long autoCompleteDeadlineNanos;
+    private InteractionRecorder interactionRecorder;
+
+    private RegistrationState registrationState;
+    private int registrationParallelism;
+    private int registrationAttempts;
+    private long registrationBackoffNanos;
+    private boolean incrementalRegistration;
+    private final List<RegistrationListener> registrationListeners;
+    private boolean registerOnGuildJoin;
+
+    // shared by the autocomplete deadlines and the registration retries, created when one of them needs it
+    private ScheduledExecutorService timer;
+
+    // created by the first registration, then reused for the guilds the bot joins and the synchronizations
+    private volatile RegistrationScheduler registrationScheduler;
+    private volatile List<SlashCommandData> registeredCommands;
+    private boolean registeredToGuilds;
+    private final Set<Long> registeredGuildIds;
+
+    private Gertrude(@Nullable final JDA jda, @Nullable final ShardManager shardManager) {
         this.jda = jda;
+        this.shardManager = shardManager;
         this.state = GertrudeState.NONE;
+
+        this.executor = CommandExecutors.direct();
+        this.bulkheadRejectionMessage = "This command is busy, please try again in a moment.";
+        this.cooldownMessage = SlashCommandListener.DEFAULT_COOLDOWN_MESSAGE;
+
+        this.registrationParallelism = 4;
+        this.registrationAttempts = 3;
+        this.registrationBackoffNanos = TimeUnit.SECONDS.toNanos(1);
+        this.registrationListeners = new ArrayList<>();
+        this.registeredGuildIds = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Set the executor the command and autocomplete methods are invoked on.
+     * By default, they're invoked on JDA's event thread, so one slow command blocks all the other events.
+     * {@link CommandExecutors} can create common executors, like a fixed thread pool or virtual threads.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param executor  The executor to invoke the command and autocomplete methods on
+     */
+    public void setExecutor(@NotNull final Executor executor) {
+        Checks.notNull(executor, "executor");
+
+        checkState("setExecutor", GertrudeState.NONE);
+        this.executor = executor;
+    }
+
+    /**
+     * Limit the concurrent invocations of each command that doesn't set its own
+     * {@link fr.rader.gertrude.annotations.SlashCommand#maxConcurrency()}.
+     * Invocations over the limit wait in a queue, and are rejected with a reply once the queue is full.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param maxConcurrency    The maximum number of invocations of a command running at the same time, 0 for no limit
+     * @param maxQueued         The maximum number of invocations of a command waiting for a running one to finish
+     */
+    public void setBulkhead(int maxConcurrency, int maxQueued) {
+        Checks.notNegative(maxConcurrency, "maxConcurrency");
+        Checks.notNegative(maxQueued, "maxQueued");
+
+        checkState("setBulkhead", GertrudeState.NONE);
+        CommandRegistry.getInstance().setDefaultBulkhead(maxConcurrency, maxQueued);
+    }
+
+    /**
+     * Set the message replied to a command when too many invocations of the command are running and waiting.
+     * The reply is only visible to the user who used the command.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param message   The message to reply with
+     */
+    public void setBulkheadRejectionMessage(@NotNull final String message) {
+        Checks.notEmpty(message, "message");
+
+        checkState("setBulkheadRejectionMessage", GertrudeState.NONE);
+        this.bulkheadRejectionMessage = message;
+    }
+
+    /**
+     * Set the message replied to a command when its {@link fr.rader.gertrude.annotations.Cooldown} ran out of uses.
+     * {@code {seconds}} in the message is replaced by the number of seconds until the command can be used again.
+     * The reply is only visible to the user who used the command.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param message   The message to reply with
+     */
+    public void setCooldownMessage(@NotNull final String message) {
+        Checks.notEmpty(message, "message");
+
+        checkState("setCooldownMessage", GertrudeState.NONE);
+        this.cooldownMessage = message;
+    }
+
+    /**
+     * Set the store keeping the uses left of the commands with a {@link fr.rader.gertrude.annotations.Cooldown}.
+     * By default, they're kept in memory by a {@link LocalCooldownStore}, so each instance of the bot has its own.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param store The store
+     */
+    public void setCooldownStore(@NotNull final CooldownStore store) {
+        Checks.notNull(store, "store");
+
+        checkState("setCooldownStore", GertrudeState.NONE);
+        CommandRegistry.getInstance().setCooldownStore(store);
+    }
+
+    /**
+     * When a user types faster than an autocomplete method answers, the request for the previous value is cancelled.
+     * By default, its autocomplete method still runs to the end and its choices are dropped.
+     * This makes Gertrude interrupt the autocomplete method instead, which only helps with the methods that stop when
+     * they're interrupted, like the ones waiting on a blocking queue or a {@link java.util.concurrent.Future}.
+     *
+     * This has no effect with the default executor, as each autocompletion is done before the next one is received.
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param interrupt true to interrupt the cancelled autocomplete methods
+     */
+    public void setInterruptSupersededAutoComplete(boolean interrupt) {
+        checkState("setInterruptSupersededAutoComplete", GertrudeState.NONE);
+        this.interruptSupersededAutoComplete = interrupt;
+    }
+
+    /**
+     * Give the autocomplete methods a deadline to answer.
+     * Discord ignores the choices sent more than 3 seconds after the user typed, so a deadline a bit under that,
+     * like 2.5 seconds, leaves time for the reply to reach Discord.
+     *
+     * When an autocomplete method misses the deadline, the last choices it returned for the same value are sent instead,
+     * or no choice at all if there are none. Choices are shared like {@link fr.rader.gertrude.annotations.Param#cacheScope()} says.
+     * The autocomplete method still runs to the end, so its choices can be used the next time.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param deadline  The time the autocomplete methods have to answer, 0 for no deadline
+     * @param unit      The unit of the deadline
+     */
+    public void setAutoCompleteDeadline(long deadline, @NotNull final TimeUnit unit) {
+        Checks.notNegative(deadline, "deadline");
+        Checks.notNull(unit, "unit");
+
+        checkState("setAutoCompleteDeadline", GertrudeState.NONE);
+        this.autoCompleteDeadlineNanos = unit.toNanos(deadline);
+
+        CommandRegistry.getInstance().setRememberAutoCompleteChoices(deadline > 0);
+    }
+
+    /**
+     * Record how long each command takes, and how often it fails.
+     * The time to find the command, to bind its parameters, to run the command method and to autocomplete its options
+     * are recorded separately, and can be read with {@link #getMetrics()}.
+     * Recording costs a few clock reads per invocation, so it's disabled by default.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param enabled   true to record the metrics
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        checkState("setMetricsEnabled", GertrudeState.NONE);
+        CommandRegistry.getInstance().setRecordMetrics(enabled);
+    }
+
+    /**
+     * Return the metrics recorded since the commands were added, see {@link #setMetricsEnabled(boolean)}
+     *
+     * @return  The metrics of each command, empty if they aren't recorded
+     */
+    @NotNull
+    public List<CommandMetricsSnapshot> getMetrics() {
+        return CommandRegistry.getInstance().getMetrics();
+    }
+
+    /**
+     * Give the metrics recorded since the commands were added to the given exporter
+     *
+     * @param exporter  The exporter to give the metrics to
+     */
+    public void exportMetrics(@NotNull final MetricsExporter exporter) {
+        Checks.notNull(exporter, "exporter");
+
+        try {
+            exporter.export(getMetrics());
+        } catch (IOException e) {
+            System.err.println("Cannot export the metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append every slash command and autocompletion received to the given recorder, so the bot's real traffic
+     * can be replayed later. The recorder stays yours: close it when the bot stops.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param recorder  The recorder to append the interactions to
+     */
+    public void setInteractionRecorder(@NotNull final InteractionRecorder recorder) {
+        Checks.notNull(recorder, "recorder");
+
+        checkState("setInteractionRecorder", GertrudeState.NONE);
+        this.interactionRecorder = recorder;
+    }
+
+    /**
+     * Remember the commands registered to Discord in the given file, so they aren't registered again
+     * on the next start if they didn't change. Registering commands takes time, and Discord limits how many
+     * commands can be created each day.
+     *
+     * The file only holds a fingerprint of the commands of each guild and their ids, deleting it registers all the commands again.
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param file  The file to save the registered commands' fingerprints and ids in
+     */
+    public void setRegistrationStateFile(@NotNull final Path file) {
+        Checks.notNull(file, "file");
+
+        checkState("setRegistrationStateFile", GertrudeState.NONE);
+
+        try {
+            this.registrationState = RegistrationState.load(file);
+        } catch (IOException e) {
+            System.err.println("Cannot read the registration state from " + file + ", all the commands will be registered: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Set how many guilds the commands are sent to at the same time.
+     * Sending the commands to a lot of guilds at once only makes JDA wait for Discord's rate limits,
+     * and delays the other requests of the bot. The default is 4.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param parallelism   The maximum number of guilds the commands are sent to at the same time
+     */
+    public void setRegistrationParallelism(int parallelism) {
+        Checks.positive(parallelism, "parallelism");
+
+        checkState("setRegistrationParallelism", GertrudeState.NONE);
+        this.registrationParallelism = parallelism;
+    }
+
+    /**
+     * Set how many times the commands are sent to a guild before giving up.
+     * The delay between two attempts doubles each time. The commands aren't sent again if Discord refused them,
+     * like when the bot can't create commands in the guild. By default, there are 3 attempts, one second apart at first.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param maxAttempts   The maximum number of attempts, 1 to never try again
+     * @param backoff       The delay before the second attempt
+     * @param unit          The unit of the delay
+     */
+    public void setRegistrationRetries(int maxAttempts, long backoff, @NotNull final TimeUnit unit) {
+        Checks.positive(maxAttempts, "maxAttempts");
+        Checks.notNegative(backoff, "backoff");
+        Checks.notNull(unit, "unit");
+
+        checkState("setRegistrationRetries", GertrudeState.NONE);
+        this.registrationAttempts = maxAttempts;
+        this.registrationBackoffNanos = unit.toNanos(backoff);
+    }
+
+    /**
+     * Only send the commands that changed to Discord, instead of the whole list.
+     * The registered commands are retrieved first and compared with Gertrude's commands,
+     * then the new and modified commands are upserted and the removed ones are deleted.
+     * This makes smaller requests, and the commands that didn't change keep their id.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param incremental   true to only send the commands that changed
+     */
+    public void setIncrementalRegistration(boolean incremental) {
+        checkState("setIncrementalRegistration", GertrudeState.NONE);
+        this.incrementalRegistration = incremental;
+    }
+
+    /**
+     * Add a listener notified each time the commands are registered to a guild, or couldn't be.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param listener  The listener to add
+     */
+    public void addRegistrationListener(@NotNull final RegistrationListener listener) {
+        Checks.notNull(listener, "listener");
+
+        checkState("addRegistrationListener", GertrudeState.NONE);
+        this.registrationListeners.add(listener);
+    }
+
+    /**
+     * Register the commands to the guilds the bot joins, once {@link #registerCommands(Guild...)} registered them
+     * to specific guilds. Global commands are already available in the new guilds, so nothing is sent for them.
+     *
+     * This must be called before {@link #registerEvents()}.
+     *
+     * @param register  true to register the commands to the joined guilds
+     */
+    public void setRegisterOnGuildJoin(boolean register) {
+        checkState("setRegisterOnGuildJoin", GertrudeState.NONE);
+        this.registerOnGuildJoin = register;
     }
 
     /**
      * Register Gertrude's events.
-     * This must be the first Gertrude's method to be executed.
+     * This must be the first Gertrude's method to be executed, after the configuration methods like {@link #setExecutor(Executor)}.
      */
     public void registerEvents() {
         checkState("registerEvents", GertrudeState.NONE);
         this.state = GertrudeState.EVENTS_REGISTERED;
 
-        this.jda.addEventListener(new SlashCommandListener());
-        this.jda.addEventListener(new SlashCommandAutoCompleteListener());
+        // the listeners don't depend on the shard, a single instance of each is shared by all the shards
+        addEventListener(new SlashCommandListener(this.executor, this.bulkheadRejectionMessage, this.cooldownMessage, this.interactionRecorder));
+        addEventListener(new SlashCommandAutoCompleteListener(
+                this.executor,
+                this.interruptSupersededAutoComplete,
+                this.autoCompleteDeadlineNanos,
+                this.autoCompleteDeadlineNanos > 0 ? getTimer() : null,
+                this.interactionRecorder
+        ));
+
+        if (this.registerOnGuildJoin) {
+            addEventListener(new GuildJoinListener(this::registerJoinedGuild));
+        }
     }
 
     /**
@@ -72,7 +416,7 @@ public final class Gertrude {
         this.state = GertrudeState.PARAMS_ADDED;
 
         if (
-                TypeTable.get(clazz) != null ||
+                TypeConverters.getInstance().get(clazz) != null ||
                 ParameterRegistry.getInstance().get(clazz) != null
         ) {
             System.err.println("Cannot add parameter: parameter with type " + clazz.getName() + " already exist.");
@@ -82,61 +426,228 @@ public final class Gertrude {
         ParameterRegistry.getInstance().add(clazz, instance);
     }
 
+    /**
+     * Add an interceptor running around all the command methods, to check permissions or log the commands for example.
+     * The interceptors run in the order they're added, before the ones given to {@link fr.rader.gertrude.annotations.Intercept}.
+     * They're fixed when the commands are added, so they must be added before them.
+     *
+     * @param interceptor   The interceptor
+     */
+    public void addInterceptor(@NotNull final CommandInterceptor interceptor) {
+        Checks.notNull(interceptor, "interceptor");
+
+        checkState("addInterceptor", GertrudeState.EVENTS_REGISTERED, GertrudeState.PARAMS_ADDED);
+        this.state = GertrudeState.PARAMS_ADDED;
+
+        CommandRegistry.getInstance().addInterceptor(interceptor);
+    }
+
+    /**
+     * Add a converter for the {@link fr.rader.gertrude.annotations.Param} parameters with the given type.
+     * This lets the commands take types JDA doesn't support, like {@link java.util.UUID}s:
+     * <pre>
+     *     addTypeConverter(UUID.class, TypeConverter.of(OptionType.STRING, option -&gt; UUID.fromString(option.getAsString())));
+     * </pre>
+     *
+     * The converter replaces the one the type already has. It's resolved when the commands are added,
+     * so it must be added before them.
+     *
+     * @param clazz     The type of the parameters to convert
+     * @param converter The converter
+     * @param <T>       The type of the parameters to convert
+     */
+    public <T> void addTypeConverter(@NotNull final Class<T> clazz, @NotNull final TypeConverter<? extends T> converter) {
+        Checks.notNull(clazz, "class");
+        Checks.notNull(converter, "converter");
+
+        checkState("addTypeConverter", GertrudeState.EVENTS_REGISTERED, GertrudeState.PARAMS_ADDED);
+        this.state = GertrudeState.PARAMS_ADDED;
+
+        if (ParameterRegistry.getInstance().get(clazz) != null) {
+            System.err.println("Cannot add type converter: parameter with type " + clazz.getName() + " already exist.");
+            return;
+        }
+
+        TypeConverters.getInstance().add(clazz, converter);
+    }
+
     /**
      * Add a command to Gertrude. All methods with the {@link fr.rader.gertrude.annotations.SlashCommand} annotation will be processed.
      *
+     * Commands can still be added once they're registered, they're invoked as soon as Discord sends them.
+     * Call {@link #syncCommands()} to send them to Discord.
+     *
      * @param command   The command class to process
      * @param <T>       The type of the class. We only accept classes extending {@link Command}
      */
     public <T extends Command> void addCommand(@NotNull final T command) {
         Checks.notNull(command, "command");
 
-        checkState("addCommand", GertrudeState.EVENTS_REGISTERED, GertrudeState.PARAMS_ADDED, GertrudeState.COMMANDS_ADDED);
-        this.state = GertrudeState.COMMANDS_ADDED;
+        checkState("addCommand", GertrudeState.EVENTS_REGISTERED, GertrudeState.PARAMS_ADDED, GertrudeState.COMMANDS_ADDED, GertrudeState.COMMANDS_REGISTERED);
+        if (this.state != GertrudeState.COMMANDS_REGISTERED) {
+            this.state = GertrudeState.COMMANDS_ADDED;
+        }
 
         CommandRegistry.getInstance().registerCommandClass(command);
     }
 
     /**
-     * Register the commands to the given guilds, or all the guilds of none are provided
+     * Remove a command added with {@link #addCommand(Command)}.
+     * Once the commands are registered, Discord keeps showing the removed commands until {@link #syncCommands()} is called,
+     * and Gertrude ignores them.
+     *
+     * @param command   The command class to remove
+     * @return          true if the command was removed, false if it wasn't added
+     */
+    public boolean removeCommand(@NotNull final Command command) {
+        Checks.notNull(command, "command");
+
+        checkState("removeCommand", GertrudeState.COMMANDS_ADDED, GertrudeState.COMMANDS_REGISTERED);
+        return CommandRegistry.getInstance().unregisterCommandClass(command);
+    }
+
+    /**
+     * Replace a command added with {@link #addCommand(Command)} by another one, like a new version of the same command.
+     * The events received during the replacement are given to either the old command or the new one, never a mix of both.
+     * Call {@link #syncCommands()} to send the new command to Discord if its options changed.
+     *
+     * @param oldCommand    The command class to remove
+     * @param newCommand    The command class to add instead
+     * @return              true if the command was replaced, false if the old one wasn't added
+     */
+    public boolean replaceCommand(@NotNull final Command oldCommand, @NotNull final Command newCommand) {
+        Checks.notNull(oldCommand, "oldCommand");
+        Checks.notNull(newCommand, "newCommand");
+
+        checkState("replaceCommand", GertrudeState.COMMANDS_ADDED, GertrudeState.COMMANDS_REGISTERED);
+        return CommandRegistry.getInstance().replaceCommandClass(oldCommand, newCommand);
+    }
+
+    /**
+     * Send the commands to Discord again, after commands were added, removed or replaced.
+     * They're registered where {@link #registerCommands(Guild...)} registered them, and to the guilds joined since then.
+     * With {@link #setIncrementalRegistration(boolean)}, only the commands that changed are sent, the others keep their id.
+     *
+     * @return  A future completed once the commands were registered to all the guilds, or couldn't be
+     */
+    @NotNull
+    public CompletableFuture<RegistrationResult> syncCommands() {
+        checkState("syncCommands", GertrudeState.COMMANDS_REGISTERED);
+
+        List<SlashCommandData> commands = CommandRegistry.getInstance().getDiscordCommands();
+        this.registeredCommands = commands;
+
+        if (!this.registeredToGuilds) {
+            return this.registrationScheduler.registerGlobal(getJda(), commands);
+        }
+
+        List<Guild> guilds = new ArrayList<>();
+        for (long guildId : this.registeredGuildIds) {
+            // the bot may have left the guild since
+            Guild guild = this.shardManager == null ? this.jda.getGuildById(guildId) : this.shardManager.getGuildById(guildId);
+            if (guild != null) {
+                guilds.add(guild);
+            }
+        }
+
+        return this.registrationScheduler.registerGuilds(guilds, commands);
+    }
+
+    /**
+     * Register the commands to the given guilds, or all the guilds of none are provided.
+     * The guilds are registered a few at a time, see {@link #setRegistrationParallelism(int)}.
      *
      * @param guilds    The guilds to add the commands to
+     * @return          A future completed once the commands were registered to all the guilds, or couldn't be
      */
-    public void registerCommands(@NotNull final Guild... guilds) {
+    @NotNull
+    public CompletableFuture<RegistrationResult> registerCommands(@NotNull final Guild... guilds) {
         Checks.notNull(guilds, "guilds");
 
         checkState("registerCommands", GertrudeState.COMMANDS_ADDED);
         this.state = GertrudeState.COMMANDS_REGISTERED;
 
+        CommandRegistry registry = CommandRegistry.getInstance();
+
         // get the commands from the command registry
-        List<SlashCommandData> commands = CommandRegistry.getInstance().getDiscordCommands();
+        this.registeredCommands = registry.getDiscordCommands();
+        this.registeredToGuilds = guilds.length != 0;
 
-        // register the commands to all guilds
-        if (guilds.length == 0) {
-            this.jda.updateCommands()
-                    .addCommands(commands)
-                    .queue();
+        for (Guild guild : guilds) {
+            this.registeredGuildIds.add(guild.getIdLong());
+        }
 
-            return;
+        // once Discord sent the registered commands back, the scheduler gives their ids to the registry
+        this.registrationScheduler = new RegistrationScheduler(
+                registry,
+                this.registrationState,
+                this.registrationParallelism,
+                this.registrationAttempts,
+                this.registrationBackoffNanos,
+                TimeUnit.NANOSECONDS,
+                this.incrementalRegistration,
+                getTimer(),
+                this.registrationListeners
+        );
+
+        // register the commands to all guilds.
+        if (!this.registeredToGuilds) {
+            // global commands belong to the bot, not to a shard, so any shard can register them
+            return this.registrationScheduler.registerGlobal(getJda(), this.registeredCommands);
         }
 
         // register the commands to specific guilds
-        for (Guild guild : guilds) {
-            guild.updateCommands()
-                 .addCommands(commands)
-                 .queue();
-        }
+        return this.registrationScheduler.registerGuilds(Arrays.asList(guilds), this.registeredCommands);
     }
 
     /**
      * Register the commands to the given guilds, or all the guilds of none are provided
      *
      * @param guilds    The guilds to add the commands to
+     * @return          A future completed once the commands were registered to all the guilds, or couldn't be
      */
-    public void registerCommands(@NotNull final Collection<? extends Guild> guilds) {
+    @NotNull
+    public CompletableFuture<RegistrationResult> registerCommands(@NotNull final Collection<? extends Guild> guilds) {
         Checks.notNull(guilds, "guilds");
 
-        registerCommands(guilds.toArray(new Guild[0]));
+        return registerCommands(guilds.toArray(new Guild[0]));
+    }
+
+    /**
+     * Register the commands to a guild the bot just joined, if they were registered to specific guilds
+     */
+    private void registerJoinedGuild(@NotNull final Guild guild) {
+        RegistrationScheduler scheduler = this.registrationScheduler;
+        if (scheduler == null || !this.registeredToGuilds) {
+            return;
+        }
+
+        this.registeredGuildIds.add(guild.getIdLong());
+        scheduler.registerGuilds(Collections.singletonList(guild), this.registeredCommands);
+    }
+
+    /**
+     * Return the timer shared by the autocomplete deadlines and the registration retries
+     */
+    @NotNull
+    private ScheduledExecutorService getTimer() {
+        if (this.timer == null) {
+            this.timer = CommandExecutors.timer();
+        }
+
+        return this.timer;
+    }
+
+    /**
+     * Add the given listener to the JDA instance, or to all the shards
+     */
+    private void addEventListener(@NotNull final Object listener) {
+        if (this.shardManager == null) {
+            this.jda.addEventListener(listener);
+        } else {
+            // the shard manager also adds it to the shards started later
+            this.shardManager.addEventListener(listener);
+        }
     }
 
     /**
@@ -149,7 +660,23 @@ public final class Gertrude {
     public static Gertrude summonGertrude(@Nullable final JDA jda) {
         if (instance == null) {
             Checks.notNull(jda, "jda");
-            instance = new Gertrude(jda);
+            instance = new Gertrude(jda, null);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Get an instance of Gertrude for a sharded bot. You should only call this once.
+     *
+     * @param shardManager  The shard manager so we can register commands/events on all the shards
+     * @return              The Gertrude instance
+     */
+    @NotNull
+    public static Gertrude summonGertrude(@Nullable final ShardManager shardManager) {
+        if (instance == null) {
+            Checks.notNull(shardManager, "shardManager");
+            instance = new Gertrude(null, shardManager);
         }
 
         return instance;
@@ -168,13 +695,31 @@ public final class Gertrude {
     }
 
     /**
-     * Return Gertrude's JDA instance
+     * Return Gertrude's JDA instance, or one of the shards if Gertrude was summoned with a {@link ShardManager}
      *
      * @return Gertrude's JDA instance
      */
     @NotNull
     public JDA getJda() {
-        return this.jda;
+        if (this.shardManager == null) {
+            return this.jda;
+        }
+
+        if (this.shardManager.getShardCache().isEmpty()) {
+            throw new IllegalStateException("The shard manager has no shard");
+        }
+
+        return this.shardManager.getShardCache().iterator().next();
+    }
+
+    /**
+     * Return Gertrude's shard manager
+     *
+     * @return Gertrude's shard manager, or {@code null} if Gertrude was summoned with a single JDA instance
+     */
+    @Nullable
+    public ShardManager getShardManager() {
+        return this.shardManager;
     }
 
     // internal gertrude states.
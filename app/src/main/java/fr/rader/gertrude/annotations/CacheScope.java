@@ -0,0 +1,24 @@
+package fr.rader.gertrude.annotations;
+
+/**
+ * Who shares the cached autocompletion choices of an option.
+ *
+ * @see Param#cacheTtl()
+ */
+public enum CacheScope {
+
+    /**
+     * Everyone typing the same value gets the same choices
+     */
+    GLOBAL,
+
+    /**
+     * Everyone in the same guild typing the same value gets the same choices
+     */
+    GUILD,
+
+    /**
+     * Each user has their own choices
+     */
+    USER
+}
@@ -0,0 +1,29 @@
+package fr.rader.gertrude.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that gives the name Discord shows for an enum constant,
+ * when the enum is the type of a {@link Param} parameter. Without it, the constant's name is shown.
+ *
+ * Example:
+ * <pre><code>
+ * public enum Fruit {
+ *     &#064;ChoiceName("Green Apple")
+ *     GREEN_APPLE,
+ *     BANANA
+ * }
+ * </code></pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ChoiceName {
+
+    /**
+     * @return  The name Discord shows for the constant
+     */
+    String value();
+}
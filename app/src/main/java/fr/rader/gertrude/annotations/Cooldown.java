@@ -0,0 +1,53 @@
+package fr.rader.gertrude.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An annotation that limits how often a {@link SlashCommand} can be used.
+ * The command can be used {@link #uses()} times in a row, then once more each time {@link #per()} divided
+ * by the number of uses has passed. Invocations over the limit are rejected with a reply before the command method
+ * or its interceptors run, and don't take any room in the command's bulkhead.
+ *
+ * Example, 3 uses per minute for each user:
+ * <pre><code>
+ * &#064;Cooldown(uses = 3, per = 1, unit = TimeUnit.MINUTES)
+ * &#064;SlashCommand(&#47;* The usual command declaration *&#47;)
+ * public void command() {
+ *     // code...
+ * }
+ * </code></pre>
+ *
+ * @see fr.rader.gertrude.Gertrude#setCooldownMessage(String)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cooldown {
+
+    /**
+     * The number of times the command can be used within {@link #per()}
+     *
+     * @return  The number of uses, must be positive
+     */
+    int uses() default 1;
+
+    /**
+     * The time it takes for all the uses to come back
+     *
+     * @return  The duration in {@link #unit()}, must be positive
+     */
+    long per();
+
+    /**
+     * @return  The unit of {@link #per()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * @return  Who shares the uses
+     */
+    CooldownScope scope() default CooldownScope.USER;
+}
@@ -0,0 +1,30 @@
+package fr.rader.gertrude.annotations;
+
+/**
+ * Who shares the uses of a command limited by a {@link Cooldown}.
+ *
+ * @see Cooldown#scope()
+ */
+public enum CooldownScope {
+
+    /**
+     * Everyone shares the same uses
+     */
+    GLOBAL,
+
+    /**
+     * Everyone in the same guild shares the same uses.
+     * Outside of guilds, each user has their own uses
+     */
+    GUILD,
+
+    /**
+     * Everyone in the same channel shares the same uses
+     */
+    CHANNEL,
+
+    /**
+     * Each user has their own uses
+     */
+    USER
+}
@@ -0,0 +1,34 @@
+package fr.rader.gertrude.annotations;
+
+import fr.rader.gertrude.commands.CommandInterceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that adds {@link CommandInterceptor}s to a command method, or to all the command methods of a class.
+ * They run after the interceptors added to all the commands, the class' ones before the method's ones, in the given order.
+ *
+ * The interceptor instance is the one added with {@link fr.rader.gertrude.Gertrude#addCommandParameter(Class, Object)},
+ * or one created with its public constructor without parameters and shared by all the commands.
+ *
+ * Example:
+ * <pre><code>
+ * &#064;Intercept(AdminOnly.class)
+ * &#064;SlashCommand(&#47;* The usual command declaration *&#47;)
+ * public void command() {
+ *     // code...
+ * }
+ * </code></pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Intercept {
+
+    /**
+     * @return  The classes of the interceptors, in the order they run
+     */
+    Class<? extends CommandInterceptor>[] value();
+}
@@ -79,4 +79,84 @@ public @interface Param {
      * @return  The autocomplete method name
      */
     String autocomplete() default "";
+
+    /**
+     * The value of this should be the name of a method returning all the choices of the parameter.
+     * Gertrude calls it once, and answers the autocompletion itself with the choices starting with the typed value,
+     * so this is faster than an autocompletion method filtering a fixed list.
+     * The method can be static, and must not have any parameter:
+     *
+     * Example:
+     * <pre><code>
+     * &#064;SlashCommand(&#47;* The usual command declaration *&#47;)
+     * public void command(
+     *         &#064;Param(
+     *                 name = "option",
+     *                 description = "Option Description",
+     *                 choices = "allChoices"
+     *         )
+     *         String option
+     * ) {
+     *     // code...
+     * }
+     *
+     * // the choices of our "option" parameter
+     * public List&lt;String&gt; allChoices() {
+     *     // code...
+     * }
+     * </code></pre>
+     *
+     * Note: The return value must be a Collection of {@link net.dv8tion.jda.api.interactions.commands.Command.Choice},
+     * numbers or strings, which are converted to the option's type. A value that cannot be converted,
+     * like a string that isn't a number for a {@code long} option, is reported when the command is registered.
+     * The choices can be read again with {@link fr.rader.gertrude.commands.ChoiceIndex#refresh()}.
+     * This cannot be used with {@link #autocomplete()}.
+     *
+     * @see     fr.rader.gertrude.commands.ChoiceIndex
+     *
+     * @return  The choices method name
+     */
+    String choices() default "";
+
+    /**
+     * How long the choices returned by the autocompletion method are cached, in seconds.
+     * While they're cached, the autocompletion method isn't called again for the same typed value.
+     * A value of 0 or less disables the cache.
+     *
+     * Example:
+     * <pre><code>
+     * &#064;Param(
+     *         name = "option",
+     *         description = "Option Description",
+     *         autocomplete = "autoCompletionMethod",
+     *         cacheTtl = 30,
+     *         cacheScope = CacheScope.GUILD
+     * )
+     * </code></pre>
+     *
+     * @see     #autocomplete()
+     *
+     * @return  The time the choices are cached for, in seconds
+     */
+    int cacheTtl() default 0;
+
+    /**
+     * The maximum number of typed values the choices are cached for.
+     * Once the cache is full, the least recently used values are removed.
+     *
+     * @see     #cacheTtl()
+     *
+     * @return  The maximum number of cached values
+     */
+    int cacheSize() default 1000;
+
+    /**
+     * Who shares the cached choices, and the last choices sent when the autocompletion method misses its deadline.
+     * If the autocompletion method's choices depend on the guild or the user, they shouldn't be shared globally.
+     *
+     * @see     #cacheTtl()
+     *
+     * @return  The scope of the cached choices
+     */
+    CacheScope cacheScope() default CacheScope.GLOBAL;
 }
@@ -51,4 +51,22 @@ public @interface SlashCommand {
      * @return  The subcommand group's description
      */
     String subcommandGroupDescription() default "";
+
+    /**
+     * The maximum number of invocations of this command that can run at the same time.
+     * Invocations over this limit wait in a queue of {@link #maxQueued()} invocations,
+     * and are rejected with a reply once the queue is full.
+     * A value of 0 or less means there is no limit, unless a default limit is set in Gertrude.
+     *
+     * @return  The maximum number of concurrent invocations
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * The maximum number of invocations of this command waiting for a running one to finish.
+     * This is only used if {@link #maxConcurrency()} is set.
+     *
+     * @return  The maximum number of waiting invocations
+     */
+    int maxQueued() default 0;
 }
@@ -0,0 +1,131 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.annotations.CacheScope;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link AutoCompleteProvider} that caches the choices of another provider.
+ * There is one cache per autocompleted option, so the choices are keyed by the value being typed,
+ * and by the guild or the user depending on the {@link CacheScope}.
+ *
+ * Cached choices expire after the given time to live, and the least recently used ones are removed once the cache is full.
+ */
+public final class AutoCompleteCache implements AutoCompleteProvider {
+
+    private final AutoCompleteProvider provider;
+
+    private final long ttlNanos;
+    private final ChoiceStore store;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Create a new cache in front of the given provider
+     *
+     * @param provider      The provider to cache the choices of
+     * @param ttl           How long the choices are cached for
+     * @param unit          The unit of the time to live
+     * @param maxEntries    The maximum number of cached choices
+     * @param scope         Who shares the cached choices
+     */
+    public AutoCompleteCache(
+            @NotNull final AutoCompleteProvider provider,
+            long ttl,
+            @NotNull final TimeUnit unit,
+            int maxEntries,
+            @NotNull final CacheScope scope
+    ) {
+        Checks.notNull(provider, "provider");
+        Checks.positive(ttl, "ttl");
+        Checks.notNull(unit, "unit");
+        Checks.positive(maxEntries, "maxEntries");
+        Checks.notNull(scope, "scope");
+
+        this.provider = provider;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.store = new ChoiceStore(maxEntries, scope);
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    @Nullable
+    @Override
+    public Collection<Choice> getChoices(@NotNull final CommandAutoCompleteInteractionEvent event) throws Throwable {
+        ChoiceStore.Key key = this.store.key(event);
+        long now = System.nanoTime();
+
+        // an expired entry is simply replaced by the new choices
+        ChoiceStore.Entry entry = this.store.get(key);
+        if (entry != null && now - entry.getStoredAt() < this.ttlNanos) {
+            this.hits.increment();
+            return entry.getChoices();
+        }
+
+        this.misses.increment();
+
+        // the provider is called outside the lock, so a slow provider doesn't block the other values
+        Collection<Choice> choices = this.provider.getChoices(event);
+        if (choices == null) {
+            return null;
+        }
+
+        List<Choice> cachedChoices = Collections.unmodifiableList(new ArrayList<>(choices));
+        this.store.put(key, cachedChoices, now);
+
+        return cachedChoices;
+    }
+
+    /**
+     * Return the number of times the choices were found in the cache
+     *
+     * @return  The number of cache hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Return the number of times the provider had to be called
+     *
+     * @return  The number of cache misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Return the number of cached choices, including the expired ones that weren't removed yet
+     *
+     * @return  The number of cached choices
+     */
+    public int size() {
+        return this.store.size();
+    }
+
+    /**
+     * Remove all the cached choices
+     */
+    public void clear() {
+        this.store.clear();
+    }
+
+    /**
+     * Return who shares the cached choices
+     *
+     * @return  The scope of the cached choices
+     */
+    @NotNull
+    public CacheScope getScope() {
+        return this.store.getScope();
+    }
+}
@@ -0,0 +1,25 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Provides the autocompletion choices of an option.
+ */
+@FunctionalInterface
+public interface AutoCompleteProvider {
+
+    /**
+     * Get the choices to send to Discord
+     *
+     * @param event         The autocompletion event
+     * @return              The choices for the focused option
+     * @throws Throwable    Anything thrown by the autocompletion method
+     */
+    @Nullable
+    Collection<Choice> getChoices(@NotNull final CommandAutoCompleteInteractionEvent event) throws Throwable;
+}
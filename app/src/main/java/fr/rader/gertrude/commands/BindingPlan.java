@@ -0,0 +1,155 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.annotations.Param;
+import fr.rader.gertrude.commands.getters.ClassToCommandElementGetter;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The list of {@link ParameterBinder}s of a command method, one per parameter.
+ * The plan is built once when the command is registered, binding the parameters of an invocation
+ * then only has to run each binder and fill a pre-sized array.
+ */
+final class BindingPlan {
+
+    private final ParameterBinder[] binders;
+
+    BindingPlan(@NotNull final ParameterBinder[] binders) {
+        this.binders = binders;
+    }
+
+    /**
+     * Resolve a binder for each parameter of the given method
+     *
+     * @param method    The command method
+     * @param options   The options built from the method's parameters, in the same order as the {@link Param} parameters
+     * @return          The binding plan of the method
+     */
+    @NotNull
+    static BindingPlan create(@NotNull final Method method, @NotNull final List<OptionData> options) {
+        Parameter[] parameters = method.getParameters();
+        ParameterBinder[] binders = new ParameterBinder[parameters.length];
+
+        int optionIndex = 0;
+        for (int i = 0; i < parameters.length; i++) {
+            // parameters with the @Param annotation have the highest priority.
+            // the data will be extracted from the event's options
+            if (parameters[i].isAnnotationPresent(Param.class)) {
+                binders[i] = option(options.get(optionIndex++).getName(), parameters[i].getType());
+                continue;
+            }
+
+            binders[i] = parameter(parameters[i].getType());
+        }
+
+        return new BindingPlan(binders);
+    }
+
+    /**
+     * Get all the parameters to give to the command method from the given event
+     *
+     * @param event The event to get data from
+     * @return      The parameters to give to the command method
+     */
+    @NotNull
+    Object[] bind(@NotNull final SlashCommandInteractionEvent event) {
+        Object[] parameters = new Object[this.binders.length];
+
+        for (int i = 0; i < this.binders.length; i++) {
+            parameters[i] = this.binders[i].bind(event);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Create a binder for a parameter that isn't an option
+     *
+     * @param type  The parameter's type
+     * @return      The binder giving the event's data, the event itself or the registered parameter
+     */
+    @NotNull
+    static ParameterBinder parameter(@NotNull final Class<?> type) {
+        // the next highest priority after options is the event's data
+        if (ClassToCommandElementGetter.has(type)) {
+            Function<SlashCommandInteractionEvent, Object> getter = ClassToCommandElementGetter.getGetter(type);
+            return getter::apply;
+        }
+
+        // the next highest priority is the event itself
+        if (type.isAssignableFrom(SlashCommandInteractionEvent.class)) {
+            return event -> event;
+        }
+
+        // the lowest priority is the parameter registered in the ParameterRegistry.
+        // parameters have to be added before the commands, so we can resolve it right away
+        Object instance = ParameterRegistry.getInstance().get(type);
+        return event -> instance;
+    }
+
+    /**
+     * Create a binder reading the option with the given name.
+     * Options are looked up by name, so a skipped optional option doesn't shift the following ones.
+     * The type's {@link TypeConverter} is resolved here, so the binder calls it directly.
+     *
+     * @param name  The option's name
+     * @param type  The parameter's type
+     * @return      The binder giving the option's value
+     */
+    @NotNull
+    static ParameterBinder option(@NotNull final String name, @NotNull final Class<?> type) {
+        TypeConverter<?> converter = TypeConverters.getInstance().get(type);
+        Object defaultValue = defaultValue(type);
+
+        if (converter == null) {
+            return event -> defaultValue;
+        }
+
+        return event -> {
+            OptionMapping option = event.getOption(name);
+            if (option == null) {
+                return defaultValue;
+            }
+
+            Object value = converter.convert(option);
+            if (value == null) {
+                return defaultValue;
+            }
+
+            return value;
+        };
+    }
+
+    /**
+     * Return the value given to a parameter when its option is missing.
+     * Primitives cannot be {@code null}, so they get their default value instead.
+     */
+    @Nullable
+    private static Object defaultValue(@NotNull final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+
+        if (type == long.class) {
+            return 0L;
+        }
+
+        if (type == int.class) {
+            return 0;
+        }
+
+        if (type == double.class) {
+            return 0D;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.utils.ChannelResolver;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@link TypeConverter} of a channel type. The option only accepts the channels of the parameter's type,
+ * so Discord doesn't let the users pick another kind of channel.
+ *
+ * @param <T>   The parameter's type
+ */
+final class ChannelConverter<T extends Channel> implements TypeConverter<T> {
+
+    private final ChannelResolver<T> resolver;
+
+    // the options can only be guild channels
+    private final Set<ChannelType> channelTypes;
+
+    private ChannelConverter(@NotNull final ChannelResolver<T> resolver, @NotNull final Set<ChannelType> channelTypes) {
+        this.resolver = resolver;
+        this.channelTypes = channelTypes;
+    }
+
+    /**
+     * Create the converter of the given channel type
+     *
+     * @param type  The parameter's type
+     * @param <T>   The parameter's type
+     * @return      The converter, or {@code null} if no guild channel can be an instance of the given type
+     */
+    @Nullable
+    static <T extends Channel> ChannelConverter<T> of(@NotNull final Class<T> type) {
+        ChannelResolver<T> resolver = ChannelResolver.of(type);
+
+        EnumSet<ChannelType> channelTypes = EnumSet.noneOf(ChannelType.class);
+        for (ChannelType channelType : resolver.getChannelTypes()) {
+            if (channelType.isGuild()) {
+                channelTypes.add(channelType);
+            }
+        }
+
+        if (channelTypes.isEmpty()) {
+            return null;
+        }
+
+        return new ChannelConverter<>(resolver, channelTypes);
+    }
+
+    @NotNull
+    @Override
+    public OptionType getOptionType() {
+        return OptionType.CHANNEL;
+    }
+
+    @Nullable
+    @Override
+    public T convert(@NotNull final OptionMapping option) {
+        return this.resolver.resolve(option.getAsChannel());
+    }
+
+    @Override
+    public void decorate(@NotNull final OptionData option) {
+        option.setChannelTypes(this.channelTypes);
+    }
+}
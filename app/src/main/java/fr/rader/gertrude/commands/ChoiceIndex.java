@@ -0,0 +1,293 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * An {@link AutoCompleteProvider} answering from a fixed set of choices, without calling any autocompletion method.
+ * The choices are sorted by their lowercase name once, when the index is built,
+ * so the choices starting with the typed value are found with a binary search.
+ *
+ * The source of the choices is called again by {@link #refresh()}, for choices that rarely change.
+ * The values of the source are turned into choices of the option's type, so Discord never gets a choice it would refuse.
+ */
+public final class ChoiceIndex implements AutoCompleteProvider {
+
+    private final OptionType optionType;
+    private final Callable<? extends Collection<?>> source;
+
+    // replaced as a whole by refresh(), so the event threads always see a complete index
+    private volatile Snapshot snapshot;
+
+    /**
+     * Create a new index and build it from the given source.
+     * The source can return {@link Choice}s, or any other value that will be turned into a choice.
+     * The values are converted to the option's type: anything can be a string choice,
+     * and numbers or their string form can be number choices, as long as they are whole numbers for an integer option.
+     *
+     * @param optionType    The type of the option the choices are for
+     * @param source        Returns the choices
+     * @throws IllegalArgumentException If the option type cannot have choices, or if the source returns a value
+     *                                  that cannot be converted to the option's type
+     */
+    public ChoiceIndex(@NotNull final OptionType optionType, @NotNull final Callable<? extends Collection<?>> source) {
+        Checks.notNull(optionType, "optionType");
+        Checks.notNull(source, "source");
+        Checks.check(optionType.canSupportChoices(), "Options of type %s cannot have choices", optionType);
+
+        this.optionType = optionType;
+        this.source = source;
+
+        // a source that fails may work later, but a value of the wrong type is a mistake in the command,
+        // so it fails when the command is registered
+        Collection<?> values = getValues();
+        this.snapshot = values != null
+                ? build(values)
+                : new Snapshot(new String[0], new Choice[0]);
+    }
+
+    /**
+     * Get the choices again from the source, and rebuild the index.
+     * If the source fails or returns an invalid choice, the previous choices are kept.
+     *
+     * @return  true if the index was rebuilt, false otherwise
+     */
+    public boolean refresh() {
+        Collection<?> values = getValues();
+        if (values == null) {
+            return false;
+        }
+
+        try {
+            this.snapshot = build(values);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", keeping the previous choices");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Return the type of the option the choices are for
+     *
+     * @return  The option type
+     */
+    @NotNull
+    public OptionType getOptionType() {
+        return this.optionType;
+    }
+
+    @Nullable
+    private Collection<?> getValues() {
+        Collection<?> values;
+        try {
+            values = this.source.call();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        if (values == null) {
+            System.err.println("Choice source returned null, keeping the previous choices");
+        }
+
+        return values;
+    }
+
+    @NotNull
+    private Snapshot build(@NotNull final Collection<?> values) {
+        Entry[] entries = new Entry[values.size()];
+
+        int i = 0;
+        for (Object value : values) {
+            Choice choice = toChoice(this.optionType, value);
+            entries[i++] = new Entry(normalize(choice.getName()), choice);
+        }
+
+        // Arrays.sort is stable for objects, so choices with the same name keep the source's order
+        Arrays.sort(entries, 0, i, Comparator.comparing(entry -> entry.key));
+
+        String[] keys = new String[i];
+        Choice[] choices = new Choice[i];
+        for (int j = 0; j < i; j++) {
+            keys[j] = entries[j].key;
+            choices[j] = entries[j].choice;
+        }
+
+        return new Snapshot(keys, choices);
+    }
+
+    /**
+     * Get the first choices, in alphabetical order, whose name starts with the given value.
+     * The case of the value and the names is ignored.
+     *
+     * @param value The typed value
+     * @return      At most {@link OptionData#MAX_CHOICES} choices
+     */
+    @NotNull
+    public List<Choice> getMatches(@NotNull final String value) {
+        Checks.notNull(value, "value");
+
+        Snapshot snapshot = this.snapshot;
+        String prefix = normalize(value);
+
+        int from = lowerBound(snapshot.keys, prefix);
+
+        int to = from;
+        int max = Math.min(snapshot.keys.length, from + OptionData.MAX_CHOICES);
+        while (to < max && snapshot.keys[to].startsWith(prefix)) {
+            to++;
+        }
+
+        if (from == to) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(snapshot.choices, from, to)));
+    }
+
+    @NotNull
+    @Override
+    public Collection<Choice> getChoices(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        return getMatches(event.getFocusedOption().getValue());
+    }
+
+    /**
+     * Return the number of choices in the index
+     *
+     * @return  The number of choices
+     */
+    public int size() {
+        return this.snapshot.keys.length;
+    }
+
+    /**
+     * Find the first key that is not less than the given prefix.
+     * Unlike {@link Arrays#binarySearch(Object[], Object)}, this is always the first of the keys equal to the prefix,
+     * since several choices can have the same name
+     */
+    private static int lowerBound(@NotNull final String[] keys, @NotNull final String prefix) {
+        int low = 0;
+        int high = keys.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Turn a value of the source into a choice of the given type
+     *
+     * @throws IllegalArgumentException If the value cannot be converted to the type
+     */
+    @NotNull
+    private static Choice toChoice(@NotNull final OptionType optionType, final Object value) {
+        if (!(value instanceof Choice)) {
+            return toChoice(optionType, String.valueOf(value), value);
+        }
+
+        Choice choice = (Choice) value;
+        if (choice.getType() == optionType) {
+            return choice;
+        }
+
+        Object choiceValue;
+        if (choice.getType() == OptionType.INTEGER) {
+            choiceValue = choice.getAsLong();
+        } else if (choice.getType() == OptionType.NUMBER) {
+            choiceValue = choice.getAsDouble();
+        } else {
+            choiceValue = choice.getAsString();
+        }
+
+        return toChoice(optionType, choice.getName(), choiceValue)
+                .setNameLocalizations(choice.getNameLocalizations().toMap());
+    }
+
+    @NotNull
+    private static Choice toChoice(@NotNull final OptionType optionType, @NotNull final String name, final Object value) {
+        try {
+            switch (optionType) {
+                case INTEGER:
+                    return new Choice(name, toLong(value));
+                case NUMBER:
+                    return new Choice(name, toDouble(value));
+                default:
+                    return new Choice(name, String.valueOf(value));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid choice '" + name + "' for an option of type " + optionType + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static long toLong(final Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (number != Math.rint(number) || Math.abs(number) > OptionData.MAX_POSITIVE_NUMBER) {
+                throw new IllegalArgumentException(value + " is not a whole number");
+            }
+
+            return (long) number;
+        }
+
+        return Long.parseLong(String.valueOf(value));
+    }
+
+    private static double toDouble(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        return Double.parseDouble(String.valueOf(value));
+    }
+
+    @NotNull
+    private static String normalize(@NotNull final String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Choice choice;
+
+        private Entry(@NotNull final String key, @NotNull final Choice choice) {
+            this.key = key;
+            this.choice = choice;
+        }
+    }
+
+    /**
+     * The sorted keys, and the choice of each key at the same index
+     */
+    private static final class Snapshot {
+
+        private final String[] keys;
+        private final Choice[] choices;
+
+        private Snapshot(@NotNull final String[] keys, @NotNull final Choice[] choices) {
+            this.keys = keys;
+            this.choices = choices;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.annotations.CacheScope;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The choices of an autocompleted option, by typed value and by guild or user depending on the {@link CacheScope}.
+ * The least recently used choices are removed once the store is full.
+ * This is thread safe, the whole store is locked for each access.
+ */
+final class ChoiceStore {
+
+    private final CacheScope scope;
+    private final Map<Key, Entry> entries;
+
+    ChoiceStore(int maxEntries, @NotNull final CacheScope scope) {
+        this.scope = scope;
+
+        // an access-ordered LinkedHashMap keeps the least recently used entry first.
+        // inside the subclass, Entry is LinkedHashMap's own entry class, so ours is qualified
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ChoiceStore.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the key of the given event's choices
+     *
+     * @param event The autocompletion event
+     * @return      The key to get or put the choices with
+     */
+    @NotNull
+    Key key(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        return new Key(scopeId(event), event.getFocusedOption().getValue());
+    }
+
+    @Nullable
+    Entry get(@NotNull final Key key) {
+        synchronized (this.entries) {
+            return this.entries.get(key);
+        }
+    }
+
+    /**
+     * Store the choices of the given key
+     *
+     * @param key       The key of the choices
+     * @param choices   The choices, they must not be modified afterwards
+     * @param storedAt  The time the choices were computed at, from {@link System#nanoTime()}
+     */
+    void put(@NotNull final Key key, @NotNull final List<Choice> choices, long storedAt) {
+        synchronized (this.entries) {
+            this.entries.put(key, new Entry(choices, storedAt));
+        }
+    }
+
+    int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    @NotNull
+    CacheScope getScope() {
+        return this.scope;
+    }
+
+    private long scopeId(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        switch (this.scope) {
+            case GUILD:
+                Guild guild = event.getGuild();
+                return guild == null ? 0 : guild.getIdLong();
+
+            case USER:
+                return event.getUser().getIdLong();
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * The value being typed, and the id of the guild or the user sharing the choices
+     */
+    static final class Key {
+
+        private final long scopeId;
+        private final String value;
+
+        private Key(long scopeId, @NotNull final String value) {
+            this.scopeId = scopeId;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return this.scopeId == key.scopeId && this.value.equals(key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(this.scopeId) + this.value.hashCode();
+        }
+    }
+
+    static final class Entry {
+
+        private final List<Choice> choices;
+        private final long storedAt;
+
+        private Entry(@NotNull final List<Choice> choices, long storedAt) {
+            this.choices = choices;
+            this.storedAt = storedAt;
+        }
+
+        @NotNull
+        List<Choice> getChoices() {
+            return this.choices;
+        }
+
+        long getStoredAt() {
+            return this.storedAt;
+        }
+    }
+}
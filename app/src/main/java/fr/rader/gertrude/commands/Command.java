@@ -2,7 +2,9 @@ package fr.rader.gertrude.commands;
 
 import fr.rader.gertrude.annotations.SlashCommand;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,31 +19,66 @@ import java.util.List;
  *     // code...
  * }
  * </code></pre>
+ *
+ * If your command methods aren't public, give Gertrude your class' lookup so it can call them:
+ * <pre><code>
+ * public class MyCommand extends Command {
+ *     public MyCommand() {
+ *         super(MethodHandles.lookup());
+ *     }
+ * }
+ * </code></pre>
  */
 public abstract class Command {
 
-    private final List<Method> commandMethods;
+    private final MethodHandles.Lookup lookup;
+
+    private List<Method> commandMethods;
 
     /**
-     * Caches all the methods annotated with the {@link SlashCommand} annotation.
-     * This constructor is private because we don't want to be able to create empty Commands.
+     * Creates a new command.
+     * This constructor is protected because we don't want to be able to create empty Commands.
      */
     protected Command() {
-        this.commandMethods = new ArrayList<>();
+        this(null);
+    }
 
-        // we cache the methods with the SlashCommand annotation
-        for (Method method : this.getClass().getDeclaredMethods()) {
-            if (method.isAnnotationPresent(SlashCommand.class)) {
-                this.commandMethods.add(method);
-            }
-        }
+    /**
+     * Creates a new command.
+     * The given lookup is used to access the command and autocompletion methods,
+     * this allows them to be private.
+     *
+     * @param lookup    The lookup of the class extending this one, created with {@link MethodHandles#lookup()}
+     */
+    protected Command(@Nullable final MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
     }
 
     /**
      * Returns the cached list of methods having the {@link SlashCommand} annotation associated with them.
+     * The methods are only looked up the first time, commands with a generated {@link CommandBinder} never do it.
      */
     @NotNull
-    final List<Method> getCommandMethods() {
+    final synchronized List<Method> getCommandMethods() {
+        if (this.commandMethods == null) {
+            this.commandMethods = new ArrayList<>();
+
+            // we cache the methods with the SlashCommand annotation
+            for (Method method : this.getClass().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(SlashCommand.class)) {
+                    this.commandMethods.add(method);
+                }
+            }
+        }
+
         return this.commandMethods;
     }
+
+    /**
+     * Returns the lookup given by the class extending this one, or {@code null} if it didn't give one.
+     */
+    @Nullable
+    final MethodHandles.Lookup getLookup() {
+        return this.lookup;
+    }
 }
@@ -0,0 +1,30 @@
+package fr.rader.gertrude.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Describes the commands of a {@link Command} class without using reflection.
+ * Implementations of this interface are generated at compile time by Gertrude's annotation processor,
+ * they are found with a {@link java.util.ServiceLoader} and used instead of inspecting the command's methods.
+ *
+ * @param <T>   The type of the command class
+ */
+public interface CommandBinder<T extends Command> {
+
+    /**
+     * @return  The command class this binder describes
+     */
+    @NotNull
+    Class<T> getCommandClass();
+
+    /**
+     * Describe all the command methods of the given command instance
+     *
+     * @param command   The command instance to call the methods on
+     * @return          One {@link CompiledCommand} per command method
+     */
+    @NotNull
+    List<CompiledCommand> bind(@NotNull final T command);
+}
@@ -0,0 +1,62 @@
+package fr.rader.gertrude.commands;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Util class to get the {@link CommandBinder} generated for a command class.
+ * The binder of each class is looked up with the class' own class loader, so the classes loaded later
+ * by another class loader, like the ones replaced at runtime, still find their binder.
+ */
+final class CommandBinders {
+
+    // the lookup result is kept by the command class itself, so it goes away with the class and its class loader
+    private static final ClassValue<CommandBinder<?>> BINDERS = new ClassValue<CommandBinder<?>>() {
+        @Override
+        protected CommandBinder<?> computeValue(@NotNull final Class<?> type) {
+            return load(type);
+        }
+    };
+
+    // private constructor, we don't want an instance of this class
+    private CommandBinders() {
+    }
+
+    /**
+     * Get the binder generated for the given command class
+     *
+     * @param clazz The command class
+     * @return      The binder if one was generated for the class, {@code null} otherwise
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static CommandBinder<Command> get(@NotNull final Class<? extends Command> clazz) {
+        return (CommandBinder<Command>) BINDERS.get(clazz);
+    }
+
+    @Nullable
+    private static CommandBinder<?> load(@NotNull final Class<?> clazz) {
+        @SuppressWarnings("rawtypes")
+        Iterator<CommandBinder> iterator = ServiceLoader.load(CommandBinder.class, clazz.getClassLoader()).iterator();
+
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                CommandBinder<?> binder = iterator.next();
+                if (binder.getCommandClass() == clazz) {
+                    return binder;
+                }
+            } catch (ServiceConfigurationError e) {
+                // a stale entry, like the binder of a class that was deleted. the other binders can still be loaded
+                System.err.println("Cannot load a generated command binder, its command will use reflection: " + e.getMessage());
+            }
+        }
+    }
+}
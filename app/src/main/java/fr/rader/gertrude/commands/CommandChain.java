@@ -0,0 +1,20 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The rest of a command's {@link CommandInterceptor}s, followed by the command method.
+ * The chain of each command is built once when the command is registered.
+ */
+@FunctionalInterface
+public interface CommandChain {
+
+    /**
+     * Run the next interceptor, or bind the parameters and call the command method if there are no interceptors left
+     *
+     * @param event         The event that triggered the command
+     * @throws Throwable    Anything thrown by the next interceptors
+     */
+    void proceed(@NotNull final SlashCommandInteractionEvent event) throws Throwable;
+}
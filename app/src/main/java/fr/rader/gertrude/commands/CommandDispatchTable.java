@@ -0,0 +1,230 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.utils.LongObjectMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An immutable lookup table from a command path (command, subcommand group, subcommand) to its {@link CommandMethod}.
+ * The names are normalized once when the table is built, so a lookup is a couple of hash hits without allocating.
+ * Commands can also be looked up by the snowflake Discord gave them when they were registered.
+ *
+ * When commands are added or removed, a new table is built with {@link #withCommandMethods(List)}.
+ * It keeps the command ids, so the commands that are still there can be looked up by id right away.
+ */
+final class CommandDispatchTable {
+
+    private final Map<String, CommandNode> commands;
+    private final LongObjectMap<CommandNode> commandIds;
+
+    // the normalized name of each known command id, to link the ids to the nodes of a rebuilt table
+    private final LongObjectMap<String> commandNames;
+
+    private CommandDispatchTable(
+            @NotNull final Map<String, CommandNode> commands,
+            @NotNull final LongObjectMap<CommandNode> commandIds,
+            @NotNull final LongObjectMap<String> commandNames
+    ) {
+        this.commands = commands;
+        this.commandIds = commandIds;
+        this.commandNames = commandNames;
+    }
+
+    /**
+     * Build a new table from the given command methods
+     *
+     * @param commandMethods    The command methods to index
+     * @return                  The table holding all the given command methods
+     */
+    @NotNull
+    static CommandDispatchTable build(@NotNull final List<CommandMethod> commandMethods) {
+        return new CommandDispatchTable(buildNodes(commandMethods), new LongObjectMap<>(0), new LongObjectMap<>(0));
+    }
+
+    /**
+     * Build a new table from the given command methods, keeping the command ids of this table
+     *
+     * @param commandMethods    The command methods to index
+     * @return                  The table holding all the given command methods
+     */
+    @NotNull
+    CommandDispatchTable withCommandMethods(@NotNull final List<CommandMethod> commandMethods) {
+        Map<String, CommandNode> commands = buildNodes(commandMethods);
+        LongObjectMap<CommandNode> commandIds = new LongObjectMap<>(this.commandNames.size());
+
+        // the ids of the removed commands are kept in case they're added back
+        this.commandNames.forEach((id, name) -> {
+            CommandNode node = commands.get(name);
+            if (node != null) {
+                commandIds.put(id, node);
+            }
+        });
+
+        return new CommandDispatchTable(commands, commandIds, this.commandNames);
+    }
+
+    @NotNull
+    private static Map<String, CommandNode> buildNodes(@NotNull final List<CommandMethod> commandMethods) {
+        Map<String, CommandNode> commands = new HashMap<>();
+
+        for (CommandMethod commandMethod : commandMethods) {
+            CommandNode node = commands.computeIfAbsent(normalize(commandMethod.getName()), name -> new CommandNode());
+            node.add(commandMethod);
+        }
+
+        return commands;
+    }
+
+    /**
+     * Create a copy of this table where the given Discord commands can be looked up by their id.
+     * Discord commands that don't match a command from this table can't be looked up by id until a table with a matching command is built.
+     *
+     * @param discordCommands   The commands Discord sent back after registering them
+     * @return                  A new table with the command ids
+     */
+    @NotNull
+    CommandDispatchTable withCommandIds(@NotNull final Collection<? extends net.dv8tion.jda.api.interactions.commands.Command> discordCommands) {
+        Map<String, Long> ids = new HashMap<>();
+        for (net.dv8tion.jda.api.interactions.commands.Command discordCommand : discordCommands) {
+            ids.put(discordCommand.getName(), discordCommand.getIdLong());
+        }
+
+        return withCommandIds(ids);
+    }
+
+    /**
+     * Create a copy of this table where the commands with the given names can be looked up by the given ids
+     *
+     * @param ids   The ids Discord gave to the commands, by command name
+     * @return      A new table with the command ids
+     */
+    @NotNull
+    CommandDispatchTable withCommandIds(@NotNull final Map<String, Long> ids) {
+        LongObjectMap<CommandNode> commandIds = new LongObjectMap<>(this.commandIds);
+        LongObjectMap<String> commandNames = new LongObjectMap<>(this.commandNames);
+
+        for (Map.Entry<String, Long> entry : ids.entrySet()) {
+            String name = normalize(entry.getKey());
+            commandNames.put(entry.getValue(), name);
+
+            CommandNode node = this.commands.get(name);
+            if (node != null) {
+                commandIds.put(entry.getValue(), node);
+            }
+        }
+
+        return new CommandDispatchTable(this.commands, commandIds, commandNames);
+    }
+
+    /**
+     * Get the command method linked to the given path
+     *
+     * @param commandName           The command name
+     * @param subcommandName        The subcommand name
+     * @param subcommandGroupName   The subcommand group name
+     * @return                      The {@link CommandMethod} if one matches, {@code null} otherwise
+     */
+    @Nullable
+    CommandMethod get(@NotNull final String commandName, @Nullable final String subcommandName, @Nullable final String subcommandGroupName) {
+        CommandNode node = lookup(this.commands, commandName);
+        if (node == null) {
+            return null;
+        }
+
+        return node.get(subcommandName, subcommandGroupName);
+    }
+
+    /**
+     * Get the command method linked to the given command id and subcommand path
+     *
+     * @param commandId             The id Discord gave to the command
+     * @param subcommandName        The subcommand name
+     * @param subcommandGroupName   The subcommand group name
+     * @return                      The {@link CommandMethod} if one matches, {@code null} otherwise
+     */
+    @Nullable
+    CommandMethod get(long commandId, @Nullable final String subcommandName, @Nullable final String subcommandGroupName) {
+        CommandNode node = this.commandIds.get(commandId);
+        if (node == null) {
+            return null;
+        }
+
+        return node.get(subcommandName, subcommandGroupName);
+    }
+
+    /**
+     * Discord only sends lowercase names, so an exact hit is the common case.
+     * We only normalize the name (and allocate) when the exact lookup misses.
+     */
+    @Nullable
+    private static <V> V lookup(@NotNull final Map<String, V> map, @NotNull final String name) {
+        V value = map.get(name);
+        if (value != null) {
+            return value;
+        }
+
+        return map.get(normalize(name));
+    }
+
+    @NotNull
+    private static String normalize(@NotNull final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * All the command methods sharing the same command name
+     */
+    private static final class CommandNode {
+
+        private final Map<String, CommandMethod> subcommands;
+        private final Map<String, Map<String, CommandMethod>> subcommandGroups;
+
+        private CommandMethod command;
+
+        private CommandNode() {
+            this.subcommands = new HashMap<>();
+            this.subcommandGroups = new HashMap<>();
+        }
+
+        private void add(@NotNull final CommandMethod commandMethod) {
+            // the registry refuses duplicated commands, so we keep the first one if we get one anyway
+            if (commandMethod.getSubcommand() == null) {
+                if (this.command == null) {
+                    this.command = commandMethod;
+                }
+
+                return;
+            }
+
+            Map<String, CommandMethod> subcommands = this.subcommands;
+            if (commandMethod.getSubcommandGroup() != null) {
+                subcommands = this.subcommandGroups.computeIfAbsent(normalize(commandMethod.getSubcommandGroup()), name -> new HashMap<>());
+            }
+
+            subcommands.putIfAbsent(normalize(commandMethod.getSubcommand()), commandMethod);
+        }
+
+        @Nullable
+        private CommandMethod get(@Nullable final String subcommandName, @Nullable final String subcommandGroupName) {
+            if (subcommandName == null) {
+                return subcommandGroupName == null ? this.command : null;
+            }
+
+            Map<String, CommandMethod> subcommands = this.subcommands;
+            if (subcommandGroupName != null) {
+                subcommands = lookup(this.subcommandGroups, subcommandGroupName);
+                if (subcommands == null) {
+                    return null;
+                }
+            }
+
+            return lookup(subcommands, subcommandName);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs around the invocation of command methods, to check permissions, log the commands or trace them for example.
+ * Interceptors are added to all the commands with {@link fr.rader.gertrude.Gertrude#addInterceptor(CommandInterceptor)},
+ * or to some of them with the {@link fr.rader.gertrude.annotations.Intercept} annotation.
+ *
+ * An interceptor calls {@link CommandChain#proceed(SlashCommandInteractionEvent)} to run the command.
+ * If it doesn't, the command's parameters aren't bound and the command method isn't called,
+ * so the interceptor must acknowledge the event itself:
+ * <pre><code>
+ * (event, command, chain) -&gt; {
+ *     if (event.getMember() == null || !event.getMember().hasPermission(Permission.ADMINISTRATOR)) {
+ *         event.reply("You cannot use this command").setEphemeral(true).queue();
+ *         return;
+ *     }
+ *
+ *     chain.proceed(event);
+ * }
+ * </code></pre>
+ */
+@FunctionalInterface
+public interface CommandInterceptor {
+
+    /**
+     * Intercept the invocation of a command method
+     *
+     * @param event         The event that triggered the command
+     * @param command       The command being invoked
+     * @param chain         The next interceptors and the command method
+     * @throws Throwable    Anything thrown by the interceptor or the chain
+     */
+    void intercept(
+            @NotNull final SlashCommandInteractionEvent event,
+            @NotNull final CommandMethod command,
+            @NotNull final CommandChain chain
+    ) throws Throwable;
+}
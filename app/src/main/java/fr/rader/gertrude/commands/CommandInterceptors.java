@@ -0,0 +1,54 @@
+package fr.rader.gertrude.commands;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Util class to get the instance of the {@link CommandInterceptor}s given to {@link fr.rader.gertrude.annotations.Intercept}
+ */
+final class CommandInterceptors {
+
+    // created the first time they're used, then shared by all the commands
+    private static final Map<Class<?>, CommandInterceptor> interceptors = new HashMap<>();
+
+    // private constructor, we don't want an instance of this class
+    private CommandInterceptors() {
+    }
+
+    /**
+     * Get the instance of the given interceptor class.
+     * The instance added as a command parameter is used first, then one created with the class' constructor without parameters.
+     *
+     * @param clazz The interceptor's class
+     * @return      The interceptor, or {@code null} if it cannot be created
+     */
+    @Nullable
+    static synchronized CommandInterceptor get(@NotNull final Class<? extends CommandInterceptor> clazz) {
+        Object parameter = ParameterRegistry.getInstance().get(clazz);
+        if (parameter != null) {
+            return (CommandInterceptor) parameter;
+        }
+
+        CommandInterceptor interceptor = interceptors.get(clazz);
+        if (interceptor != null) {
+            return interceptor;
+        }
+
+        try {
+            interceptor = clazz.getConstructor().newInstance();
+        } catch (NoSuchMethodException | IllegalAccessException | InstantiationException e) {
+            System.err.println("Interceptor " + clazz.getName() + " has no public constructor without parameters, add its instance with addCommandParameter");
+            return null;
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+
+        interceptors.put(clazz, interceptor);
+        return interceptor;
+    }
+}
@@ -0,0 +1,18 @@
+package fr.rader.gertrude.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Calls a command method with its bound parameters.
+ */
+@FunctionalInterface
+public interface CommandInvoker {
+
+    /**
+     * Call the command method
+     *
+     * @param parameters    The parameters to give to the command method
+     * @throws Throwable    Anything thrown by the command method
+     */
+    void invoke(@NotNull final Object[] parameters) throws Throwable;
+}
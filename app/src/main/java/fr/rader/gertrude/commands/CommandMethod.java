@@ -1,12 +1,12 @@
 package fr.rader.gertrude.commands;
 
 import fr.rader.gertrude.annotations.Param;
-import fr.rader.gertrude.commands.getters.ClassToCommandElementGetter;
-import fr.rader.gertrude.commands.getters.ClassToOptionGetter;
+import fr.rader.gertrude.execution.Bulkhead;
+import fr.rader.gertrude.execution.CommandCooldown;
+import fr.rader.gertrude.metrics.CommandMetrics;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.Command.Choice;
-import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
@@ -14,6 +14,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Holds handy methods to cache, validate and call autocompletion methods, and to call command methods
@@ -26,45 +27,120 @@ public final class CommandMethod {
     private final String subcommand;
     private final String subcommandGroup;
 
-    private final Method method;
-    private final Command instance;
+    private final BindingPlan bindingPlan;
+    private final CommandInvoker invoker;
 
-    private final Map<String, Method> autoCompleteMethods;
+    private final Map<String, AutoCompleteProvider> autoCompleteProviders;
+
+    private final Bulkhead bulkhead;
+    private final CommandCooldown cooldown;
+
+    // the last choices of each autocompleted option, empty if they aren't remembered
+    private final Map<String, ChoiceStore> lastChoices;
+
+    // null if the metrics aren't recorded
+    private final CommandMetrics metrics;
+
+    // the interceptors wrapped around execute(), in the order they run
+    private final CommandInterceptor[] interceptors;
+    private final CommandChain chain;
 
     CommandMethod(
             @NotNull final String name,
             @Nullable final String subcommand,
             @Nullable final String subcommandGroup,
-            @NotNull final Method method,
-            @NotNull final Command instance
+            @NotNull final BindingPlan bindingPlan,
+            @NotNull final CommandInvoker invoker,
+            @NotNull final Map<String, AutoCompleteProvider> autoCompleteProviders,
+            @Nullable final Bulkhead bulkhead,
+            @Nullable final CommandCooldown cooldown,
+            @NotNull final Map<String, ChoiceStore> lastChoices,
+            @Nullable final CommandMetrics metrics,
+            @NotNull final CommandInterceptor[] interceptors
     ) {
         this.name = name;
         this.subcommand = subcommand;
         this.subcommandGroup = subcommandGroup;
-        this.method = method;
-        this.instance = instance;
 
-        this.autoCompleteMethods = new HashMap<>();
+        this.bindingPlan = bindingPlan;
+        this.invoker = invoker;
+
+        this.autoCompleteProviders = autoCompleteProviders;
+
+        this.bulkhead = bulkhead;
+        this.cooldown = cooldown;
+        this.lastChoices = lastChoices;
+        this.metrics = metrics;
+
+        this.interceptors = interceptors;
+        this.chain = createChain(interceptors);
     }
 
     /**
-     * Invoke the command method.
+     * Wrap the interceptors around {@link #execute(SlashCommandInteractionEvent)}, the last one first.
+     * This is done once, so invoking the command doesn't build any list or iterator.
+     */
+    @NotNull
+    private CommandChain createChain(@NotNull final CommandInterceptor[] interceptors) {
+        CommandChain chain = this::execute;
+
+        for (int i = interceptors.length - 1; i >= 0; i--) {
+            CommandInterceptor interceptor = interceptors[i];
+            CommandChain next = chain;
+
+            chain = event -> interceptor.intercept(event, this, next);
+        }
+
+        return chain;
+    }
+
+    /**
+     * Invoke the command method, through the command's interceptors.
      *
      * @param event     The event that triggered the invoke
      */
     public void invoke(@NotNull final SlashCommandInteractionEvent event) {
         Checks.notNull(event, "event");
 
-        List<Object> parameters = buildParameters(event);
+        try {
+            this.chain.proceed(event);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    /**
+     * Bind the parameters and call the command method, once the interceptors let the command run
+     */
+    private void execute(@NotNull final SlashCommandInteractionEvent event) {
+        CommandMetrics metrics = this.metrics;
+        if (metrics == null) {
+            Object[] parameters = this.bindingPlan.bind(event);
+
+            try {
+                this.invoker.invoke(parameters);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+
+            return;
+        }
+
+        long start = System.nanoTime();
+        Object[] parameters = this.bindingPlan.bind(event);
 
+        long bound = System.nanoTime();
+        metrics.recordBinding(bound - start);
+
+        boolean failed = false;
         try {
-            this.method.invoke(
-                    this.instance,
-                    parameters.toArray(new Object[0])
-            );
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
+            this.invoker.invoke(parameters);
+        } catch (Throwable t) {
+            failed = true;
+            t.printStackTrace();
         }
+
+        metrics.recordExecution(System.nanoTime() - bound, failed);
     }
 
     /**
@@ -79,93 +155,108 @@ public final class CommandMethod {
         Checks.notNull(optionName, "optionName");
         Checks.notNull(event, "event");
 
-        Method autoCompleteMethod = this.autoCompleteMethods.get(optionName);
-        if (autoCompleteMethod == null) {
+        AutoCompleteProvider provider = this.autoCompleteProviders.get(optionName);
+        if (provider == null) {
             return new ArrayList<>();
         }
 
-        List<Choice> choices = null;
+        long start = System.nanoTime();
+        boolean failed = false;
+
+        Collection<Choice> choices = null;
         try {
-            choices = (List<Choice>) autoCompleteMethod.invoke(this.instance, event);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
+            choices = provider.getChoices(event);
+        } catch (Throwable t) {
+            failed = true;
+            t.printStackTrace();
+        }
+
+        if (this.metrics != null) {
+            this.metrics.recordAutoComplete(System.nanoTime() - start, failed);
         }
 
         if (choices == null) {
-            choices = new ArrayList<>();
+            return new ArrayList<>();
         }
 
-        return choices;
+        ChoiceStore store = this.lastChoices.get(optionName);
+        if (store != null) {
+            List<Choice> lastChoices = Collections.unmodifiableList(new ArrayList<>(choices));
+            store.put(store.key(event), lastChoices, System.nanoTime());
+
+            return lastChoices;
+        }
+
+        if (choices instanceof List) {
+            return (List<Choice>) choices;
+        }
+
+        return new ArrayList<>(choices);
     }
 
     /**
-     * Get all object instances from the {@link ParameterRegistry}, or the {@link SlashCommandInteractionEvent} and add them to a list.
+     * Get the last choices the autocompletion method returned for the value being typed.
+     * This is used when the autocompletion method is too slow to answer, the choices are only remembered
+     * if an autocompletion deadline is set with {@link fr.rader.gertrude.Gertrude#setAutoCompleteDeadline(long, java.util.concurrent.TimeUnit)}.
      *
-     * @param event     The even to get data from
-     * @return          A list of objects (the parameters) to give to the command method
+     * @param optionName    The option to get the autocompletion choices for
+     * @param event         The autocompletion event
+     * @return              The last choices, or an empty list if there are none
      */
     @NotNull
-    private List<Object> buildParameters(@NotNull final SlashCommandInteractionEvent event) {
-        List<Object> parameters = new ArrayList<>();
-
-        int optionIndex = 0;
-        for (Parameter parameter : this.method.getParameters()) {
-            Class<?> type = parameter.getType();
-
-            // parameters with the @Param annotation have the highest priority.
-            // the data will be extracted from the event's parameters
-            if (parameter.isAnnotationPresent(Param.class)) {
-                Param param = parameter.getAnnotation(Param.class);
-
-                if (optionIndex >= event.getOptions().size()) {
-                    parameters.add(null);
-                    continue;
-                }
-
-                OptionMapping option = event.getOptions().get(optionIndex);
-                if (!option.getName().equals(param.name())) {
-                    parameters.add(null);
-                    continue;
-                }
-
-                Object paramObject = ClassToOptionGetter.get(type, option);
-                parameters.add(paramObject);
+    public List<Choice> getLastAutoCompleteChoices(@NotNull final String optionName, @NotNull final CommandAutoCompleteInteractionEvent event) {
+        Checks.notNull(optionName, "optionName");
+        Checks.notNull(event, "event");
 
-                optionIndex++;
-                continue;
-            }
+        ChoiceStore store = this.lastChoices.get(optionName);
+        if (store == null) {
+            return new ArrayList<>();
+        }
 
-            // the next highest priority is the event's data
-            if (ClassToCommandElementGetter.has(type)) {
-                parameters.add(ClassToCommandElementGetter.get(type, event));
-                continue;
-            }
+        ChoiceStore.Entry entry = store.get(store.key(event));
+        if (entry == null) {
+            return new ArrayList<>();
+        }
 
-            // the next highest priority is the event itself
-            if (type.isAssignableFrom(SlashCommandInteractionEvent.class)) {
-                parameters.add(event);
-                continue;
-            }
+        return entry.getChoices();
+    }
 
-            // the lowest priority is the parameter registered in the ParameterRegistry
-            parameters.add(ParameterRegistry.getInstance().get(type));
-        }
+    /**
+     * Get the cache in front of the autocompletion method of the given option, to read its hit and miss counts
+     *
+     * @param optionName    The autocompleted option
+     * @return              The cache, or {@code null} if the option's choices aren't cached
+     */
+    @Nullable
+    public AutoCompleteCache getAutoCompleteCache(@NotNull final String optionName) {
+        Checks.notNull(optionName, "optionName");
 
-        for (int i = parameters.size(); i < this.method.getParameterCount(); i++) {
-            parameters.add(null);
+        AutoCompleteProvider provider = this.autoCompleteProviders.get(optionName);
+        if (provider instanceof AutoCompleteCache) {
+            return (AutoCompleteCache) provider;
         }
 
-        return parameters;
+        return null;
     }
 
     /**
-     * Get all the autocompletion methods and caches them
+     * Get all the autocompletion methods of the given command method
      *
+     * @param instance  The command instance that owns the methods
+     * @param method    The command method
      * @param options   The options to get the option names from
+     * @return          The autocompletion providers, by option name
      */
-    void cacheAutoCompleteMethods(@NotNull final List<OptionData> options) {
+    @NotNull
+    static Map<String, AutoCompleteProvider> findAutoCompleteProviders(
+            @NotNull final Command instance,
+            @NotNull final Method method,
+            @NotNull final List<OptionData> options
+    ) {
+        Map<String, AutoCompleteProvider> autoCompleteProviders = new HashMap<>();
+
         int optionIndex = 0;
-        for (Parameter parameter : this.method.getParameters()) {
+        for (Parameter parameter : method.getParameters()) {
             Param param = parameter.getAnnotation(Param.class);
             if (param == null) {
                 continue;
@@ -173,13 +264,32 @@ public final class CommandMethod {
 
             OptionData option = options.get(optionIndex++);
             String autoCompleteMethodName = param.autocomplete();
+
+            if (!param.choices().isEmpty()) {
+                if (autoCompleteMethodName.isEmpty()) {
+                    ChoiceIndex choiceIndex = createChoiceIndex(instance, param.choices(), option);
+                    if (choiceIndex != null) {
+                        autoCompleteProviders.put(option.getName(), choiceIndex);
+                    }
+
+                    continue;
+                }
+
+                System.err.println("Option " + option.getName() + " of " + method + " has both choices and an autocomplete method, ignoring the choices");
+            }
+
             if (autoCompleteMethodName.isEmpty()) {
+                AutoCompleteProvider converterProvider = getConverterProvider(parameter.getType(), option);
+                if (converterProvider != null) {
+                    autoCompleteProviders.put(option.getName(), converterProvider);
+                }
+
                 continue;
             }
 
             Method autoCompleteMethod = null;
             try {
-                autoCompleteMethod = this.instance.getClass().getDeclaredMethod(autoCompleteMethodName, CommandAutoCompleteInteractionEvent.class);
+                autoCompleteMethod = instance.getClass().getDeclaredMethod(autoCompleteMethodName, CommandAutoCompleteInteractionEvent.class);
             } catch (NoSuchMethodException e) {
                 e.printStackTrace();
             }
@@ -205,41 +315,177 @@ public final class CommandMethod {
                 continue;
             }
 
-            autoCompleteMethod.setAccessible(true);
-            this.autoCompleteMethods.put(option.getName(), autoCompleteMethod);
+            AutoCompleteProvider provider;
+            try {
+                provider = Invokers.autoComplete(instance, autoCompleteMethod);
+            } catch (IllegalAccessException e) {
+                System.err.println("AutoComplete method " + autoCompleteMethod + " cannot be accessed, give Gertrude your command's lookup to use non-public methods");
+                continue;
+            }
+
+            if (param.cacheTtl() > 0) {
+                if (param.cacheSize() <= 0) {
+                    System.err.println("Cache size for autocomplete method " + autoCompleteMethod + " is not positive, the choices won't be cached");
+                } else {
+                    provider = new AutoCompleteCache(provider, param.cacheTtl(), TimeUnit.SECONDS, param.cacheSize(), param.cacheScope());
+                }
+            }
+
+            autoCompleteProviders.put(option.getName(), provider);
         }
+
+        return autoCompleteProviders;
+    }
+
+    /**
+     * Return the bulkhead limiting the concurrent invocations of the command method
+     *
+     * @return  The bulkhead, or {@code null} if the invocations aren't limited
+     */
+    @Nullable
+    public Bulkhead getBulkhead() {
+        return this.bulkhead;
+    }
+
+    /**
+     * Return the cooldown limiting how often the command method can be used
+     *
+     * @return  The cooldown, or {@code null} if the command has no {@link fr.rader.gertrude.annotations.Cooldown}
+     */
+    @Nullable
+    public CommandCooldown getCooldown() {
+        return this.cooldown;
     }
 
     /**
-     * Returns true if this command has the same name, subcommand and subcommand group as the given parameters, false otherwise
+     * Get the autocompletion the parameter's {@link TypeConverter} gives to the option
      *
-     * @param name              The command's name
-     * @param subcommand        The command's subcommand
-     * @param subcommandGroup   The command's subcommand group
-     * @return                  true if the command matches with the given string, false otherwise
+     * @param type      The parameter's type
+     * @param option    The option built from the parameter
+     * @return          The converter's autocompletion, or {@code null} if the option isn't autocompleted by its converter
      */
-    boolean matches(@NotNull final String name, @Nullable final String subcommand, @Nullable final String subcommandGroup) {
-        if (!this.name.equalsIgnoreCase(name)) {
-            return false;
+    @Nullable
+    static AutoCompleteProvider getConverterProvider(@NotNull final Class<?> type, @NotNull final OptionData option) {
+        if (!option.isAutoComplete()) {
+            return null;
         }
 
-        if (this.subcommand != null ^ subcommand != null) {
-            return false;
+        TypeConverter<?> converter = TypeConverters.getInstance().get(type);
+        if (converter == null) {
+            return null;
         }
 
-        boolean matches = true;
-        if (this.subcommand != null) {
-            matches = this.subcommand.equalsIgnoreCase(subcommand);
+        return converter.getAutoCompleteProvider();
+    }
+
+    /**
+     * Create the index of the choices returned by the given choices method
+     *
+     * @param instance      The command instance that owns the method
+     * @param methodName    The choices method's name
+     * @param option        The option the choices are for
+     * @return              The index, or {@code null} if the method cannot be used
+     */
+    @Nullable
+    private static ChoiceIndex createChoiceIndex(
+            @NotNull final Command instance,
+            @NotNull final String methodName,
+            @NotNull final OptionData option
+    ) {
+        Method choicesMethod;
+        try {
+            choicesMethod = instance.getClass().getDeclaredMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            e.printStackTrace();
+            return null;
         }
 
-        if (this.subcommandGroup != null ^ subcommandGroup != null) {
-            return false;
+        if (!Collection.class.isAssignableFrom(choicesMethod.getReturnType())) {
+            System.err.println("Return value for choices method " + choicesMethod + " is not a Collection!");
+            return null;
         }
 
+        try {
+            return new ChoiceIndex(option.getType(), Invokers.choices(instance, choicesMethod));
+        } catch (IllegalAccessException e) {
+            System.err.println("Choices method " + choicesMethod + " cannot be accessed, give Gertrude your command's lookup to use non-public methods");
+            return null;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Choices method " + choicesMethod + " cannot be used for option " + option.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get the index answering the autocompletion of the given option from its static choices, to refresh it
+     *
+     * @param optionName    The autocompleted option
+     * @return              The index, or {@code null} if the option doesn't have static choices
+     */
+    @Nullable
+    public ChoiceIndex getChoiceIndex(@NotNull final String optionName) {
+        Checks.notNull(optionName, "optionName");
+
+        AutoCompleteProvider provider = this.autoCompleteProviders.get(optionName);
+        if (provider instanceof ChoiceIndex) {
+            return (ChoiceIndex) provider;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return the metrics recorded for this command
+     *
+     * @return  The metrics, or {@code null} if they aren't recorded
+     */
+    @Nullable
+    public CommandMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Return the interceptors of this command, in the order they run
+     *
+     * @return  The interceptors, empty if the command has none
+     */
+    @NotNull
+    public List<CommandInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(this.interceptors));
+    }
+
+    /**
+     * Return the full name of this command, like {@code "command group subcommand"}
+     *
+     * @return  The full name of the command
+     */
+    @NotNull
+    public String getFullCommandName() {
+        StringBuilder builder = new StringBuilder(this.name);
+
         if (this.subcommandGroup != null) {
-            matches &= this.subcommandGroup.equalsIgnoreCase(subcommandGroup);
+            builder.append(' ').append(this.subcommandGroup);
+        }
+
+        if (this.subcommand != null) {
+            builder.append(' ').append(this.subcommand);
         }
 
-        return matches;
+        return builder.toString();
+    }
+
+    @NotNull
+    String getName() {
+        return this.name;
+    }
+
+    @Nullable
+    String getSubcommand() {
+        return this.subcommand;
+    }
+
+    @Nullable
+    String getSubcommandGroup() {
+        return this.subcommandGroup;
     }
 }
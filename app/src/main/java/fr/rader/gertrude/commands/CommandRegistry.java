@@ -1,11 +1,19 @@
 package fr.rader.gertrude.commands;
 
+import fr.rader.gertrude.annotations.CacheScope;
+import fr.rader.gertrude.annotations.Cooldown;
+import fr.rader.gertrude.annotations.CooldownScope;
+import fr.rader.gertrude.annotations.Intercept;
 import fr.rader.gertrude.annotations.Param;
 import fr.rader.gertrude.annotations.SlashCommand;
-import fr.rader.gertrude.lexer.Scanner;
-import fr.rader.gertrude.lexer.tokens.Token;
-import fr.rader.gertrude.lexer.tokens.TokenKind;
-import net.dv8tion.jda.api.interactions.commands.OptionType;
+import fr.rader.gertrude.execution.Bulkhead;
+import fr.rader.gertrude.execution.CommandCooldown;
+import fr.rader.gertrude.execution.CooldownStore;
+import fr.rader.gertrude.execution.LocalCooldownStore;
+import fr.rader.gertrude.lexer.CommandSignature;
+import fr.rader.gertrude.lexer.exceptions.LexingException;
+import fr.rader.gertrude.metrics.CommandMetrics;
+import fr.rader.gertrude.metrics.CommandMetricsSnapshot;
 import net.dv8tion.jda.api.interactions.commands.build.*;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
@@ -13,140 +21,594 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * A class that holds a list of all the methods we have and can call.
  * This is used as a builder to turn methods with the {@link SlashCommand} annotation
  * to {@link DiscordSlashCommand} objects, and later {@link SlashCommandData} before sending them to discord
+ *
+ * Command classes can be added, removed and replaced at any time. Each change builds a new {@link Snapshot}
+ * of the commands and their dispatch table, and publishes it at once: the event threads never lock,
+ * and never see a half-updated command tree. Changes are synchronized on the registry.
  */
 public final class CommandRegistry {
 
     private static CommandRegistry instance;
 
-    private final List<DiscordSlashCommand> commands;
-    private final List<CommandMethod> commandMethods;
+    // the number of typed values we remember the choices of, for each autocompleted option
+    private static final int LAST_CHOICES_SIZE = 256;
 
-    private Scanner scanner;
+    // replaced as a whole on each change.
+    // this is volatile because it's read by the event threads
+    private volatile Snapshot snapshot;
 
-    private String subcommandName;
-    private String subcommandGroupName;
+    // used for the commands that don't set their own limits
+    private int defaultMaxConcurrency;
+    private int defaultMaxQueued;
+
+    // creates the buckets of the commands with a cooldown
+    private CooldownStore cooldownStore;
+
+    private boolean rememberAutoCompleteChoices;
+    private boolean recordMetrics;
+
+    // run before the interceptors of each command
+    private final List<CommandInterceptor> interceptors;
 
     private CommandRegistry() {
-        this.commands = new ArrayList<>();
-        this.commandMethods = new ArrayList<>();
+        this.interceptors = new ArrayList<>();
+        this.cooldownStore = new LocalCooldownStore();
+        this.snapshot = new Snapshot(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                CommandDispatchTable.build(Collections.emptyList())
+        );
     }
 
     /**
-     * Register all the methods annotated with the {@link SlashCommand} annotation in the given {@link Command} class
+     * Register all the methods annotated with the {@link SlashCommand} annotation in the given {@link Command} class.
+     * If a {@link CommandBinder} was generated for the class, it is used instead of inspecting the class' methods.
      *
      * @param command   The class to register the commands from
      */
-    public void registerCommandClass(@NotNull final Command command) {
+    public synchronized void registerCommandClass(@NotNull final Command command) {
         Checks.notNull(command, "command");
 
-        for (Method method : command.getCommandMethods()) {
-            addCommand(command, method);
+        List<CommandEntry> entries = this.snapshot.entries;
+        if (indexOf(entries, command) != -1) {
+            System.err.println("Command class " + command.getClass().getName() + " was already added");
+            return;
         }
+
+        List<CommandEntry> newEntries = new ArrayList<>(entries);
+        newEntries.add(createEntry(command, entries));
+
+        publish(newEntries);
     }
 
     /**
-     * Build the given command method to the internal command list to be added to Discord later on
+     * Remove all the commands of the given {@link Command} class
+     *
+     * @param command   The class to remove the commands of
+     * @return          true if the class was removed, false if it wasn't added
+     */
+    public synchronized boolean unregisterCommandClass(@NotNull final Command command) {
+        Checks.notNull(command, "command");
+
+        List<CommandEntry> newEntries = new ArrayList<>(this.snapshot.entries);
+
+        int index = indexOf(newEntries, command);
+        if (index == -1) {
+            return false;
+        }
+
+        newEntries.remove(index);
+
+        publish(newEntries);
+        return true;
+    }
+
+    /**
+     * Replace the commands of a {@link Command} class with the commands of another one, in a single change.
+     * The event threads see either all the old commands or all the new ones.
+     *
+     * @param oldCommand    The class to remove the commands of
+     * @param newCommand    The class to register the commands from
+     * @return              true if the class was replaced, false if the old class wasn't added
+     */
+    public synchronized boolean replaceCommandClass(@NotNull final Command oldCommand, @NotNull final Command newCommand) {
+        Checks.notNull(oldCommand, "oldCommand");
+        Checks.notNull(newCommand, "newCommand");
+
+        List<CommandEntry> newEntries = new ArrayList<>(this.snapshot.entries);
+
+        int index = indexOf(newEntries, oldCommand);
+        if (index == -1) {
+            return false;
+        }
+
+        newEntries.remove(index);
+
+        if (indexOf(newEntries, newCommand) != -1) {
+            System.err.println("Command class " + newCommand.getClass().getName() + " was already added");
+            return false;
+        }
+
+        // the new commands take the old ones' place, so the commands keep their order
+        newEntries.add(index, createEntry(newCommand, newEntries));
+
+        publish(newEntries);
+        return true;
+    }
+
+    /**
+     * Build the commands of the given class, leaving out the ones that already exist
+     *
+     * @param command   The class to build the commands of
+     * @param entries   The classes already added
+     * @return          The commands of the class
+     */
+    @NotNull
+    private CommandEntry createEntry(@NotNull final Command command, @NotNull final List<CommandEntry> entries) {
+        List<CommandPart> parts = new ArrayList<>();
+
+        CommandBinder<Command> binder = CommandBinders.get(command.getClass());
+        if (binder != null) {
+            for (CompiledCommand compiledCommand : binder.bind(command)) {
+                addPart(parts, entries, createPart(compiledCommand));
+            }
+        } else {
+            for (Method method : command.getCommandMethods()) {
+                addPart(parts, entries, createPart(command, method));
+            }
+        }
+
+        return new CommandEntry(command, parts);
+    }
+
+    /**
+     * Add the given command to the parts, unless it couldn't be built or it already exists
+     */
+    private static void addPart(@NotNull final List<CommandPart> parts, @NotNull final List<CommandEntry> entries, @Nullable final CommandPart part) {
+        if (part == null) {
+            return;
+        }
+
+        boolean exists = parts.stream().anyMatch(part::hasSamePath) ||
+                entries.stream().flatMap(entry -> entry.parts.stream()).anyMatch(part::hasSamePath);
+
+        if (exists) {
+            System.err.println("Command '" + part.commandString + "' already exists (ignoring the options)");
+            return;
+        }
+
+        parts.add(part);
+    }
+
+    /**
+     * Build the given command method
      *
      * @param commandInstance   The command instance that owns the method
      * @param method            The command method to execute
+     * @return                  The command, or {@code null} if it couldn't be built
      */
-    private void addCommand(@NotNull final Command commandInstance, @NotNull final Method method) {
+    @Nullable
+    private CommandPart createPart(@NotNull final Command commandInstance, @NotNull final Method method) {
         SlashCommand slashCommand = method.getAnnotation(SlashCommand.class);
-        this.scanner = new Scanner(slashCommand.command());
 
-        this.subcommandName = null;
-        this.subcommandGroupName = null;
+        CommandInvoker invoker;
+        try {
+            invoker = Invokers.command(commandInstance, method);
+        } catch (IllegalAccessException e) {
+            System.err.println("Command method " + method + " cannot be accessed, give Gertrude your command's lookup to use non-public methods");
+            return null;
+        }
 
-        Token name = expect(TokenKind.NAME, "command name");
-        if (name == null) {
-            return;
+        CommandSignature signature;
+        try {
+            signature = CommandSignature.of(slashCommand.command());
+        } catch (LexingException e) {
+            System.err.println("Invalid command in " + method + ". Refusing command method: " + e.getMessage());
+            return null;
+        }
+
+        List<OptionData> options = buildOptions(method, signature);
+        if (options == null) {
+            return null;
+        }
+
+        // the class' interceptors run before the method's ones
+        List<Class<? extends CommandInterceptor>> interceptorClasses = new ArrayList<>();
+
+        Intercept classIntercept = commandInstance.getClass().getAnnotation(Intercept.class);
+        if (classIntercept != null) {
+            interceptorClasses.addAll(Arrays.asList(classIntercept.value()));
+        }
+
+        Intercept methodIntercept = method.getAnnotation(Intercept.class);
+        if (methodIntercept != null) {
+            interceptorClasses.addAll(Arrays.asList(methodIntercept.value()));
+        }
+
+        CommandInterceptor[] interceptors = createInterceptors(slashCommand.command(), interceptorClasses);
+        if (interceptors == null) {
+            return null;
+        }
+
+        Cooldown cooldown = method.getAnnotation(Cooldown.class);
+        CommandCooldown commandCooldown = null;
+        if (cooldown != null) {
+            commandCooldown = createCooldown(
+                    slashCommand.command(),
+                    cooldown.uses(),
+                    cooldown.unit().toNanos(cooldown.per()),
+                    cooldown.scope()
+            );
+
+            if (commandCooldown == null) {
+                return null;
+            }
         }
 
-        DiscordSlashCommand command = getCommand(name.getLexeme());
+        Map<String, AutoCompleteProvider> autoCompleteProviders = CommandMethod.findAutoCompleteProviders(commandInstance, method, options);
+
+        return new CommandPart(
+                slashCommand.command(),
+                slashCommand.description(),
+                slashCommand.subcommandDescription(),
+                slashCommand.subcommandGroupDescription(),
+                options,
+                new CommandMethod(
+                        signature.getName(),
+                        signature.getSubcommand(),
+                        signature.getSubcommandGroup(),
+                        BindingPlan.create(method, options),
+                        invoker,
+                        autoCompleteProviders,
+                        createBulkhead(slashCommand.maxConcurrency(), slashCommand.maxQueued()),
+                        commandCooldown,
+                        createLastChoices(autoCompleteProviders, findAutoCompleteScopes(method, options)),
+                        this.recordMetrics ? new CommandMetrics() : null,
+                        interceptors
+                )
+        );
+    }
+
+    /**
+     * Build a command generated at compile time
+     *
+     * @param compiledCommand   The command to build
+     * @return                  The command, or {@code null} if it couldn't be built
+     */
+    @Nullable
+    private CommandPart createPart(@NotNull final CompiledCommand compiledCommand) {
+        List<OptionData> options = compiledCommand.buildOptions();
+        if (options == null) {
+            return null;
+        }
+
+        CommandInterceptor[] interceptors = createInterceptors(compiledCommand.getCommand(), compiledCommand.getInterceptors());
+        if (interceptors == null) {
+            return null;
+        }
+
+        CommandCooldown commandCooldown = null;
+        if (compiledCommand.getCooldownScope() != null) {
+            commandCooldown = createCooldown(
+                    compiledCommand.getCommand(),
+                    compiledCommand.getCooldownUses(),
+                    compiledCommand.getCooldownNanos(),
+                    compiledCommand.getCooldownScope()
+            );
+
+            if (commandCooldown == null) {
+                return null;
+            }
+        }
+
+        return new CommandPart(
+                compiledCommand.getCommand(),
+                compiledCommand.getDescription(),
+                compiledCommand.getSubcommandDescription(),
+                compiledCommand.getSubcommandGroupDescription(),
+                options,
+                new CommandMethod(
+                        compiledCommand.getName(),
+                        compiledCommand.getSubcommand(),
+                        compiledCommand.getSubcommandGroup(),
+                        compiledCommand.buildBindingPlan(),
+                        compiledCommand.getInvoker(),
+                        compiledCommand.getAutoCompleteProviders(),
+                        createBulkhead(compiledCommand.getMaxConcurrency(), compiledCommand.getMaxQueued()),
+                        commandCooldown,
+                        createLastChoices(compiledCommand.getAutoCompleteProviders(), compiledCommand.getAutoCompleteScopes()),
+                        this.recordMetrics ? new CommandMetrics() : null,
+                        interceptors
+                )
+        );
+    }
+
+    /**
+     * Build the command tree and the dispatch table of the given classes, and publish them
+     *
+     * @param entries   All the command classes
+     */
+    private void publish(@NotNull final List<CommandEntry> entries) {
+        List<DiscordSlashCommand> commands = new ArrayList<>();
+        List<CommandMethod> commandMethods = new ArrayList<>();
+
+        for (CommandEntry entry : entries) {
+            for (CommandPart part : entry.parts) {
+                addToCommand(commands, part);
+                commandMethods.add(part.method);
+            }
+        }
+
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(
+                Collections.unmodifiableList(entries),
+                Collections.unmodifiableList(commands),
+                snapshot.dispatchTable.withCommandMethods(commandMethods)
+        );
+    }
+
+    /**
+     * Add the given part's options to the command, subcommand or subcommand group they belong to,
+     * creating the {@link DiscordSlashCommand} if it doesn't exist yet
+     */
+    private static void addToCommand(@NotNull final List<DiscordSlashCommand> commands, @NotNull final CommandPart part) {
+        CommandMethod method = part.method;
+
+        DiscordSlashCommand command = getCommand(commands, method.getName());
         if (command == null) {
             command = new DiscordSlashCommand(
-                    name.getLexeme(),
-                    slashCommand.description()
+                    method.getName(),
+                    part.description
             );
 
-            this.commands.add(command);
+            commands.add(command);
         }
 
-        scanSubcommands();
-        List<OptionData> options;
-        if (this.subcommandName != null) {
-            if (command.hasSubcommand(this.subcommandGroupName, this.subcommandName)) {
-                System.err.println("Command '" + slashCommand.command() + "' already exists (ignoring the options)");
-                return;
-            }
+        if (method.getSubcommand() == null) {
+            command.addOptions(part.options);
+            return;
+        }
+
+        SubcommandData subcommandData = new SubcommandData(
+                method.getSubcommand(),
+                part.subcommandDescription
+        );
+
+        subcommandData.addOptions(part.options);
+
+        if (method.getSubcommandGroup() == null) {
+            command.addSubcommands(subcommandData);
+            return;
+        }
 
-            SubcommandData subcommandData = new SubcommandData(
-                    this.subcommandName,
-                    slashCommand.subcommandDescription()
+        SubcommandGroupData subcommandGroupData = command.getSubcommandGroup(method.getSubcommandGroup());
+        if (subcommandGroupData != null) {
+            subcommandGroupData.addSubcommands(subcommandData);
+        } else {
+            subcommandGroupData = new SubcommandGroupData(
+                    method.getSubcommandGroup(),
+                    part.subcommandGroupDescription
             );
 
-            options = buildOptions(method);
-            if (options == null) {
-                return;
+            subcommandGroupData.addSubcommands(subcommandData);
+            command.addSubcommandGroups(subcommandGroupData);
+        }
+    }
+
+    private static int indexOf(@NotNull final List<CommandEntry> entries, @NotNull final Command command) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).command == command) {
+                return i;
             }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Set the limits used by the commands that don't set their own {@link SlashCommand#maxConcurrency()}.
+     * This only applies to the commands added after calling this method.
+     *
+     * @param maxConcurrency    The maximum number of invocations of a command running at the same time, 0 or less for no limit
+     * @param maxQueued         The maximum number of invocations of a command waiting for a running one to finish
+     */
+    public void setDefaultBulkhead(int maxConcurrency, int maxQueued) {
+        Checks.notNegative(maxQueued, "maxQueued");
+
+        this.defaultMaxConcurrency = maxConcurrency;
+        this.defaultMaxQueued = maxQueued;
+    }
+
+    /**
+     * Create the bulkhead of a command, falling back to the default limits if the command doesn't set any
+     *
+     * @return  The bulkhead, or {@code null} if the command's invocations aren't limited
+     */
+    @Nullable
+    private Bulkhead createBulkhead(int maxConcurrency, int maxQueued) {
+        if (maxConcurrency <= 0) {
+            maxConcurrency = this.defaultMaxConcurrency;
+            maxQueued = this.defaultMaxQueued;
+        }
+
+        if (maxConcurrency <= 0) {
+            return null;
+        }
+
+        if (maxQueued < 0) {
+            System.err.println("maxQueued cannot be negative, invocations won't be queued");
+            maxQueued = 0;
+        }
+
+        return new Bulkhead(maxConcurrency, maxQueued);
+    }
+
+    /**
+     * Set the store creating the buckets of the commands with a {@link Cooldown}.
+     * This only applies to the commands added after calling this method.
+     *
+     * @param store The store
+     */
+    public void setCooldownStore(@NotNull final CooldownStore store) {
+        Checks.notNull(store, "store");
 
-            subcommandData.addOptions(options);
+        this.cooldownStore = store;
+    }
 
-            if (this.subcommandGroupName != null) {
-                SubcommandGroupData subcommandGroupData = command.getSubcommandGroup(this.subcommandGroupName);
+    /**
+     * Create the cooldown of a command
+     *
+     * @param command       The command string, used in error messages
+     * @param uses          The number of uses within the period
+     * @param periodNanos   The time it takes for all the uses to come back
+     * @param scope         Who shares the uses
+     * @return              The cooldown, or {@code null} if the limits are invalid
+     */
+    @Nullable
+    private CommandCooldown createCooldown(@NotNull final String command, int uses, long periodNanos, @NotNull final CooldownScope scope) {
+        if (uses <= 0 || periodNanos <= 0) {
+            System.err.println("Refusing command '" + command + "': the uses and the duration of its cooldown must be positive");
+            return null;
+        }
 
-                if (subcommandGroupData != null) {
-                    subcommandGroupData.addSubcommands(subcommandData);
-                } else {
-                    subcommandGroupData = new SubcommandGroupData(
-                            this.subcommandGroupName,
-                            slashCommand.subcommandGroupDescription()
-                    );
+        return new CommandCooldown(scope, this.cooldownStore.createBuckets(command, uses, periodNanos));
+    }
 
-                    subcommandGroupData.addSubcommands(subcommandData);
-                    command.addSubcommandGroups(subcommandGroupData);
-                }
-            } else {
-                command.addSubcommands(subcommandData);
+    /**
+     * Get the interceptors of a command: the ones added to all the commands, then the given ones
+     *
+     * @param command               The command string, only used in error messages
+     * @param interceptorClasses    The classes given to the command's {@link Intercept} annotations
+     * @return                      The interceptors, or {@code null} if one of them cannot be created
+     */
+    @Nullable
+    private CommandInterceptor[] createInterceptors(
+            @NotNull final String command,
+            @NotNull final List<Class<? extends CommandInterceptor>> interceptorClasses
+    ) {
+        CommandInterceptor[] interceptors = new CommandInterceptor[this.interceptors.size() + interceptorClasses.size()];
+
+        int i = 0;
+        for (CommandInterceptor interceptor : this.interceptors) {
+            interceptors[i++] = interceptor;
+        }
+
+        for (Class<? extends CommandInterceptor> interceptorClass : interceptorClasses) {
+            CommandInterceptor interceptor = CommandInterceptors.get(interceptorClass);
+            if (interceptor == null) {
+                // running the command without one of its checks is worse than not running it
+                System.err.println("Refusing command '" + command + "': cannot create interceptor " + interceptorClass.getName());
+                return null;
             }
-        } else {
-            options = buildOptions(method);
-            if (options == null) {
-                return;
+
+            interceptors[i++] = interceptor;
+        }
+
+        return interceptors;
+    }
+
+    /**
+     * Add an interceptor running around all the commands, before their own interceptors.
+     * This only applies to the commands added after calling this method.
+     *
+     * @param interceptor   The interceptor
+     */
+    public synchronized void addInterceptor(@NotNull final CommandInterceptor interceptor) {
+        Checks.notNull(interceptor, "interceptor");
+
+        this.interceptors.add(interceptor);
+    }
+
+    /**
+     * Remember the last choices of each autocompleted option, so they can be used when the autocompletion method is too slow.
+     * This only applies to the commands added after calling this method.
+     *
+     * @param remember  true to remember the last choices
+     */
+    public void setRememberAutoCompleteChoices(boolean remember) {
+        this.rememberAutoCompleteChoices = remember;
+    }
+
+    /**
+     * Record the invocation and autocompletion times of each command, see {@link CommandMetrics}.
+     * This only applies to the commands added after calling this method.
+     *
+     * @param record    true to record the metrics
+     */
+    public void setRecordMetrics(boolean record) {
+        this.recordMetrics = record;
+    }
+
+    /**
+     * Create the stores remembering the last choices of each autocompleted option
+     *
+     * @param autoCompleteProviders The autocompletion providers, by option name
+     * @param autoCompleteScopes    Who shares the choices, by option name
+     * @return                      The stores by option name, empty if the choices aren't remembered
+     */
+    @NotNull
+    private Map<String, ChoiceStore> createLastChoices(
+            @NotNull final Map<String, AutoCompleteProvider> autoCompleteProviders,
+            @NotNull final Map<String, CacheScope> autoCompleteScopes
+    ) {
+        if (!this.rememberAutoCompleteChoices) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, ChoiceStore> lastChoices = new HashMap<>();
+        for (Map.Entry<String, AutoCompleteProvider> entry : autoCompleteProviders.entrySet()) {
+            AutoCompleteProvider provider = entry.getValue();
+
+            // static choices are always answered right away
+            if (provider instanceof ChoiceIndex) {
+                continue;
             }
 
-            command.addOptions(options);
+            CacheScope scope = provider instanceof AutoCompleteCache
+                    ? ((AutoCompleteCache) provider).getScope()
+                    : autoCompleteScopes.getOrDefault(entry.getKey(), CacheScope.GLOBAL);
+
+            lastChoices.put(entry.getKey(), new ChoiceStore(LAST_CHOICES_SIZE, scope));
         }
 
-        CommandMethod commandMethod = new CommandMethod(
-                name.getLexeme(),
-                this.subcommandName,
-                this.subcommandGroupName,
-                method,
-                commandInstance
-        );
+        return lastChoices;
+    }
+
+    /**
+     * Get the {@link Param#cacheScope()} of each option of the given method
+     */
+    @NotNull
+    private static Map<String, CacheScope> findAutoCompleteScopes(@NotNull final Method method, @NotNull final List<OptionData> options) {
+        Map<String, CacheScope> scopes = new HashMap<>();
 
-        commandMethod.cacheAutoCompleteMethods(options);
+        int optionIndex = 0;
+        for (Parameter parameter : method.getParameters()) {
+            Param param = parameter.getAnnotation(Param.class);
+            if (param != null) {
+                scopes.put(options.get(optionIndex++).getName(), param.cacheScope());
+            }
+        }
 
-        this.commandMethods.add(commandMethod);
+        return scopes;
     }
 
     /**
-     * Turn all the method's parameters to {@link OptionData}
+     * Turn all the method's parameters to {@link OptionData}, in the order of the command string's options
      *
      * @param method    The method to inspect
+     * @param signature The method's command string
      * @return          The parameters turned into JDA's {@link OptionData} so they can be added to commands/subcommands
      */
     @Nullable
-    private List<OptionData> buildOptions(@NotNull final Method method) {
+    private static List<OptionData> buildOptions(@NotNull final Method method, @NotNull final CommandSignature signature) {
         List<OptionData> options = new ArrayList<>();
+        List<CommandSignature.Option> signatureOptions = signature.getOptions();
 
         for (Parameter parameter : method.getParameters()) {
             Param description = parameter.getAnnotation(Param.class);
@@ -155,41 +617,75 @@ public final class CommandRegistry {
                 continue;
             }
 
-            Token optionToken = this.scanner.token();
-            if (optionToken == null) {
-                System.err.println("Missing token for variable with following description: " + description.description());
+            if (options.size() == signatureOptions.size()) {
+                System.err.println("Missing option in '" + signature.getCommand() + "' for parameter with following description: " + description.description());
                 return null;
             }
 
-            OptionType type = TypeTable.get(parameter.getType());
-            if (type == null) {
-                System.err.println("Parameter with type " + parameter.getType().getName() + " cannot be used for a command parameter");
+            CommandSignature.Option signatureOption = signatureOptions.get(options.size());
+            OptionData option = createOption(
+                    parameter.getType(),
+                    signatureOption.getName(),
+                    description.description(),
+                    signatureOption.isRequired(),
+                    !description.autocomplete().isEmpty() || !description.choices().isEmpty()
+            );
+
+            if (option == null) {
                 return null;
             }
 
-            options.add(new OptionData(
-                    TypeTable.get(parameter.getType()),
-                    optionToken.getLexeme(),
-                    description.description(),
-                    optionToken.getKind().equals(TokenKind.PARAM_REQUIRED),
-                    !description.autocomplete().isEmpty()
-            ));
+            options.add(option);
+        }
 
-            this.scanner.nextToken();
+        for (int i = options.size(); i < signatureOptions.size(); i++) {
+            System.err.println("Option '" + signatureOptions.get(i).getName() + "' in '" + signature.getCommand() + "' has no matching @Param parameter, it will be ignored");
         }
 
         return options;
     }
 
     /**
-     * Get a {@link DiscordSlashCommand} from the internal command list with the given name
+     * Create the {@link OptionData} of a parameter with the given type
+     *
+     * @return  The option, or {@code null} if the type cannot be used as an option
+     */
+    @Nullable
+    static OptionData createOption(
+            @NotNull final Class<?> type,
+            @NotNull final String name,
+            @NotNull final String description,
+            boolean required,
+            boolean autoComplete
+    ) {
+        TypeConverter<?> converter = TypeConverters.getInstance().get(type);
+        if (converter == null) {
+            System.err.println("Parameter with type " + type.getName() + " cannot be used for a command parameter, add a TypeConverter for it");
+            return null;
+        }
+
+        OptionData option = new OptionData(
+                converter.getOptionType(),
+                name,
+                description,
+                required,
+                autoComplete
+        );
+
+        converter.decorate(option);
+        return option;
+    }
+
+    /**
+     * Get a {@link DiscordSlashCommand} with the given name
      *
+     * @param commands      The commands to search in
      * @param commandName   The command's name to get
      * @return              {@link DiscordSlashCommand} if the command exists, {@code null} otherwise
      */
     @Nullable
-    private DiscordSlashCommand getCommand(@NotNull final String commandName) {
-        for (DiscordSlashCommand slashCommand : this.commands) {
+    private static DiscordSlashCommand getCommand(@NotNull final List<DiscordSlashCommand> commands, @NotNull final String commandName) {
+        for (DiscordSlashCommand slashCommand : commands) {
             if (slashCommand.getName().equalsIgnoreCase(commandName)) {
                 return slashCommand;
             }
@@ -199,69 +695,86 @@ public final class CommandRegistry {
     }
 
     /**
-     * Check the next one and two tokens to see if they're subcommands, and add them to the command
+     * Build all the commands we added to {@link SlashCommandData} objects and return them as a list.
+     *
+     * @return  The list of commands to send to discord
      */
-    private void scanSubcommands() {
-        if (this.scanner.token(1) != null && this.scanner.token(1).getKind().equals(TokenKind.NAME)) {
-            // check if the next two tokens are subcommands.
-            // if that's the case, the first one is the subcommand group and the second one the subcommand itself.
-            Token subcommandGroupName = expect(TokenKind.NAME, "subcommand group name");
-            Token subcommandName = expect(TokenKind.NAME, "subcommand name");
-            if (subcommandGroupName == null || subcommandName == null) {
-                return;
-            }
-
-            this.subcommandGroupName = subcommandGroupName.getLexeme();
-            this.subcommandName = subcommandName.getLexeme();
-        } else if (this.scanner.token() != null && this.scanner.token().getKind().equals(TokenKind.NAME)) {
-            // check if the next token is a subcommand.
-            Token subcommandName = expect(TokenKind.NAME, "subcommand name");
-            if (subcommandName == null) {
-                return;
-            }
+    @NotNull
+    public List<SlashCommandData> getDiscordCommands() {
+        List<SlashCommandData> slashCommands = new ArrayList<>();
 
-            this.subcommandName = subcommandName.getLexeme();
+        for (DiscordSlashCommand command : this.snapshot.commands) {
+            slashCommands.add(command.build());
         }
+
+        return slashCommands;
     }
 
     /**
-     * Return and skip the current token if the given TokenKind matches the current token's TokenKind.
-     * If they don't match, we print an error message and return {@code null}
+     * Return all the command methods, in the order their classes were added
+     *
+     * @return  The command methods
      */
-    @Nullable
-    private Token expect(@NotNull final TokenKind kind, @NotNull final String use) {
-        // we get the next token
-        Token next = this.scanner.token();
+    @NotNull
+    public List<CommandMethod> getCommandMethods() {
+        List<CommandMethod> commandMethods = new ArrayList<>();
 
-        // we check if they have the same kind
-        if (next.getKind() != kind) {
-            System.err.println("Expected " + kind + " but got " + next.getKind() + " for " + use + ". Refusing command method.");
-            return null;
+        for (CommandEntry entry : this.snapshot.entries) {
+            for (CommandPart part : entry.parts) {
+                commandMethods.add(part.method);
+            }
         }
 
-        // if they have, we skip the token and return it
-        this.scanner.nextToken();
-        return next;
+        return commandMethods;
     }
 
     /**
-     * Build all the commands we added to {@link SlashCommandData} objects and return them as a list.
+     * Copy the metrics of all the commands recording them
      *
-     * @return  The list of commands to send to discord
+     * @return  The metrics of each command
      */
     @NotNull
-    public List<SlashCommandData> getDiscordCommands() {
-        List<SlashCommandData> slashCommands = new ArrayList<>();
+    public List<CommandMetricsSnapshot> getMetrics() {
+        List<CommandMetricsSnapshot> metrics = new ArrayList<>();
 
-        for (DiscordSlashCommand command : this.commands) {
-            slashCommands.add(command.build());
+        for (CommandMethod commandMethod : getCommandMethods()) {
+            CommandMetrics commandMetrics = commandMethod.getMetrics();
+            if (commandMetrics != null) {
+                metrics.add(commandMetrics.snapshot(commandMethod.getFullCommandName()));
+            }
         }
 
-        return slashCommands;
+        return metrics;
+    }
+
+    /**
+     * Link the ids of the given Discord commands to their command methods,
+     * so they can be looked up with {@link #getCommandMethod(long, String, String, String)}
+     *
+     * @param discordCommands   The commands Discord sent back after registering them
+     */
+    public synchronized void registerCommandIds(@NotNull final Collection<? extends net.dv8tion.jda.api.interactions.commands.Command> discordCommands) {
+        Checks.notNull(discordCommands, "discordCommands");
+
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.entries, snapshot.commands, snapshot.dispatchTable.withCommandIds(discordCommands));
+    }
+
+    /**
+     * Link the given ids to the command methods with the given names,
+     * so they can be looked up with {@link #getCommandMethod(long, String, String, String)}
+     *
+     * @param commandIds    The ids Discord gave to the commands, by command name
+     */
+    public synchronized void registerCommandIds(@NotNull final Map<String, Long> commandIds) {
+        Checks.notNull(commandIds, "commandIds");
+
+        Snapshot snapshot = this.snapshot;
+        this.snapshot = new Snapshot(snapshot.entries, snapshot.commands, snapshot.dispatchTable.withCommandIds(commandIds));
     }
 
     /**
-     * Get a {@link CommandMethod} from the internal list
+     * Get a {@link CommandMethod} from the dispatch table
      *
      * @param commandName           The command name
      * @param subcommandName        The subcommand name
@@ -272,13 +785,31 @@ public final class CommandRegistry {
     public CommandMethod getCommandMethod(@NotNull final String commandName, @Nullable final String subcommandName, @Nullable final String subcommandGroupName) {
         Checks.notNull(commandName, "commandName");
 
-        for (CommandMethod command : this.commandMethods) {
-            if (command.matches(commandName, subcommandName, subcommandGroupName)) {
-                return command;
-            }
+        return this.snapshot.dispatchTable.get(commandName, subcommandName, subcommandGroupName);
+    }
+
+    /**
+     * Get a {@link CommandMethod} from the dispatch table, using the command id Discord gave us if we know it,
+     * and the command name otherwise
+     *
+     * @param commandId             The command id
+     * @param commandName           The command name
+     * @param subcommandName        The subcommand name
+     * @param subcommandGroupName   The subcommand group name
+     * @return                      The {@link CommandMethod} if one matches, {@code null} otherwise
+     */
+    @Nullable
+    public CommandMethod getCommandMethod(long commandId, @NotNull final String commandName, @Nullable final String subcommandName, @Nullable final String subcommandGroupName) {
+        Checks.notNull(commandName, "commandName");
+
+        CommandDispatchTable dispatchTable = this.snapshot.dispatchTable;
+
+        CommandMethod commandMethod = dispatchTable.get(commandId, subcommandName, subcommandGroupName);
+        if (commandMethod != null) {
+            return commandMethod;
         }
 
-        return null;
+        return dispatchTable.get(commandName, subcommandName, subcommandGroupName);
     }
 
     /**
@@ -294,4 +825,81 @@ public final class CommandRegistry {
 
         return instance;
     }
+
+    /**
+     * The commands, their tree and their dispatch table at one point in time.
+     * Nothing in a snapshot is modified once it's published.
+     */
+    private static final class Snapshot {
+
+        private final List<CommandEntry> entries;
+        private final List<DiscordSlashCommand> commands;
+        private final CommandDispatchTable dispatchTable;
+
+        private Snapshot(
+                @NotNull final List<CommandEntry> entries,
+                @NotNull final List<DiscordSlashCommand> commands,
+                @NotNull final CommandDispatchTable dispatchTable
+        ) {
+            this.entries = entries;
+            this.commands = commands;
+            this.dispatchTable = dispatchTable;
+        }
+    }
+
+    /**
+     * The commands built from one {@link Command} class
+     */
+    private static final class CommandEntry {
+
+        private final Command command;
+        private final List<CommandPart> parts;
+
+        private CommandEntry(@NotNull final Command command, @NotNull final List<CommandPart> parts) {
+            this.command = command;
+            this.parts = Collections.unmodifiableList(parts);
+        }
+    }
+
+    /**
+     * One command method, and what's needed to add it to the command tree
+     */
+    private static final class CommandPart {
+
+        private final String commandString;
+        private final String description;
+        private final String subcommandDescription;
+        private final String subcommandGroupDescription;
+        private final List<OptionData> options;
+        private final CommandMethod method;
+
+        private CommandPart(
+                @NotNull final String commandString,
+                @NotNull final String description,
+                @NotNull final String subcommandDescription,
+                @NotNull final String subcommandGroupDescription,
+                @NotNull final List<OptionData> options,
+                @NotNull final CommandMethod method
+        ) {
+            this.commandString = commandString;
+            this.description = description;
+            this.subcommandDescription = subcommandDescription;
+            this.subcommandGroupDescription = subcommandGroupDescription;
+            this.options = options;
+            this.method = method;
+        }
+
+        /**
+         * Return true if both parts are the same command, subcommand or subcommand in the same group
+         */
+        private boolean hasSamePath(@NotNull final CommandPart other) {
+            return this.method.getName().equalsIgnoreCase(other.method.getName()) &&
+                    equalsIgnoreCase(this.method.getSubcommand(), other.method.getSubcommand()) &&
+                    equalsIgnoreCase(this.method.getSubcommandGroup(), other.method.getSubcommandGroup());
+        }
+
+        private static boolean equalsIgnoreCase(@Nullable final String a, @Nullable final String b) {
+            return a == null ? b == null : a.equalsIgnoreCase(b);
+        }
+    }
 }
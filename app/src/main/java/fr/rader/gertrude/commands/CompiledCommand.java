@@ -0,0 +1,453 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.annotations.CacheScope;
+import fr.rader.gertrude.annotations.CooldownScope;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A command method described without reflection.
+ * This is what the {@link CommandBinder}s generated by Gertrude's annotation processor give to the {@link CommandRegistry}:
+ * the command string is already parsed, and the parameters are listed in the same order as the method's parameters.
+ *
+ * <h2>Example:</h2>
+ * <pre><code>
+ * new CompiledCommand("hello &lt;user&gt;", "hello", null, null, "Say hello", "", "",
+ *         parameters -&gt; command.hello((User) parameters[0], (SlashCommandInteractionEvent) parameters[1]))
+ *         .option(User.class, "user", "The user to say hello to", true)
+ *         .parameter(SlashCommandInteractionEvent.class);
+ * </code></pre>
+ */
+public final class CompiledCommand {
+
+    private final String command;
+
+    private final String name;
+    private final String subcommandGroup;
+    private final String subcommand;
+
+    private final String description;
+    private final String subcommandDescription;
+    private final String subcommandGroupDescription;
+
+    private final CommandInvoker invoker;
+
+    private final List<Slot> slots;
+    private final Map<String, AutoCompleteProvider> autoCompleteProviders;
+    private final Map<String, CacheScope> autoCompleteScopes;
+
+    private final List<Class<? extends CommandInterceptor>> interceptors;
+
+    private int maxConcurrency;
+    private int maxQueued;
+
+    // 0 uses if the command has no cooldown
+    private int cooldownUses;
+    private long cooldownNanos;
+    private CooldownScope cooldownScope;
+
+    /**
+     * Create a new compiled command
+     *
+     * @param command                       The command string, only used in error messages
+     * @param name                          The command's name
+     * @param subcommandGroup               The subcommand group's name, or {@code null}
+     * @param subcommand                    The subcommand's name, or {@code null}
+     * @param description                   The command's description
+     * @param subcommandDescription         The subcommand's description
+     * @param subcommandGroupDescription    The subcommand group's description
+     * @param invoker                       Calls the command method with the bound parameters
+     */
+    public CompiledCommand(
+            @NotNull final String command,
+            @NotNull final String name,
+            @Nullable final String subcommandGroup,
+            @Nullable final String subcommand,
+            @NotNull final String description,
+            @NotNull final String subcommandDescription,
+            @NotNull final String subcommandGroupDescription,
+            @NotNull final CommandInvoker invoker
+    ) {
+        Checks.notNull(command, "command");
+        Checks.notNull(name, "name");
+        Checks.notNull(description, "description");
+        Checks.notNull(invoker, "invoker");
+
+        this.command = command;
+        this.name = name;
+        this.subcommandGroup = subcommandGroup;
+        this.subcommand = subcommand;
+        this.description = description;
+        this.subcommandDescription = subcommandDescription;
+        this.subcommandGroupDescription = subcommandGroupDescription;
+        this.invoker = invoker;
+
+        this.slots = new ArrayList<>();
+        this.autoCompleteProviders = new HashMap<>();
+        this.autoCompleteScopes = new HashMap<>();
+        this.interceptors = new ArrayList<>();
+    }
+
+    /**
+     * Add a parameter read from the command's options
+     *
+     * @param type          The parameter's type
+     * @param name          The option's name
+     * @param description   The option's description
+     * @param required      true if the option is required, false otherwise
+     * @return              This compiled command
+     */
+    @NotNull
+    public CompiledCommand option(
+            @NotNull final Class<?> type,
+            @NotNull final String name,
+            @NotNull final String description,
+            boolean required
+    ) {
+        return option(type, name, description, required, null);
+    }
+
+    /**
+     * Add a parameter read from the command's options, with autocompletion
+     *
+     * @param type                  The parameter's type
+     * @param name                  The option's name
+     * @param description           The option's description
+     * @param required              true if the option is required, false otherwise
+     * @param autoCompleteProvider  Gives the autocompletion choices of the option, or {@code null}
+     * @return                      This compiled command
+     */
+    @NotNull
+    public CompiledCommand option(
+            @NotNull final Class<?> type,
+            @NotNull final String name,
+            @NotNull final String description,
+            boolean required,
+            @Nullable final AutoCompleteProvider autoCompleteProvider
+    ) {
+        return option(type, name, description, required, autoCompleteProvider, CacheScope.GLOBAL);
+    }
+
+    /**
+     * Add a parameter read from the command's options, with autocompletion whose choices depend on the guild or the user
+     *
+     * @param type                  The parameter's type
+     * @param name                  The option's name
+     * @param description           The option's description
+     * @param required              true if the option is required, false otherwise
+     * @param autoCompleteProvider  Gives the autocompletion choices of the option, or {@code null}
+     * @param autoCompleteScope     Who shares the remembered autocompletion choices, like {@link fr.rader.gertrude.annotations.Param#cacheScope()}
+     * @return                      This compiled command
+     */
+    @NotNull
+    public CompiledCommand option(
+            @NotNull final Class<?> type,
+            @NotNull final String name,
+            @NotNull final String description,
+            boolean required,
+            @Nullable final AutoCompleteProvider autoCompleteProvider,
+            @NotNull final CacheScope autoCompleteScope
+    ) {
+        Checks.notNull(type, "type");
+        Checks.notNull(name, "name");
+        Checks.notNull(description, "description");
+        Checks.notNull(autoCompleteScope, "autoCompleteScope");
+
+        this.slots.add(new Slot(type, name, description, required, autoCompleteProvider != null, null));
+
+        if (autoCompleteProvider != null) {
+            this.autoCompleteProviders.put(name, autoCompleteProvider);
+            this.autoCompleteScopes.put(name, autoCompleteScope);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add a parameter read from the command's options, autocompleted from static choices like {@link fr.rader.gertrude.annotations.Param#choices()}.
+     * The {@link ChoiceIndex} is built when the command is registered, once the option's type is known
+     *
+     * @param type          The parameter's type
+     * @param name          The option's name
+     * @param description   The option's description
+     * @param required      true if the option is required, false otherwise
+     * @param choices       Returns the choices of the option
+     * @return              This compiled command
+     */
+    @NotNull
+    public CompiledCommand optionWithChoices(
+            @NotNull final Class<?> type,
+            @NotNull final String name,
+            @NotNull final String description,
+            boolean required,
+            @NotNull final Callable<? extends Collection<?>> choices
+    ) {
+        Checks.notNull(type, "type");
+        Checks.notNull(name, "name");
+        Checks.notNull(description, "description");
+        Checks.notNull(choices, "choices");
+
+        this.slots.add(new Slot(type, name, description, required, true, choices));
+        return this;
+    }
+
+    /**
+     * Add a parameter that isn't an option: the event's data, the event itself,
+     * or a parameter added with {@link fr.rader.gertrude.Gertrude#addCommandParameter(Class, Object)}
+     *
+     * @param type  The parameter's type
+     * @return      This compiled command
+     */
+    @NotNull
+    public CompiledCommand parameter(@NotNull final Class<?> type) {
+        Checks.notNull(type, "type");
+
+        this.slots.add(new Slot(type, null, null, false, false, null));
+        return this;
+    }
+
+    /**
+     * Limit the concurrent invocations of the command, like {@link fr.rader.gertrude.annotations.SlashCommand#maxConcurrency()}
+     *
+     * @param maxConcurrency    The maximum number of invocations running at the same time, 0 or less for no limit
+     * @param maxQueued         The maximum number of invocations waiting for a running one to finish
+     * @return                  This compiled command
+     */
+    @NotNull
+    public CompiledCommand bulkhead(int maxConcurrency, int maxQueued) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+        return this;
+    }
+
+    /**
+     * Limit how often the command can be used, like {@link fr.rader.gertrude.annotations.Cooldown}
+     *
+     * @param uses  The number of times the command can be used within the given duration
+     * @param per   The time it takes for all the uses to come back
+     * @param unit  The unit of the duration
+     * @param scope Who shares the uses
+     * @return      This compiled command
+     */
+    @NotNull
+    public CompiledCommand cooldown(int uses, long per, @NotNull final TimeUnit unit, @NotNull final CooldownScope scope) {
+        Checks.notNull(unit, "unit");
+        Checks.notNull(scope, "scope");
+
+        this.cooldownUses = uses;
+        this.cooldownNanos = unit.toNanos(per);
+        this.cooldownScope = scope;
+        return this;
+    }
+
+    /**
+     * Add interceptors to the command, like {@link fr.rader.gertrude.annotations.Intercept}
+     *
+     * @param interceptors  The classes of the interceptors, in the order they run
+     * @return              This compiled command
+     */
+    @NotNull
+    @SafeVarargs
+    public final CompiledCommand intercept(@NotNull final Class<? extends CommandInterceptor>... interceptors) {
+        Checks.check(interceptors != null, "interceptors may not be null");
+
+        // copied one by one, handing the generic array to another method is unsafe
+        for (Class<? extends CommandInterceptor> interceptor : interceptors) {
+            Checks.notNull(interceptor, "interceptor");
+            this.interceptors.add(interceptor);
+        }
+
+        return this;
+    }
+
+    /**
+     * Turn the option parameters to {@link OptionData}
+     *
+     * @return  The options, or {@code null} if one of the parameters cannot be used as an option
+     */
+    @Nullable
+    List<OptionData> buildOptions() {
+        List<OptionData> options = new ArrayList<>();
+
+        for (Slot slot : this.slots) {
+            if (slot.optionName == null) {
+                continue;
+            }
+
+            OptionData option = CommandRegistry.createOption(
+                    slot.type,
+                    slot.optionName,
+                    slot.description,
+                    slot.required,
+                    slot.autoComplete
+            );
+
+            if (option == null) {
+                return null;
+            }
+
+            if (slot.choices != null) {
+                try {
+                    this.autoCompleteProviders.put(slot.optionName, new ChoiceIndex(option.getType(), slot.choices));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Choices of option " + slot.optionName + " in '" + this.command + "' cannot be used: " + e.getMessage());
+                    return null;
+                }
+            } else if (!slot.autoComplete) {
+                AutoCompleteProvider converterProvider = CommandMethod.getConverterProvider(slot.type, option);
+                if (converterProvider != null) {
+                    this.autoCompleteProviders.put(slot.optionName, converterProvider);
+                }
+            } else {
+                AutoCompleteProvider provider = this.autoCompleteProviders.get(slot.optionName);
+                if (provider instanceof ChoiceIndex && ((ChoiceIndex) provider).getOptionType() != option.getType()) {
+                    System.err.println("Choices of option " + slot.optionName + " in '" + this.command + "' are " + ((ChoiceIndex) provider).getOptionType() + " choices, but the option is a " + option.getType() + " option");
+                    return null;
+                }
+            }
+
+            options.add(option);
+        }
+
+        return options;
+    }
+
+    /**
+     * Resolve a binder for each parameter
+     *
+     * @return  The binding plan of the command
+     */
+    @NotNull
+    BindingPlan buildBindingPlan() {
+        ParameterBinder[] binders = new ParameterBinder[this.slots.size()];
+
+        for (int i = 0; i < binders.length; i++) {
+            Slot slot = this.slots.get(i);
+
+            if (slot.optionName != null) {
+                binders[i] = BindingPlan.option(slot.optionName, slot.type);
+            } else {
+                binders[i] = BindingPlan.parameter(slot.type);
+            }
+        }
+
+        return new BindingPlan(binders);
+    }
+
+    @NotNull
+    String getCommand() {
+        return this.command;
+    }
+
+    @NotNull
+    String getName() {
+        return this.name;
+    }
+
+    @Nullable
+    String getSubcommandGroup() {
+        return this.subcommandGroup;
+    }
+
+    @Nullable
+    String getSubcommand() {
+        return this.subcommand;
+    }
+
+    @NotNull
+    String getDescription() {
+        return this.description;
+    }
+
+    @NotNull
+    String getSubcommandDescription() {
+        return this.subcommandDescription;
+    }
+
+    @NotNull
+    String getSubcommandGroupDescription() {
+        return this.subcommandGroupDescription;
+    }
+
+    @NotNull
+    CommandInvoker getInvoker() {
+        return this.invoker;
+    }
+
+    @NotNull
+    Map<String, AutoCompleteProvider> getAutoCompleteProviders() {
+        return this.autoCompleteProviders;
+    }
+
+    @NotNull
+    Map<String, CacheScope> getAutoCompleteScopes() {
+        return this.autoCompleteScopes;
+    }
+
+    @NotNull
+    List<Class<? extends CommandInterceptor>> getInterceptors() {
+        return this.interceptors;
+    }
+
+    int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    int getCooldownUses() {
+        return this.cooldownUses;
+    }
+
+    long getCooldownNanos() {
+        return this.cooldownNanos;
+    }
+
+    @Nullable
+    CooldownScope getCooldownScope() {
+        return this.cooldownScope;
+    }
+
+    /**
+     * One parameter of the command method
+     */
+    private static final class Slot {
+
+        private final Class<?> type;
+
+        // these are only set for options
+        private final String optionName;
+        private final String description;
+        private final boolean required;
+        private final boolean autoComplete;
+        private final Callable<? extends Collection<?>> choices;
+
+        private Slot(
+                @NotNull final Class<?> type,
+                @Nullable final String optionName,
+                @Nullable final String description,
+                boolean required,
+                boolean autoComplete,
+                @Nullable final Callable<? extends Collection<?>> choices
+        ) {
+            this.type = type;
+            this.optionName = optionName;
+            this.description = description;
+            this.required = required;
+            this.autoComplete = autoComplete;
+            this.choices = choices;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package fr.rader.gertrude.commands;
+
+import fr.rader.gertrude.annotations.ChoiceName;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@link TypeConverter} of an enum. The option is a string whose choices are the enum's constants,
+ * so Discord lets the users pick one without any autocompletion.
+ * The value of each choice is the constant's name, and the name Discord shows can be changed with {@link ChoiceName}.
+ *
+ * Discord only accepts {@link OptionData#MAX_CHOICES} choices, enums with more constants are autocompleted
+ * from a {@link ChoiceIndex} instead.
+ *
+ * @param <E>   The enum
+ */
+final class EnumConverter<E extends Enum<E>> implements TypeConverter<E> {
+
+    // the constants sorted by name, so a value is found with a binary search
+    private final String[] names;
+    private final E[] constants;
+
+    // in the order the constants are declared
+    private final List<Choice> choices;
+    private final ChoiceIndex choiceIndex;
+
+    /**
+     * Read the constants of the given enum
+     *
+     * @param enumClass The enum
+     * @throws IllegalArgumentException If a constant's {@link ChoiceName} is empty or too long
+     */
+    EnumConverter(@NotNull final Class<E> enumClass) {
+        E[] constants = enumClass.getEnumConstants().clone();
+        Arrays.sort(constants, Comparator.comparing(Enum::name));
+
+        this.constants = constants;
+        this.names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            this.names[i] = constants[i].name();
+        }
+
+        List<Choice> choices = new ArrayList<>();
+        for (E constant : enumClass.getEnumConstants()) {
+            choices.add(new Choice(getChoiceName(enumClass, constant), constant.name()));
+        }
+
+        this.choices = Collections.unmodifiableList(choices);
+        this.choiceIndex = choices.size() > OptionData.MAX_CHOICES
+                ? new ChoiceIndex(OptionType.STRING, () -> this.choices)
+                : null;
+    }
+
+    @NotNull
+    private static String getChoiceName(@NotNull final Class<?> enumClass, @NotNull final Enum<?> constant) {
+        try {
+            ChoiceName choiceName = enumClass.getField(constant.name()).getAnnotation(ChoiceName.class);
+            if (choiceName != null) {
+                return choiceName.value();
+            }
+        } catch (NoSuchFieldException e) {
+            // enum constants are always public fields
+        }
+
+        return constant.name();
+    }
+
+    @NotNull
+    @Override
+    public OptionType getOptionType() {
+        return OptionType.STRING;
+    }
+
+    @Nullable
+    @Override
+    public E convert(@NotNull final OptionMapping option) {
+        // autocompleted options can have any value
+        int index = Arrays.binarySearch(this.names, option.getAsString());
+        if (index < 0) {
+            return null;
+        }
+
+        return this.constants[index];
+    }
+
+    @Override
+    public void decorate(@NotNull final OptionData option) {
+        // the parameter has its own autocompletion or choices method
+        if (option.isAutoComplete()) {
+            return;
+        }
+
+        if (this.choiceIndex != null) {
+            option.setAutoComplete(true);
+            return;
+        }
+
+        option.addChoices(this.choices);
+    }
+
+    @Nullable
+    @Override
+    public AutoCompleteProvider getAutoCompleteProvider() {
+        return this.choiceIndex;
+    }
+}
@@ -0,0 +1,464 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * Turns command and autocompletion methods into invokers once, when they are registered.
+ *
+ * Each method gets its own class implementing the invoker, spun by {@link LambdaMetafactory} like a lambda
+ * calling the method would be. The class calls the method directly, so the JIT can inline it,
+ * which it cannot do with a {@link MethodHandle} kept in a field.
+ * When that isn't possible, like for a command method with too many parameters, the invoker calls a handle instead.
+ * Unlike {@link Method#invoke(Object, Object...)}, neither of them wraps the exceptions.
+ *
+ * This class is only public for the interfaces the invokers of the command methods implement:
+ * their classes are defined next to the commands, so they must be able to see them.
+ */
+public final class Invokers {
+
+    private static final MethodType COMMAND_TYPE = MethodType.methodType(void.class, Object[].class);
+    private static final MethodType AUTOCOMPLETE_TYPE = MethodType.methodType(Collection.class, CommandAutoCompleteInteractionEvent.class);
+    private static final MethodType CHOICES_TYPE = MethodType.methodType(Collection.class);
+
+    // the interfaces implementing the command methods, by number of parameters
+    private static final Class<?>[] FIXED_ARITY_INVOKERS = {
+            Invoker0.class, Invoker1.class, Invoker2.class, Invoker3.class, Invoker4.class,
+            Invoker5.class, Invoker6.class, Invoker7.class, Invoker8.class
+    };
+
+    // private constructor, we don't want an instance of this class
+    private Invokers() {
+    }
+
+    /**
+     * Create an invoker calling the given command method on the given instance
+     *
+     * @param instance  The command instance that owns the method
+     * @param method    The command method
+     * @return          The invoker calling the method
+     * @throws IllegalAccessException   If the command's lookup cannot access the method
+     */
+    @NotNull
+    static CommandInvoker command(@NotNull final Command instance, @NotNull final Method method) throws IllegalAccessException {
+        int arity = method.getParameterCount();
+
+        if (arity < FIXED_ARITY_INVOKERS.length) {
+            Class<?> invokerClass = FIXED_ARITY_INVOKERS[arity];
+
+            // the parameters are cast to the method's types, and the return value is ignored
+            MethodType erasedType = MethodType.genericMethodType(arity).changeReturnType(void.class);
+            MethodType instantiatedType = MethodType.methodType(void.class, method.getParameterTypes()).wrap().changeReturnType(void.class);
+
+            Object invoker = spin(instance, method, invokerClass, "invoke", erasedType, instantiatedType);
+            if (invoker != null) {
+                return spread(arity, invoker);
+            }
+        }
+
+        // the handle takes all the parameters as one array, and ignores the method's return value
+        MethodHandle handle = bind(instance, method, unreflect(instance, method))
+                .asSpreader(Object[].class, arity)
+                .asType(COMMAND_TYPE);
+
+        return parameters -> {
+            handle.invokeExact(parameters);
+        };
+    }
+
+    /**
+     * Create a provider calling the given autocompletion method on the given instance
+     *
+     * @param instance  The command instance that owns the method
+     * @param method    The autocompletion method
+     * @return          The provider calling the method
+     * @throws IllegalAccessException   If the command's lookup cannot access the method
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    static AutoCompleteProvider autoComplete(@NotNull final Command instance, @NotNull final Method method) throws IllegalAccessException {
+        Object provider = spin(instance, method, AutoCompleteProvider.class, "getChoices", AUTOCOMPLETE_TYPE, AUTOCOMPLETE_TYPE);
+        if (provider != null) {
+            return (AutoCompleteProvider) provider;
+        }
+
+        MethodHandle handle = bind(instance, method, unreflect(instance, method)).asType(AUTOCOMPLETE_TYPE);
+
+        return event -> (Collection<Choice>) handle.invokeExact(event);
+    }
+
+    /**
+     * Create a source calling the given choices method on the given instance
+     *
+     * @param instance  The command instance that owns the method
+     * @param method    The choices method
+     * @return          The source calling the method
+     * @throws IllegalAccessException   If the command's lookup cannot access the method
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    static Callable<Collection<?>> choices(@NotNull final Command instance, @NotNull final Method method) throws IllegalAccessException {
+        Object source = spin(instance, method, Callable.class, "call", MethodType.methodType(Object.class), CHOICES_TYPE);
+        if (source != null) {
+            return (Callable<Collection<?>>) source;
+        }
+
+        MethodHandle handle = bind(instance, method, unreflect(instance, method)).asType(CHOICES_TYPE);
+
+        return () -> {
+            try {
+                return (Collection<?>) handle.invokeExact();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        };
+    }
+
+    /**
+     * Spin a class implementing the given interface by calling the given method, bound to the instance if the method isn't static.
+     * The class is defined with the lookup the command gave us, so it can call its private methods.
+     * Commands that didn't give one only get this for their public methods, if Gertrude's class loader can see them.
+     *
+     * @return  The implementation, or {@code null} if it cannot be spun and a handle must be used instead
+     */
+    @Nullable
+    private static Object spin(
+            @NotNull final Command instance,
+            @NotNull final Method method,
+            @NotNull final Class<?> interfaceClass,
+            @NotNull final String interfaceMethod,
+            @NotNull final MethodType erasedType,
+            @NotNull final MethodType instantiatedType
+    ) {
+        MethodHandles.Lookup caller = instance.getLookup();
+        if (caller == null) {
+            if (!isPublic(method) || !isVisible(method, Invokers.class.getClassLoader())) {
+                return null;
+            }
+
+            caller = MethodHandles.lookup();
+        }
+
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+        try {
+            MethodHandle implementation = caller.unreflect(method);
+            MethodType factoryType = isStatic
+                    ? MethodType.methodType(interfaceClass)
+                    : MethodType.methodType(interfaceClass, method.getDeclaringClass());
+
+            CallSite site = LambdaMetafactory.metafactory(
+                    caller,
+                    interfaceMethod,
+                    factoryType,
+                    erasedType,
+                    implementation,
+                    instantiatedType
+            );
+
+            return isStatic
+                    ? site.getTarget().invoke()
+                    : site.getTarget().invoke(instance);
+        } catch (Throwable t) {
+            // the lookup cannot define classes next to the command, or the method's types don't fit the interface
+            return null;
+        }
+    }
+
+    /**
+     * Get a handle to the given method.
+     * We use the lookup the command gave us, so it can expose its private methods.
+     * Commands that didn't give one only get their public methods through the public lookup,
+     * and we fall back to {@link Method#setAccessible(boolean)} for the others, like Gertrude always did.
+     */
+    @NotNull
+    private static MethodHandle unreflect(@NotNull final Command instance, @NotNull final Method method) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = instance.getLookup();
+        if (lookup != null) {
+            return lookup.unreflect(method);
+        }
+
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            System.err.println("Method " + method + " is not public, Gertrude makes it accessible with reflection. "
+                    + "Give Gertrude your command's lookup with the Command(MethodHandles.Lookup) constructor instead, "
+                    + "this fallback will not work with the Java module system");
+
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        }
+    }
+
+    @NotNull
+    private static MethodHandle bind(@NotNull final Command instance, @NotNull final Method method, @NotNull final MethodHandle handle) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            return handle;
+        }
+
+        return handle.bindTo(instance);
+    }
+
+    private static boolean isPublic(@NotNull final Method method) {
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * Return true if all the types of the given method can be loaded by the given class loader,
+     * since a class spun in Gertrude's class loader refers to them by name.
+     * This isn't the case of the commands loaded by a child class loader, like the ones replaced at runtime
+     */
+    private static boolean isVisible(@NotNull final Method method, @Nullable final ClassLoader loader) {
+        if (!isVisible(method.getDeclaringClass(), loader) || !isVisible(method.getReturnType(), loader)) {
+            return false;
+        }
+
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(type, loader)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isVisible(@NotNull final Class<?> type, @Nullable final ClassLoader loader) {
+        Class<?> component = type;
+        while (component.isArray()) {
+            component = component.getComponentType();
+        }
+
+        if (component.isPrimitive()) {
+            return true;
+        }
+
+        try {
+            return Class.forName(component.getName(), false, loader) == component;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Turn a fixed arity invoker into an invoker taking all the parameters as one array
+     */
+    @NotNull
+    private static CommandInvoker spread(int arity, @NotNull final Object invoker) {
+        switch (arity) {
+            case 0: {
+                Invoker0 target = (Invoker0) invoker;
+                return parameters -> target.invoke();
+            }
+            case 1: {
+                Invoker1 target = (Invoker1) invoker;
+                return parameters -> target.invoke(parameters[0]);
+            }
+            case 2: {
+                Invoker2 target = (Invoker2) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1]);
+            }
+            case 3: {
+                Invoker3 target = (Invoker3) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2]);
+            }
+            case 4: {
+                Invoker4 target = (Invoker4) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2], parameters[3]);
+            }
+            case 5: {
+                Invoker5 target = (Invoker5) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]);
+            }
+            case 6: {
+                Invoker6 target = (Invoker6) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5]);
+            }
+            case 7: {
+                Invoker7 target = (Invoker7) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6]);
+            }
+            case 8: {
+                Invoker8 target = (Invoker8) invoker;
+                return parameters -> target.invoke(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4], parameters[5], parameters[6], parameters[7]);
+            }
+            default:
+                throw new IllegalArgumentException("No invoker with " + arity + " parameters");
+        }
+    }
+
+    /**
+     * Calls a command method without parameters
+     */
+    @FunctionalInterface
+    public interface Invoker0 {
+
+        /**
+         * Call the command method
+         *
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke() throws Throwable;
+    }
+
+    /**
+     * Calls a command method with one parameter
+     */
+    @FunctionalInterface
+    public interface Invoker1 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with two parameters
+     */
+    @FunctionalInterface
+    public interface Invoker2 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with three parameters
+     */
+    @FunctionalInterface
+    public interface Invoker3 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with four parameters
+     */
+    @FunctionalInterface
+    public interface Invoker4 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @param p3            The parameter at index 3
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2, Object p3) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with five parameters
+     */
+    @FunctionalInterface
+    public interface Invoker5 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @param p3            The parameter at index 3
+         * @param p4            The parameter at index 4
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2, Object p3, Object p4) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with six parameters
+     */
+    @FunctionalInterface
+    public interface Invoker6 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @param p3            The parameter at index 3
+         * @param p4            The parameter at index 4
+         * @param p5            The parameter at index 5
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2, Object p3, Object p4, Object p5) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with seven parameters
+     */
+    @FunctionalInterface
+    public interface Invoker7 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @param p3            The parameter at index 3
+         * @param p4            The parameter at index 4
+         * @param p5            The parameter at index 5
+         * @param p6            The parameter at index 6
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6) throws Throwable;
+    }
+
+    /**
+     * Calls a command method with eight parameters
+     */
+    @FunctionalInterface
+    public interface Invoker8 {
+
+        /**
+         * Call the command method
+         *
+         * @param p0            The parameter at index 0
+         * @param p1            The parameter at index 1
+         * @param p2            The parameter at index 2
+         * @param p3            The parameter at index 3
+         * @param p4            The parameter at index 4
+         * @param p5            The parameter at index 5
+         * @param p6            The parameter at index 6
+         * @param p7            The parameter at index 7
+         * @throws Throwable    Anything thrown by the command method
+         */
+        void invoke(Object p0, Object p1, Object p2, Object p3, Object p4, Object p5, Object p6, Object p7) throws Throwable;
+    }
+}
@@ -0,0 +1,23 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Produces the value of one command method parameter from a {@link SlashCommandInteractionEvent}.
+ * Binders are resolved once when the command is registered, so binding a parameter doesn't have to
+ * look at the parameter's type or annotations anymore.
+ */
+@FunctionalInterface
+interface ParameterBinder {
+
+    /**
+     * Get the parameter value from the given event
+     *
+     * @param event The event that triggered the command
+     * @return      The value to give to the command method
+     */
+    @Nullable
+    Object bind(@NotNull final SlashCommandInteractionEvent event);
+}
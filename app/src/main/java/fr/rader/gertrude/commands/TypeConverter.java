@@ -0,0 +1,89 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * Turns the value of an option sent by Discord into the type of a {@link fr.rader.gertrude.annotations.Param} parameter.
+ * The converter of each parameter is resolved once when the command is registered,
+ * so a converter added with {@link fr.rader.gertrude.Gertrude#addTypeConverter(Class, TypeConverter)}
+ * costs the same as the built-in ones when the command is invoked.
+ *
+ * A converter for {@link java.util.UUID}s looks like this:
+ * <pre>
+ *     TypeConverter.of(OptionType.STRING, option -&gt; UUID.fromString(option.getAsString()));
+ * </pre>
+ *
+ * @param <T>   The type of the parameter
+ */
+public interface TypeConverter<T> {
+
+    /**
+     * @return  The type of the option Discord shows to the users
+     */
+    @NotNull
+    OptionType getOptionType();
+
+    /**
+     * Convert the option's value. This is called every time the command is invoked.
+     *
+     * @param option    The option sent by Discord, never missing
+     * @return          The value to give to the parameter
+     */
+    @Nullable
+    T convert(@NotNull final OptionMapping option);
+
+    /**
+     * Change the option before it's sent to Discord, to limit the values the users can type for example.
+     * This is called once when the command is registered, and does nothing by default.
+     *
+     * @param option    The option built from the parameter
+     */
+    default void decorate(@NotNull final OptionData option) {
+    }
+
+    /**
+     * Give the autocompletion of the options {@link #decorate(OptionData)} made autocompleted.
+     * It's only used for the parameters without an autocompletion or choices method.
+     *
+     * @return  The autocompletion of the option, or {@code null} by default
+     */
+    @Nullable
+    default AutoCompleteProvider getAutoCompleteProvider() {
+        return null;
+    }
+
+    /**
+     * Create a converter from the given option type and function
+     *
+     * @param optionType    The type of the option Discord shows to the users
+     * @param converter     The function converting the option's value
+     * @param <T>           The type of the parameter
+     * @return              The converter
+     */
+    @NotNull
+    static <T> TypeConverter<T> of(@NotNull final OptionType optionType, @NotNull final Function<OptionMapping, T> converter) {
+        Checks.notNull(optionType, "optionType");
+        Checks.notNull(converter, "converter");
+
+        return new TypeConverter<T>() {
+            @NotNull
+            @Override
+            public OptionType getOptionType() {
+                return optionType;
+            }
+
+            @Nullable
+            @Override
+            public T convert(@NotNull final OptionMapping option) {
+                return converter.apply(option);
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package fr.rader.gertrude.commands;
+
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class that holds the {@link TypeConverter} of each type a {@link fr.rader.gertrude.annotations.Param} parameter can have.
+ * It starts with the types JDA supports, the enums and the channels, and more can be added with {@link fr.rader.gertrude.Gertrude#addTypeConverter(Class, TypeConverter)}.
+ */
+public final class TypeConverters {
+
+    private static TypeConverters instance;
+
+    private final Map<Class<?>, TypeConverter<?>> converters;
+
+    private TypeConverters() {
+        this.converters = new HashMap<>();
+
+        // string type
+        add(String.class,           TypeConverter.of(OptionType.STRING,      OptionMapping::getAsString));
+
+        // numbers/boolean
+        add(Boolean.class,          TypeConverter.of(OptionType.BOOLEAN,     OptionMapping::getAsBoolean));
+        add(boolean.class,          TypeConverter.of(OptionType.BOOLEAN,     OptionMapping::getAsBoolean));
+        add(Long.class,             TypeConverter.of(OptionType.INTEGER,     OptionMapping::getAsLong));
+        add(long.class,             TypeConverter.of(OptionType.INTEGER,     OptionMapping::getAsLong));
+        add(Integer.class,          TypeConverter.of(OptionType.INTEGER,     OptionMapping::getAsInt));
+        add(int.class,              TypeConverter.of(OptionType.INTEGER,     OptionMapping::getAsInt));
+        add(Double.class,           TypeConverter.of(OptionType.NUMBER,      OptionMapping::getAsDouble));
+        add(double.class,           TypeConverter.of(OptionType.NUMBER,      OptionMapping::getAsDouble));
+
+        // mentionables
+        add(IMentionable.class,     TypeConverter.of(OptionType.MENTIONABLE, OptionMapping::getAsMentionable));
+        add(Member.class,           TypeConverter.of(OptionType.USER,        OptionMapping::getAsMember));
+        add(User.class,             TypeConverter.of(OptionType.USER,        OptionMapping::getAsUser));
+        add(Role.class,             TypeConverter.of(OptionType.ROLE,        OptionMapping::getAsRole));
+
+        // channel types, the channels themselves get a converter when they're first used
+        add(ChannelType.class,      TypeConverter.of(OptionType.CHANNEL,     OptionMapping::getChannelType));
+    }
+
+    /**
+     * Link the given converter to the given type, replacing the converter the type already has.
+     * The commands already added keep the converter they were registered with.
+     *
+     * @param clazz     The type of the parameters to convert
+     * @param converter The converter
+     * @param <T>       The type of the parameters to convert
+     */
+    public <T> void add(@NotNull final Class<T> clazz, @NotNull final TypeConverter<? extends T> converter) {
+        Checks.notNull(clazz, "clazz");
+        Checks.notNull(converter, "converter");
+
+        this.converters.put(clazz, converter);
+    }
+
+    /**
+     * Get the converter of the given type.
+     * Enums without a converter get one turning their constants into the option's choices,
+     * and channels get one only accepting the channels of their type.
+     *
+     * @param clazz The type of the parameter
+     * @return      {@code null} if the type cannot be used as an option, or the type's converter
+     */
+    @Nullable
+    public TypeConverter<?> get(@NotNull final Class<?> clazz) {
+        Checks.notNull(clazz, "clazz");
+
+        TypeConverter<?> converter = this.converters.get(clazz);
+        if (converter != null) {
+            return converter;
+        }
+
+        if (clazz.isEnum()) {
+            converter = createEnumConverter(clazz);
+        } else if (Channel.class.isAssignableFrom(clazz)) {
+            converter = ChannelConverter.of(clazz.asSubclass(Channel.class));
+        }
+
+        if (converter != null) {
+            this.converters.put(clazz, converter);
+        }
+
+        return converter;
+    }
+
+    @Nullable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TypeConverter<?> createEnumConverter(@NotNull final Class<?> clazz) {
+        try {
+            return new EnumConverter(clazz);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Enum " + clazz.getName() + " cannot be used for a command parameter: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * As the TypeConverters is a singleton for practical use, we have a getter for its instance
+     *
+     * @return  The TypeConverters' instance
+     */
+    @NotNull
+    public static TypeConverters getInstance() {
+        if (instance == null) {
+            instance = new TypeConverters();
+        }
+
+        return instance;
+    }
+}
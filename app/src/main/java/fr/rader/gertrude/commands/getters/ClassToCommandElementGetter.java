@@ -1,5 +1,6 @@
 package fr.rader.gertrude.commands.getters;
 
+import fr.rader.gertrude.utils.ChannelResolver;
 import fr.rader.gertrude.utils.ChannelUtils;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -38,13 +39,7 @@ public final class ClassToCommandElementGetter {
      */
     @Nullable
     public static Object get(@NotNull final Class<?> clazz, @NotNull final SlashCommandInteractionEvent event) {
-        Checks.notNull(clazz, "clazz");
-
-        if (Channel.class.isAssignableFrom(clazz)) {
-            return ChannelUtils.getAsNormalChannel(event.getChannel());
-        }
-
-        Function<SlashCommandInteractionEvent, Object> function = functionMap.get(clazz);
+        Function<SlashCommandInteractionEvent, Object> function = getGetter(clazz);
         if (function == null) {
             return null;
         }
@@ -52,6 +47,26 @@ public final class ClassToCommandElementGetter {
         return function.apply(event);
     }
 
+    /**
+     * Get the getter {@link Function} for the given class.
+     * This is used to resolve the getter once, instead of every time an element has to be read.
+     * The channel the command was sent in is given if its type matches the class, {@code null} otherwise.
+     *
+     * @param clazz The class to get the getter for
+     * @return      A {@link Function} if the class has a getter for it, {@code null} otherwise
+     */
+    @Nullable
+    public static Function<SlashCommandInteractionEvent, Object> getGetter(@NotNull final Class<?> clazz) {
+        Checks.notNull(clazz, "clazz");
+
+        if (Channel.class.isAssignableFrom(clazz)) {
+            ChannelResolver<? extends Channel> resolver = ChannelResolver.of(clazz.asSubclass(Channel.class));
+            return event -> resolver.resolve(event.getChannel());
+        }
+
+        return functionMap.get(clazz);
+    }
+
     /**
      * Returns true if the function map has the given class, false otherwise
      *
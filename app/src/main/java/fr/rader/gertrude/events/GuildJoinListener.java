@@ -0,0 +1,32 @@
+package fr.rader.gertrude.events;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * This is an implementation of JDA's ListenerAdapter.
+ * It only listens to the bot joining a guild, and gives the joined guild to the consumer,
+ * so the commands can be registered to it.
+ */
+public final class GuildJoinListener extends ListenerAdapter {
+
+    private final Consumer<Guild> onJoin;
+
+    /**
+     * Create a new listener giving the joined guilds to the given consumer
+     *
+     * @param onJoin    Called with each joined guild
+     */
+    public GuildJoinListener(@NotNull final Consumer<Guild> onJoin) {
+        this.onJoin = onJoin;
+    }
+
+    @Override
+    public void onGuildJoin(@NotNull final GuildJoinEvent event) {
+        this.onJoin.accept(event.getGuild());
+    }
+}
@@ -2,33 +2,277 @@ package fr.rader.gertrude.events;
 
 import fr.rader.gertrude.commands.CommandMethod;
 import fr.rader.gertrude.commands.CommandRegistry;
+import fr.rader.gertrude.metrics.CommandMetrics;
+import fr.rader.gertrude.recording.InteractionRecorder;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This is an implementation of JDA's ListenerAdapter.
  * It only listens to command autocompletion.
  * When an autocompletion even is triggered, we get the command from the command registry,
- * execute the autocomplete method and reply with the returned choices.
+ * execute the autocomplete method on the listener's executor and reply with the returned choices.
+ *
+ * Discord only shows the choices of the last value a user typed, so when a user types faster than the autocomplete
+ * method answers, the previous request for the same option is cancelled: it isn't started if it's still waiting
+ * for the executor, and its choices aren't sent if it's already running.
+ *
+ * Discord ignores the choices sent more than 3 seconds after the autocompletion event.
+ * If a deadline is set and the autocomplete method misses it, we reply with the last choices it returned
+ * for the same value instead, or no choice at all. The autocomplete method keeps running,
+ * and its choices will be used the next time the value is typed.
+ *
+ * If the listener has an {@link InteractionRecorder}, every autocompletion received is recorded first.
  */
 public final class SlashCommandAutoCompleteListener extends ListenerAdapter {
 
+    private final Executor executor;
+    private final boolean interruptSuperseded;
+
+    private final long deadlineNanos;
+    private final ScheduledExecutorService timer;
+
+    private final InteractionRecorder recorder;
+
+    // the last request of each user for each option, removed once it's done
+    private final ConcurrentMap<RequestKey, FutureTask<Void>> inFlight;
+
+    /**
+     * Create a new listener executing the autocomplete methods on the given executor, without deadline
+     *
+     * @param executor              The executor to execute the autocomplete methods on
+     * @param interruptSuperseded   true to interrupt the autocomplete methods of cancelled requests, false to let them finish
+     */
+    public SlashCommandAutoCompleteListener(@NotNull final Executor executor, boolean interruptSuperseded) {
+        this(executor, interruptSuperseded, 0, null);
+    }
+
+    /**
+     * Create a new listener executing the autocomplete methods on the given executor
+     *
+     * @param executor              The executor to execute the autocomplete methods on
+     * @param interruptSuperseded   true to interrupt the autocomplete methods of cancelled requests, false to let them finish
+     * @param deadlineNanos         The time the autocomplete methods have to answer, in nanoseconds, or 0 for no deadline
+     * @param timer                 The executor the deadlines are scheduled on, only used if there is a deadline
+     */
+    public SlashCommandAutoCompleteListener(
+            @NotNull final Executor executor,
+            boolean interruptSuperseded,
+            long deadlineNanos,
+            @Nullable final ScheduledExecutorService timer
+    ) {
+        this(executor, interruptSuperseded, deadlineNanos, timer, null);
+    }
+
+    /**
+     * Create a new listener executing the autocomplete methods on the given executor, and recording the autocompletions
+     *
+     * @param executor              The executor to execute the autocomplete methods on
+     * @param interruptSuperseded   true to interrupt the autocomplete methods of cancelled requests, false to let them finish
+     * @param deadlineNanos         The time the autocomplete methods have to answer, in nanoseconds, or 0 for no deadline
+     * @param timer                 The executor the deadlines are scheduled on, only used if there is a deadline
+     * @param recorder              The recorder to append the autocompletions to, or {@code null} to not record them
+     */
+    public SlashCommandAutoCompleteListener(
+            @NotNull final Executor executor,
+            boolean interruptSuperseded,
+            long deadlineNanos,
+            @Nullable final ScheduledExecutorService timer,
+            @Nullable final InteractionRecorder recorder
+    ) {
+        if (deadlineNanos > 0 && timer == null) {
+            throw new IllegalArgumentException("A timer is needed to use a deadline");
+        }
+
+        this.executor = executor;
+        this.interruptSuperseded = interruptSuperseded;
+
+        this.deadlineNanos = deadlineNanos;
+        this.timer = timer;
+
+        this.recorder = recorder;
+
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+
     @Override
     public void onCommandAutoCompleteInteraction(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        if (this.recorder != null) {
+            this.recorder.record(event);
+        }
+
+        long start = System.nanoTime();
         CommandMethod command = CommandRegistry.getInstance().getCommandMethod(
+                event.getCommandIdLong(),
                 event.getName(),
                 event.getSubcommandName(),
                 event.getSubcommandGroup()
         );
 
-        if (command != null) {
-            event.replyChoices(
-                    command.getAutoCompleteChoices(
-                            event.getFocusedOption().getName(),
-                            event
-                    )
-            ).queue();
+        if (command == null) {
+            return;
+        }
+
+        CommandMetrics metrics = command.getMetrics();
+        if (metrics != null) {
+            metrics.recordLookup(System.nanoTime() - start);
+        }
+
+        RequestKey key = new RequestKey(
+                event.getUser().getIdLong(),
+                event.getFullCommandName(),
+                event.getFocusedOption().getName()
+        );
+
+        AutoCompleteRequest request = new AutoCompleteRequest(key, command, event);
+        FutureTask<Void> task = new FutureTask<>(request, null);
+        request.task = task;
+
+        FutureTask<Void> previous = this.inFlight.put(key, task);
+        if (previous != null) {
+            previous.cancel(this.interruptSuperseded);
+        }
+
+        try {
+            if (this.deadlineNanos > 0) {
+                request.deadline = this.timer.schedule(request::missDeadline, this.deadlineNanos, TimeUnit.NANOSECONDS);
+            }
+
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            this.inFlight.remove(key, task);
+            request.cancelDeadline();
+
+            System.err.println("Cannot autocomplete command '" + event.getFullCommandName() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Computes the choices of one autocompletion event, and replies with them unless a newer request replaced it
+     */
+    private final class AutoCompleteRequest implements Runnable {
+
+        private final RequestKey key;
+        private final CommandMethod command;
+        private final CommandAutoCompleteInteractionEvent event;
+
+        // set right after the task is created, before it's given to the executor
+        private FutureTask<Void> task;
+
+        // we only reply once, either with the autocomplete method's choices or with the last ones when the deadline is missed
+        private final AtomicBoolean replied = new AtomicBoolean();
+        private volatile ScheduledFuture<?> deadline;
+
+        private AutoCompleteRequest(
+                @NotNull final RequestKey key,
+                @NotNull final CommandMethod command,
+                @NotNull final CommandAutoCompleteInteractionEvent event
+        ) {
+            this.key = key;
+            this.command = command;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<Choice> choices = this.command.getAutoCompleteChoices(this.event.getFocusedOption().getName(), this.event);
+
+                // a newer request for the same option arrived while the autocomplete method was running
+                if (this.task.isCancelled()) {
+                    return;
+                }
+
+                if (this.replied.compareAndSet(false, true)) {
+                    cancelDeadline();
+                    this.event.replyChoices(choices).queue();
+                }
+            } catch (RuntimeException e) {
+                // the task would keep the exception to itself, nobody reads its result
+                e.printStackTrace();
+            } finally {
+                inFlight.remove(this.key, this.task);
+            }
+        }
+
+        /**
+         * Reply with the last known choices, the autocomplete method took too long
+         */
+        private void missDeadline() {
+            // a newer request will reply instead
+            if (this.task.isCancelled()) {
+                return;
+            }
+
+            if (!this.replied.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                this.event.replyChoices(
+                        this.command.getLastAutoCompleteChoices(this.event.getFocusedOption().getName(), this.event)
+                ).queue();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void cancelDeadline() {
+            ScheduledFuture<?> deadline = this.deadline;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A user autocompleting an option of a command
+     */
+    private static final class RequestKey {
+
+        private final long userId;
+        private final String commandName;
+        private final String optionName;
+
+        private RequestKey(long userId, @NotNull final String commandName, @NotNull final String optionName) {
+            this.userId = userId;
+            this.commandName = commandName;
+            this.optionName = optionName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+
+            RequestKey key = (RequestKey) o;
+            return this.userId == key.userId && this.commandName.equals(key.commandName) && this.optionName.equals(key.optionName);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(this.userId);
+            hash = 31 * hash + this.commandName.hashCode();
+            return 31 * hash + this.optionName.hashCode();
         }
     }
 }
@@ -2,28 +2,149 @@ package fr.rader.gertrude.events;
 
 import fr.rader.gertrude.commands.CommandMethod;
 import fr.rader.gertrude.commands.CommandRegistry;
+import fr.rader.gertrude.execution.Bulkhead;
+import fr.rader.gertrude.execution.CommandCooldown;
+import fr.rader.gertrude.metrics.CommandMetrics;
+import fr.rader.gertrude.recording.InteractionRecorder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is an implementation of JDA's ListenerAdapter.
  * It only listens to slash commands.
  * When a slash command even is triggered, we get the command from the command registry
- * and we invoke the command method attached to it.
+ * and we invoke the command method attached to it on the listener's executor.
+ * If the command has a {@link CommandCooldown} and its uses ran out, we reply with the cooldown message instead,
+ * and if it has a {@link Bulkhead} and it is full, we reply with the rejection message.
+ * If the listener has an {@link InteractionRecorder}, every slash command received is recorded first.
  */
 public final class SlashCommandListener extends ListenerAdapter {
 
+    /**
+     * The message replied when the uses of a command ran out, if none is given
+     */
+    public static final String DEFAULT_COOLDOWN_MESSAGE = "You're using this command too fast, please try again in {seconds} seconds.";
+
+    private static final String SECONDS_PLACEHOLDER = "{seconds}";
+
+    private final Executor executor;
+    private final String rejectionMessage;
+    private final String cooldownMessage;
+    private final InteractionRecorder recorder;
+
+    /**
+     * Create a new listener invoking the command methods on the given executor
+     *
+     * @param executor          The executor to invoke the command methods on
+     * @param rejectionMessage  The message to reply with when a command's bulkhead is full
+     */
+    public SlashCommandListener(@NotNull final Executor executor, @NotNull final String rejectionMessage) {
+        this(executor, rejectionMessage, null);
+    }
+
+    /**
+     * Create a new listener invoking the command methods on the given executor, and recording the slash commands
+     *
+     * @param executor          The executor to invoke the command methods on
+     * @param rejectionMessage  The message to reply with when a command's bulkhead is full
+     * @param recorder          The recorder to append the slash commands to, or {@code null} to not record them
+     */
+    public SlashCommandListener(
+            @NotNull final Executor executor,
+            @NotNull final String rejectionMessage,
+            @Nullable final InteractionRecorder recorder
+    ) {
+        this(executor, rejectionMessage, DEFAULT_COOLDOWN_MESSAGE, recorder);
+    }
+
+    /**
+     * Create a new listener invoking the command methods on the given executor, and recording the slash commands
+     *
+     * @param executor          The executor to invoke the command methods on
+     * @param rejectionMessage  The message to reply with when a command's bulkhead is full
+     * @param cooldownMessage   The message to reply with when the uses of a command ran out,
+     *                          where {@code {seconds}} is replaced by the number of seconds until the next use comes back
+     * @param recorder          The recorder to append the slash commands to, or {@code null} to not record them
+     */
+    public SlashCommandListener(
+            @NotNull final Executor executor,
+            @NotNull final String rejectionMessage,
+            @NotNull final String cooldownMessage,
+            @Nullable final InteractionRecorder recorder
+    ) {
+        this.executor = executor;
+        this.rejectionMessage = rejectionMessage;
+        this.cooldownMessage = cooldownMessage;
+        this.recorder = recorder;
+    }
+
     @Override
     public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
+        if (this.recorder != null) {
+            this.recorder.record(event);
+        }
+
+        long start = System.nanoTime();
         CommandMethod command = CommandRegistry.getInstance().getCommandMethod(
+                event.getCommandIdLong(),
                 event.getName(),
                 event.getSubcommandName(),
                 event.getSubcommandGroup()
         );
 
-        if (command != null) {
-            command.invoke(event);
+        if (command == null) {
+            return;
         }
+
+        CommandMetrics metrics = command.getMetrics();
+        if (metrics != null) {
+            metrics.recordLookup(System.nanoTime() - start);
+        }
+
+        // the cooldown is checked before the bulkhead, so the spammed invocations don't take its room
+        CommandCooldown cooldown = command.getCooldown();
+        if (cooldown != null) {
+            long wait = cooldown.tryAcquire(event);
+            if (wait > 0) {
+                event.reply(formatCooldownMessage(wait)).setEphemeral(true).queue();
+                return;
+            }
+        }
+
+        try {
+            Bulkhead bulkhead = command.getBulkhead();
+            if (bulkhead == null) {
+                this.executor.execute(() -> command.invoke(event));
+                return;
+            }
+
+            // the invocation can also be rejected after waiting in the queue, it gets the same reply
+            bulkhead.submit(() -> command.invoke(event), () -> {
+                if (metrics != null) {
+                    metrics.recordRejection();
+                }
+
+                event.reply(this.rejectionMessage).setEphemeral(true).queue();
+            }, this.executor);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Cannot invoke command '" + event.getFullCommandName() + "': " + e.getMessage());
+        }
+    }
+
+    @NotNull
+    private String formatCooldownMessage(long waitNanos) {
+        if (!this.cooldownMessage.contains(SECONDS_PLACEHOLDER)) {
+            return this.cooldownMessage;
+        }
+
+        // round up, so we never tell the user to try again in 0 seconds
+        long seconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return this.cooldownMessage.replace(SECONDS_PLACEHOLDER, Long.toString(seconds));
     }
 }
@@ -0,0 +1,247 @@
+package fr.rader.gertrude.execution;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of invocations of a command running at the same time.
+ * Invocations over the limit wait in a bounded queue, and are started when a running invocation finishes.
+ * Once the queue is full, new invocations are rejected right away instead of piling up.
+ *
+ * The bulkhead doesn't use any lock, the running and waiting invocations are counted with atomic counters.
+ * Each invocation comes with what to do if it's rejected, so an invocation dropped after waiting in the queue
+ * is answered like one rejected right away.
+ */
+public final class Bulkhead {
+
+    private final int maxConcurrency;
+    private final int maxQueued;
+
+    private final AtomicInteger running;
+    private final AtomicInteger queued;
+    private final LongAdder rejected;
+
+    private final Queue<Invocation> queue;
+
+    // set while a thread starts queued invocations, so an executor running the invocations on the calling thread
+    // doesn't start the next one from inside the previous one
+    private final ThreadLocal<Boolean> draining;
+
+    /**
+     * Create a new bulkhead
+     *
+     * @param maxConcurrency    The maximum number of invocations running at the same time, must be positive
+     * @param maxQueued         The maximum number of invocations waiting for a running one to finish
+     */
+    public Bulkhead(int maxConcurrency, int maxQueued) {
+        Checks.positive(maxConcurrency, "maxConcurrency");
+        Checks.notNegative(maxQueued, "maxQueued");
+
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+
+        this.running = new AtomicInteger();
+        this.queued = new AtomicInteger();
+        this.rejected = new LongAdder();
+
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.draining = new ThreadLocal<>();
+    }
+
+    /**
+     * Run the given task on the given executor if the bulkhead has room for it,
+     * or queue it if the bulkhead is full but the queue isn't.
+     * If the queue is full too, or the executor rejects the task once it leaves the queue, {@code onRejected} is run instead.
+     *
+     * @param task          The task to run
+     * @param onRejected    Run instead of the task if it's rejected, on the calling thread or the thread releasing a slot
+     * @param executor      The executor to run the task on
+     * @return              true if the task was started or queued, false if it was rejected right away
+     * @throws RejectedExecutionException   If the executor rejected the task without queuing it
+     */
+    public boolean submit(@NotNull final Runnable task, @NotNull final Runnable onRejected, @NotNull final Executor executor) {
+        Checks.notNull(task, "task");
+        Checks.notNull(onRejected, "onRejected");
+        Checks.notNull(executor, "executor");
+
+        if (tryAcquire(this.running, this.maxConcurrency)) {
+            execute(task, executor);
+            return true;
+        }
+
+        if (!tryAcquire(this.queued, this.maxQueued)) {
+            reject(onRejected);
+            return false;
+        }
+
+        this.queue.offer(new Invocation(task, onRejected));
+
+        // a running invocation may have finished between the time we failed to start the task and the time we queued it,
+        // in which case nobody would start the task
+        drain(executor);
+        return true;
+    }
+
+    /**
+     * Return the number of invocations currently running
+     *
+     * @return  The number of running invocations
+     */
+    public int getRunning() {
+        return this.running.get();
+    }
+
+    /**
+     * Return the number of invocations waiting for a running one to finish
+     *
+     * @return  The number of waiting invocations
+     */
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    /**
+     * Return the number of invocations rejected since the bulkhead was created
+     *
+     * @return  The number of rejected invocations
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Return the maximum number of invocations running at the same time
+     *
+     * @return  The maximum number of running invocations
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Return the maximum number of invocations waiting for a running one to finish
+     *
+     * @return  The maximum number of waiting invocations
+     */
+    public int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    /**
+     * Run the task on the executor, and release its slot once it's done
+     */
+    private void execute(@NotNull final Runnable task, @NotNull final Executor executor) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release(executor);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(executor);
+            throw e;
+        }
+    }
+
+    private void release(@NotNull final Executor executor) {
+        this.running.decrementAndGet();
+
+        // the task ran on the thread starting the queued tasks, which picks the next one once we return
+        if (this.draining.get() == null) {
+            drain(executor);
+        }
+    }
+
+    /**
+     * Start queued tasks while there are free slots.
+     * The tasks are started one after the other by the loop, so the stack doesn't grow with the queue
+     * when the executor runs them on the calling thread.
+     */
+    private void drain(@NotNull final Executor executor) {
+        this.draining.set(Boolean.TRUE);
+
+        try {
+            drainQueue(executor);
+        } finally {
+            this.draining.remove();
+        }
+    }
+
+    private void drainQueue(@NotNull final Executor executor) {
+        while (this.queued.get() > 0 && tryAcquire(this.running, this.maxConcurrency)) {
+            Invocation next = this.queue.poll();
+
+            if (next == null) {
+                // the queue slot was reserved but the task isn't queued yet.
+                // if it still isn't queued once we gave the slot back, the thread queuing it will find the free slot
+                this.running.decrementAndGet();
+
+                if (this.queue.isEmpty()) {
+                    return;
+                }
+
+                continue;
+            }
+
+            this.queued.decrementAndGet();
+
+            try {
+                execute(next.task, executor);
+            } catch (RejectedExecutionException e) {
+                System.err.println("Cannot start queued invocation: " + e.getMessage());
+                reject(next.onRejected);
+            }
+        }
+    }
+
+    private void reject(@NotNull final Runnable onRejected) {
+        this.rejected.increment();
+
+        try {
+            onRejected.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Increment the counter if it's below the given maximum
+     *
+     * @return  true if the counter was incremented, false if it's already at the maximum
+     */
+    private static boolean tryAcquire(@NotNull final AtomicInteger counter, int max) {
+        while (true) {
+            int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A queued task, and what to do if it cannot be started
+     */
+    private static final class Invocation {
+
+        private final Runnable task;
+        private final Runnable onRejected;
+
+        private Invocation(@NotNull final Runnable task, @NotNull final Runnable onRejected) {
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+    }
+}
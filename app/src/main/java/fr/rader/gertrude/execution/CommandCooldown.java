@@ -0,0 +1,70 @@
+package fr.rader.gertrude.execution;
+
+import fr.rader.gertrude.annotations.CooldownScope;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Limits how often a command can be used, as set by its {@link fr.rader.gertrude.annotations.Cooldown}.
+ * This picks the bucket of the user, guild or channel of each invocation and takes a use from it.
+ */
+public final class CommandCooldown {
+
+    private final CooldownScope scope;
+    private final CooldownBuckets buckets;
+
+    /**
+     * Create a new cooldown
+     *
+     * @param scope     Who shares the uses
+     * @param buckets   The command's buckets
+     */
+    public CommandCooldown(@NotNull final CooldownScope scope, @NotNull final CooldownBuckets buckets) {
+        Checks.notNull(scope, "scope");
+        Checks.notNull(buckets, "buckets");
+
+        this.scope = scope;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Take one use from the bucket of the invocation
+     *
+     * @param event The invocation
+     * @return      0 if the command can run, or the number of nanoseconds until the next use comes back
+     */
+    public long tryAcquire(@NotNull final SlashCommandInteractionEvent event) {
+        return this.buckets.tryAcquire(keyOf(event));
+    }
+
+    /**
+     * @return  Who shares the uses
+     */
+    @NotNull
+    public CooldownScope getScope() {
+        return this.scope;
+    }
+
+    private long keyOf(@NotNull final SlashCommandInteractionEvent event) {
+        // snowflakes are unique across users, guilds and channels,
+        // so falling back to the user's id never shares a bucket with a guild or a channel
+        switch (this.scope) {
+            case USER:
+                return event.getUser().getIdLong();
+
+            case GUILD:
+                Guild guild = event.getGuild();
+                return guild == null ? event.getUser().getIdLong() : guild.getIdLong();
+
+            case CHANNEL:
+                Channel channel = event.getChannel();
+                return channel == null ? event.getUser().getIdLong() : channel.getIdLong();
+
+            default:
+                return 0;
+        }
+    }
+}
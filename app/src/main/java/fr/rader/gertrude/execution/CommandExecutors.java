@@ -0,0 +1,112 @@
+package fr.rader.gertrude.execution;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Util class to create the {@link Executor}s command methods can be invoked on.
+ * Give one of them to {@link fr.rader.gertrude.Gertrude#setExecutor(Executor)}.
+ */
+public final class CommandExecutors {
+
+    // private constructor, we don't want an instance of this class
+    private CommandExecutors() {
+    }
+
+    /**
+     * Run the command methods on JDA's event thread. This is what Gertrude does by default.
+     * A slow command method blocks all the other events of the shard.
+     * With a bulkhead queue, a queued invocation runs on the event thread that frees its slot,
+     * which may be the event thread of another shard.
+     *
+     * @return  An executor running the tasks on the calling thread
+     */
+    @NotNull
+    public static Executor direct() {
+        return Runnable::run;
+    }
+
+    /**
+     * Run the command methods on a pool with a fixed amount of threads
+     *
+     * @param threads   The number of threads of the pool
+     * @return          The fixed thread pool
+     */
+    @NotNull
+    public static ExecutorService fixedPool(int threads) {
+        Checks.positive(threads, "threads");
+
+        return Executors.newFixedThreadPool(threads, new WorkerThreadFactory("Worker"));
+    }
+
+    /**
+     * Run the command methods on a pool creating threads when needed, and reusing idle ones
+     *
+     * @return  The cached thread pool
+     */
+    @NotNull
+    public static ExecutorService cachedPool() {
+        return Executors.newCachedThreadPool(new WorkerThreadFactory("Worker"));
+    }
+
+    /**
+     * Run each command method on its own virtual thread.
+     * Virtual threads are only available from Java 21, we fall back to {@link #cachedPool()} on older versions.
+     *
+     * @return  The virtual thread executor, or a cached thread pool
+     */
+    @NotNull
+    public static ExecutorService virtualThreads() {
+        // Gertrude targets Java 8, so we can only reach the Java 21 API with reflection
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("Virtual threads are not available on this Java version, using a cached thread pool instead");
+            return cachedPool();
+        }
+    }
+
+    /**
+     * Create a single thread running Gertrude's timers, like the autocompletion deadlines.
+     * The timers must be short, as they all share the same thread.
+     *
+     * @return  The scheduled executor
+     */
+    @NotNull
+    public static ScheduledExecutorService timer() {
+        return Executors.newSingleThreadScheduledExecutor(new WorkerThreadFactory("Timer"));
+    }
+
+    /**
+     * Create daemon threads named {@code Gertrude-<Name>-P-N}, so they don't keep the bot alive
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+        private final String name;
+        private final int pool = POOL_COUNT.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private WorkerThreadFactory(@NotNull final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NotNull final Runnable runnable) {
+            Thread thread = new Thread(runnable, "Gertrude-" + this.name + "-" + this.pool + "-" + this.threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package fr.rader.gertrude.execution;
+
+/**
+ * The uses left of one command, for each user, guild or channel sharing them.
+ * Each key has a bucket holding up to the command's number of uses, which refills one use at a time.
+ *
+ * @see CooldownStore
+ */
+@FunctionalInterface
+public interface CooldownBuckets {
+
+    /**
+     * Take one use from the bucket of the given key. This is called on the event threads every time the command is used,
+     * so it must not block for long.
+     *
+     * @param key   The id of the user, guild or channel sharing the uses, 0 when everyone shares them
+     * @return      0 if a use was taken and the command can run, or the number of nanoseconds until the next use comes back
+     */
+    long tryAcquire(long key);
+}
@@ -0,0 +1,26 @@
+package fr.rader.gertrude.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the {@link CooldownBuckets} of the commands limited by a {@link fr.rader.gertrude.annotations.Cooldown}.
+ * The buckets of each command are created once, when the command is registered.
+ *
+ * By default, the buckets are kept in memory by a {@link LocalCooldownStore}.
+ * Another store, sharing the buckets between several instances of the bot for example,
+ * can be set with {@link fr.rader.gertrude.Gertrude#setCooldownStore(CooldownStore)}.
+ */
+@FunctionalInterface
+public interface CooldownStore {
+
+    /**
+     * Create the buckets of a command
+     *
+     * @param command       The command string, to tell the commands apart
+     * @param uses          The number of uses a bucket holds, always positive
+     * @param periodNanos   The number of nanoseconds it takes for an empty bucket to be full again, always positive
+     * @return              The command's buckets
+     */
+    @NotNull
+    CooldownBuckets createBuckets(@NotNull final String command, int uses, long periodNanos);
+}
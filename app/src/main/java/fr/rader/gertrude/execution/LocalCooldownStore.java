@@ -0,0 +1,213 @@
+package fr.rader.gertrude.execution;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link CooldownStore}, keeping the buckets in memory.
+ *
+ * A bucket is a single {@code long}: the time at which it will be full again, which is all a token bucket needs
+ * when its uses come back at a steady rate. A use is taken by moving that time forward by one use,
+ * and is refused if the time is further ahead than the bucket's size.
+ *
+ * The buckets of a command are kept in open-addressing tables with primitive {@code long} keys,
+ * split into stripes that each have their own lock, so the event threads rarely wait on each other
+ * and the keys are never boxed. The bucket shared by everyone doesn't take any lock.
+ * A bucket that is full again is the same as no bucket at all, so the full buckets are dropped
+ * whenever a stripe runs out of room: a command only keeps the buckets of the keys that used it during the last period.
+ */
+public final class LocalCooldownStore implements CooldownStore {
+
+    private final int stripes;
+
+    /**
+     * Create a new store, with enough stripes for the number of processors
+     */
+    public LocalCooldownStore() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Create a new store
+     *
+     * @param stripes   The number of stripes of each command, rounded up to a power of two
+     */
+    public LocalCooldownStore(int stripes) {
+        Checks.positive(stripes, "stripes");
+
+        this.stripes = Integer.highestOneBit(Math.min(stripes, 1 << 16) * 2 - 1);
+    }
+
+    @NotNull
+    @Override
+    public CooldownBuckets createBuckets(@NotNull final String command, int uses, long periodNanos) {
+        Checks.positive(uses, "uses");
+        Checks.positive(periodNanos, "periodNanos");
+
+        return new Buckets(this.stripes, uses, periodNanos);
+    }
+
+    /**
+     * The buckets of one command
+     */
+    private static final class Buckets implements CooldownBuckets {
+
+        // the time it takes for one use to come back
+        private final long interval;
+
+        // how far ahead of now the full time of a bucket can be when a use is taken
+        private final long tolerance;
+
+        private final Stripe[] stripes;
+        private final int stripeMask;
+
+        // the key 0 is never a valid snowflake, it's the bucket shared by everyone
+        private final AtomicLong shared;
+
+        private Buckets(int stripes, int uses, long periodNanos) {
+            this.interval = Math.max(periodNanos / uses, 1);
+            this.tolerance = periodNanos - this.interval;
+
+            this.stripes = new Stripe[stripes];
+            for (int i = 0; i < stripes; i++) {
+                this.stripes[i] = new Stripe();
+            }
+
+            this.stripeMask = stripes - 1;
+            this.shared = new AtomicLong(System.nanoTime());
+        }
+
+        @Override
+        public long tryAcquire(long key) {
+            long now = System.nanoTime();
+            if (key == Stripe.EMPTY) {
+                return tryAcquireShared(now);
+            }
+
+            // snowflakes have a timestamp in their high bits and a counter in their low bits,
+            // so we mix both halves before picking the stripe and the slot
+            long hash = key * 0x9E3779B97F4A7C15L;
+            Stripe stripe = this.stripes[(int) (hash >>> 32) & this.stripeMask];
+
+            return stripe.tryAcquire(key, (int) hash, now, this.interval, this.tolerance);
+        }
+
+        private long tryAcquireShared(long now) {
+            while (true) {
+                long fullAt = this.shared.get();
+
+                long wait = fullAt - this.tolerance - now;
+                if (wait > 0) {
+                    return wait;
+                }
+
+                if (this.shared.compareAndSet(fullAt, later(fullAt, now) + this.interval)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * A part of the buckets of a command, with its own lock
+     */
+    private static final class Stripe {
+
+        private static final long EMPTY = 0L;
+
+        private static final int MIN_CAPACITY = 16;
+
+        private long[] keys;
+        private long[] fullTimes;
+
+        private int size;
+        private int mask;
+
+        private Stripe() {
+            this.keys = new long[MIN_CAPACITY];
+            this.fullTimes = new long[MIN_CAPACITY];
+            this.mask = MIN_CAPACITY - 1;
+        }
+
+        synchronized long tryAcquire(long key, int hash, long now, long interval, long tolerance) {
+            int index = hash & this.mask;
+            long current;
+            while ((current = this.keys[index]) != EMPTY) {
+                if (current == key) {
+                    long fullAt = this.fullTimes[index];
+
+                    long wait = fullAt - tolerance - now;
+                    if (wait > 0) {
+                        return wait;
+                    }
+
+                    this.fullTimes[index] = later(fullAt, now) + interval;
+                    return 0;
+                }
+
+                index = (index + 1) & this.mask;
+            }
+
+            // a key without a bucket has a full bucket.
+            // keep the load factor under 0.5 so probe sequences stay short
+            if ((this.size + 1) * 2 > this.keys.length) {
+                evict(now);
+
+                index = hash & this.mask;
+                while (this.keys[index] != EMPTY) {
+                    index = (index + 1) & this.mask;
+                }
+            }
+
+            this.keys[index] = key;
+            this.fullTimes[index] = now + interval;
+            this.size++;
+
+            return 0;
+        }
+
+        /**
+         * Drop the full buckets, and resize the table so it's at most a quarter full
+         */
+        private void evict(long now) {
+            long[] oldKeys = this.keys;
+            long[] oldFullTimes = this.fullTimes;
+
+            int live = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY && oldFullTimes[i] - now > 0) {
+                    live++;
+                }
+            }
+
+            int capacity = Math.max(Integer.highestOneBit((live + 1) * 4 - 1) << 1, MIN_CAPACITY);
+
+            this.keys = new long[capacity];
+            this.fullTimes = new long[capacity];
+            this.mask = capacity - 1;
+            this.size = live;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY || oldFullTimes[i] - now <= 0) {
+                    continue;
+                }
+
+                long hash = oldKeys[i] * 0x9E3779B97F4A7C15L;
+                int index = (int) hash & this.mask;
+                while (this.keys[index] != EMPTY) {
+                    index = (index + 1) & this.mask;
+                }
+
+                this.keys[index] = oldKeys[i];
+                this.fullTimes[index] = oldFullTimes[i];
+            }
+        }
+    }
+
+    // nanoTime can overflow, so the times are compared by their difference
+    private static long later(long fullAt, long now) {
+        return fullAt - now > 0 ? fullAt : now;
+    }
+}
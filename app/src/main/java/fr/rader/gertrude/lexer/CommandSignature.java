@@ -0,0 +1,253 @@
+package fr.rader.gertrude.lexer;
+
+import fr.rader.gertrude.lexer.exceptions.LexingException;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A command string, like {@code "name subcommandGroup subcommand <required> [optional]"}, read once.
+ * It holds the command's path and its options in order, with the position of each option in the command string,
+ * so the registry and the annotation processor don't read the string again.
+ *
+ * The command string is read in a single pass. Besides the lexer's rules, a signature checks that the command
+ * has at most a subcommand group and a subcommand, that the names come before the options,
+ * that the options have a name and aren't declared twice, and that the required options come first, like Discord wants.
+ */
+public final class CommandSignature {
+
+    // most bots use the same few command strings, there's no need to evict them
+    private static final ConcurrentMap<String, CommandSignature> CACHE = new ConcurrentHashMap<>();
+
+    private final String command;
+
+    private final String name;
+    private final String subcommandGroup;
+    private final String subcommand;
+
+    private final List<Option> options;
+
+    private CommandSignature(
+            @NotNull final String command,
+            @NotNull final String name,
+            @Nullable final String subcommandGroup,
+            @Nullable final String subcommand,
+            @NotNull final List<Option> options
+    ) {
+        this.command = command;
+
+        this.name = name;
+        this.subcommandGroup = subcommandGroup;
+        this.subcommand = subcommand;
+
+        this.options = options;
+    }
+
+    /**
+     * Return the signature of the given command string, reading it only the first time it's given
+     *
+     * @param command   The command string
+     * @return          The command's signature
+     * @throws LexingException  If the command string is invalid
+     */
+    @NotNull
+    public static CommandSignature of(@NotNull final String command) {
+        Checks.notNull(command, "command");
+
+        CommandSignature signature = CACHE.get(command);
+        if (signature == null) {
+            signature = compile(command);
+            CACHE.putIfAbsent(command, signature);
+        }
+
+        return signature;
+    }
+
+    /**
+     * Read the given command string, without looking at the signatures already read
+     *
+     * @param command   The command string
+     * @return          The command's signature
+     * @throws LexingException  If the command string is invalid
+     */
+    @NotNull
+    public static CommandSignature compile(@NotNull final String command) {
+        Checks.notNull(command, "command");
+
+        List<String> names = new ArrayList<>(3);
+        List<Option> options = new ArrayList<>();
+
+        int length = command.length();
+        int i = 0;
+        while (i < length) {
+            char c = command.charAt(i);
+
+            if (c == ' ') {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            if (c == '<' || c == '[') {
+                char close = c == '<' ? '>' : ']';
+
+                int end = command.indexOf(close, start + 1);
+                if (end == -1) {
+                    throw new LexingException("Missing '" + close + "' to close this option", command, start);
+                }
+
+                if (end == start + 1) {
+                    throw new LexingException("Empty option name", command, start);
+                }
+
+                String optionName = command.substring(start + 1, end);
+                boolean required = c == '<';
+
+                for (Option option : options) {
+                    if (option.name.equals(optionName)) {
+                        throw new LexingException("Option '" + optionName + "' is declared twice", command, start);
+                    }
+
+                    if (required && !option.required) {
+                        throw new LexingException("Required option '" + optionName + "' must come before the optional ones", command, start);
+                    }
+                }
+
+                options.add(new Option(optionName, required, start));
+                i = end + 1;
+                continue;
+            }
+
+            if (!isAlpha(c)) {
+                throw new LexingException("Expected a character matching [a-zA-Z0-9_] but got '" + c + "' instead", command, i);
+            }
+
+            while (i < length && isAlpha(command.charAt(i))) {
+                i++;
+            }
+
+            if (!options.isEmpty()) {
+                throw new LexingException("The command's names must come before its options", command, start);
+            }
+
+            if (names.size() == 3) {
+                throw new LexingException("A command can only have a subcommand group and a subcommand", command, start);
+            }
+
+            names.add(command.substring(start, i));
+        }
+
+        if (names.isEmpty()) {
+            throw new LexingException("Missing the command name", command, 0);
+        }
+
+        return new CommandSignature(
+                command,
+                names.get(0),
+                names.size() == 3 ? names.get(1) : null,
+                names.size() > 1 ? names.get(names.size() - 1) : null,
+                Collections.unmodifiableList(options)
+        );
+    }
+
+    /**
+     * Return true if the given character matches the following regex: {@code [a-zA-Z0-9_]}
+     */
+    private static boolean isAlpha(char c) {
+        return c >= 'a' && c <= 'z' ||
+               c >= 'A' && c <= 'Z' ||
+               c >= '0' && c <= '9' ||
+               c == '_';
+    }
+
+    /**
+     * @return  The command string this signature was read from
+     */
+    @NotNull
+    public String getCommand() {
+        return this.command;
+    }
+
+    /**
+     * @return  The command's name
+     */
+    @NotNull
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return  The subcommand group's name, or {@code null} if the command doesn't have one
+     */
+    @Nullable
+    public String getSubcommandGroup() {
+        return this.subcommandGroup;
+    }
+
+    /**
+     * @return  The subcommand's name, or {@code null} if the command doesn't have one
+     */
+    @Nullable
+    public String getSubcommand() {
+        return this.subcommand;
+    }
+
+    /**
+     * @return  The command's options, in the order they're declared
+     */
+    @NotNull
+    public List<Option> getOptions() {
+        return this.options;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandSignature{" +
+                "command='" + this.command + '\'' +
+                '}';
+    }
+
+    /**
+     * An option of a command string
+     */
+    public static final class Option {
+
+        private final String name;
+        private final boolean required;
+        private final int position;
+
+        private Option(@NotNull final String name, boolean required, int position) {
+            this.name = name;
+            this.required = required;
+            this.position = position;
+        }
+
+        /**
+         * @return  The option's name
+         */
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return  true if the option is between diamonds, false if it's between square brackets
+         */
+        public boolean isRequired() {
+            return this.required;
+        }
+
+        /**
+         * @return  The index of the option's opening diamond or square bracket in the command string
+         */
+        public int getPosition() {
+            return this.position;
+        }
+    }
+}
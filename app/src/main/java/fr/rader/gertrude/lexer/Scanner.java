@@ -4,8 +4,9 @@ import fr.rader.gertrude.lexer.tokens.Token;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 
 /**
  * Read the command string token by token, where a token is either delimited by spaces, diamonds or square brackets
@@ -15,8 +16,8 @@ public final class Scanner {
     private final Tokenizer tokenizer;
 
     // A buffer of saved tokens.
-    // This is used when using lookahead
-    private final List<Token> savedTokens;
+    // This is used when using lookahead, the tokens are consumed from its head
+    private final Deque<Token> savedTokens;
 
     // The current token (set by nextToken())
     private Token currentToken;
@@ -27,7 +28,7 @@ public final class Scanner {
      * @param command   The command to read
      */
     public Scanner(@NotNull final String command) {
-        this.savedTokens = new ArrayList<>();
+        this.savedTokens = new ArrayDeque<>();
         this.tokenizer = new Tokenizer(command);
 
         this.currentToken = null;
@@ -49,7 +50,14 @@ public final class Scanner {
         }
 
         ensureLookahead(lookahead);
-        return this.savedTokens.get(lookahead - 1);
+
+        // the lookahead is rarely more than 1, walking the deque is cheaper than shifting a list on each token
+        Iterator<Token> iterator = this.savedTokens.iterator();
+        for (int i = 1; i < lookahead; i++) {
+            iterator.next();
+        }
+
+        return iterator.next();
     }
 
     /**
@@ -57,7 +65,7 @@ public final class Scanner {
      */
     private void ensureLookahead(int lookahead) {
         for (int i = this.savedTokens.size(); i < lookahead; i++) {
-            this.savedTokens.add(this.tokenizer.readToken());
+            this.savedTokens.addLast(this.tokenizer.readToken());
         }
     }
 
@@ -74,7 +82,7 @@ public final class Scanner {
      */
     public void nextToken() {
         if (!this.savedTokens.isEmpty()) {
-            this.currentToken = this.savedTokens.remove(0);
+            this.currentToken = this.savedTokens.pollFirst();
         } else {
             this.currentToken = this.tokenizer.readToken();
         }
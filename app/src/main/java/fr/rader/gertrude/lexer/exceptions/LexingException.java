@@ -1,5 +1,6 @@
 package fr.rader.gertrude.lexer.exceptions;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -7,6 +8,11 @@ import org.jetbrains.annotations.Nullable;
  */
 public class LexingException extends RuntimeException {
 
+    /**
+     * The index of the character the issue was found at, or -1 if it isn't known
+     */
+    private final int position;
+
     /**
      * Throw an exception when an issue has been found when lexing the command string
      *
@@ -14,5 +20,36 @@ public class LexingException extends RuntimeException {
      */
     public LexingException(@Nullable final String message) {
         super(message);
+        this.position = -1;
+    }
+
+    /**
+     * Throw an exception when an issue has been found at the given position of the command string.
+     * The message shows the command string with a caret under the position.
+     *
+     * @param message   The error message
+     * @param command   The command string
+     * @param position  The index of the character the issue was found at
+     */
+    public LexingException(@NotNull final String message, @NotNull final String command, int position) {
+        super(message + " at position " + position + "\n    " + command + "\n    " + caret(position));
+        this.position = position;
+    }
+
+    /**
+     * @return  The index of the character the issue was found at in the command string, or -1 if it isn't known
+     */
+    public int getPosition() {
+        return this.position;
+    }
+
+    @NotNull
+    private static String caret(int position) {
+        StringBuilder caret = new StringBuilder();
+        for (int i = 0; i < position; i++) {
+            caret.append(' ');
+        }
+
+        return caret.append('^').toString();
     }
 }
@@ -0,0 +1,121 @@
+package fr.rader.gertrude.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and durations recorded for one command method.
+ * Each invocation goes through phases that are timed separately: the command's lookup in the registry,
+ * the binding of its parameters, and the execution of the command method. The autocompletions are timed too.
+ *
+ * Like {@link Histogram}, recording doesn't allocate and doesn't lock.
+ */
+public final class CommandMetrics {
+
+    private final LongAdder invocations;
+    private final LongAdder errors;
+    private final LongAdder rejections;
+
+    private final LongAdder autoCompletions;
+    private final LongAdder autoCompleteErrors;
+
+    private final Histogram lookup;
+    private final Histogram binding;
+    private final Histogram execution;
+    private final Histogram autoComplete;
+
+    /**
+     * Create new metrics, with nothing recorded
+     */
+    public CommandMetrics() {
+        this.invocations = new LongAdder();
+        this.errors = new LongAdder();
+        this.rejections = new LongAdder();
+
+        this.autoCompletions = new LongAdder();
+        this.autoCompleteErrors = new LongAdder();
+
+        this.lookup = new Histogram();
+        this.binding = new Histogram();
+        this.execution = new Histogram();
+        this.autoComplete = new Histogram();
+    }
+
+    /**
+     * Record the time it took to find the command in the registry
+     *
+     * @param nanos The duration of the lookup, in nanoseconds
+     */
+    public void recordLookup(long nanos) {
+        this.lookup.record(nanos);
+    }
+
+    /**
+     * Record the time it took to bind the command's parameters
+     *
+     * @param nanos The duration of the binding, in nanoseconds
+     */
+    public void recordBinding(long nanos) {
+        this.binding.record(nanos);
+    }
+
+    /**
+     * Record an invocation of the command method
+     *
+     * @param nanos     The duration of the command method, in nanoseconds
+     * @param failed    true if the command method threw
+     */
+    public void recordExecution(long nanos, boolean failed) {
+        this.invocations.increment();
+        if (failed) {
+            this.errors.increment();
+        }
+
+        this.execution.record(nanos);
+    }
+
+    /**
+     * Record an invocation that was refused because too many invocations were running or waiting
+     */
+    public void recordRejection() {
+        this.rejections.increment();
+    }
+
+    /**
+     * Record a call to an autocompletion provider
+     *
+     * @param nanos     The duration of the provider, in nanoseconds
+     * @param failed    true if the provider threw
+     */
+    public void recordAutoComplete(long nanos, boolean failed) {
+        this.autoCompletions.increment();
+        if (failed) {
+            this.autoCompleteErrors.increment();
+        }
+
+        this.autoComplete.record(nanos);
+    }
+
+    /**
+     * Copy the current values of these metrics
+     *
+     * @param name  The name of the command, used by the exporters
+     * @return      The copied values
+     */
+    @NotNull
+    public CommandMetricsSnapshot snapshot(@NotNull final String name) {
+        return new CommandMetricsSnapshot(
+                name,
+                this.invocations.sum(),
+                this.errors.sum(),
+                this.rejections.sum(),
+                this.autoCompletions.sum(),
+                this.autoCompleteErrors.sum(),
+                this.lookup.snapshot(),
+                this.binding.snapshot(),
+                this.execution.snapshot(),
+                this.autoComplete.snapshot()
+        );
+    }
+}
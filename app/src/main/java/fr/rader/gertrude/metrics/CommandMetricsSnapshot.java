@@ -0,0 +1,154 @@
+package fr.rader.gertrude.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The values of a {@link CommandMetrics} at one point in time
+ */
+public final class CommandMetricsSnapshot {
+
+    private final String name;
+
+    private final long invocations;
+    private final long errors;
+    private final long rejections;
+
+    private final long autoCompletions;
+    private final long autoCompleteErrors;
+
+    private final HistogramSnapshot lookup;
+    private final HistogramSnapshot binding;
+    private final HistogramSnapshot execution;
+    private final HistogramSnapshot autoComplete;
+
+    CommandMetricsSnapshot(
+            @NotNull final String name,
+            long invocations,
+            long errors,
+            long rejections,
+            long autoCompletions,
+            long autoCompleteErrors,
+            @NotNull final HistogramSnapshot lookup,
+            @NotNull final HistogramSnapshot binding,
+            @NotNull final HistogramSnapshot execution,
+            @NotNull final HistogramSnapshot autoComplete
+    ) {
+        this.name = name;
+
+        this.invocations = invocations;
+        this.errors = errors;
+        this.rejections = rejections;
+
+        this.autoCompletions = autoCompletions;
+        this.autoCompleteErrors = autoCompleteErrors;
+
+        this.lookup = lookup;
+        this.binding = binding;
+        this.execution = execution;
+        this.autoComplete = autoComplete;
+    }
+
+    /**
+     * Return the full name of the command, like {@code "command group subcommand"}
+     *
+     * @return  The name of the command
+     */
+    @NotNull
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Return the number of times the command method was invoked
+     *
+     * @return  The number of invocations
+     */
+    public long getInvocations() {
+        return this.invocations;
+    }
+
+    /**
+     * Return the number of invocations where the command method threw
+     *
+     * @return  The number of failed invocations
+     */
+    public long getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Return the part of the invocations where the command method threw
+     *
+     * @return  The error rate, between 0 and 1
+     */
+    public double getErrorRate() {
+        return this.invocations == 0 ? 0 : (double) this.errors / this.invocations;
+    }
+
+    /**
+     * Return the number of invocations refused because the command's bulkhead was full
+     *
+     * @return  The number of rejected invocations
+     */
+    public long getRejections() {
+        return this.rejections;
+    }
+
+    /**
+     * Return the number of times an autocompletion provider of the command was called
+     *
+     * @return  The number of autocompletions
+     */
+    public long getAutoCompletions() {
+        return this.autoCompletions;
+    }
+
+    /**
+     * Return the number of autocompletions where the provider threw
+     *
+     * @return  The number of failed autocompletions
+     */
+    public long getAutoCompleteErrors() {
+        return this.autoCompleteErrors;
+    }
+
+    /**
+     * Return the durations of the command's lookups in the registry
+     *
+     * @return  The lookup durations
+     */
+    @NotNull
+    public HistogramSnapshot getLookup() {
+        return this.lookup;
+    }
+
+    /**
+     * Return the durations of the bindings of the command's parameters
+     *
+     * @return  The binding durations
+     */
+    @NotNull
+    public HistogramSnapshot getBinding() {
+        return this.binding;
+    }
+
+    /**
+     * Return the durations of the command method
+     *
+     * @return  The execution durations
+     */
+    @NotNull
+    public HistogramSnapshot getExecution() {
+        return this.execution;
+    }
+
+    /**
+     * Return the durations of the autocompletion providers
+     *
+     * @return  The autocompletion durations
+     */
+    @NotNull
+    public HistogramSnapshot getAutoComplete() {
+        return this.autoComplete;
+    }
+}
@@ -0,0 +1,121 @@
+package fr.rader.gertrude.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with fixed buckets.
+ * Each power of two is split into 4 buckets, so a recorded duration is known within 25%,
+ * from 1 nanosecond to about 36 minutes. Longer durations go to the last bucket.
+ *
+ * Recording a duration doesn't allocate and doesn't lock: each bucket is a {@link LongAdder},
+ * so the threads recording at the same time don't fight over the same counter.
+ */
+public final class Histogram {
+
+    // each power of two is split into 2^SUB_BITS buckets
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // the highest power of two with its own buckets, 2^40 nanoseconds is about 18 minutes
+    private static final int MAX_EXPONENT = 40;
+
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Create a new empty histogram
+     */
+    public Histogram() {
+        this.buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Record a duration
+     *
+     * @param nanos The duration in nanoseconds, negative durations are recorded as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        this.buckets[bucketOf(nanos)].increment();
+        this.count.increment();
+        this.sum.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /**
+     * Copy the current counts of this histogram.
+     * The histogram keeps recording while it's copied, so the counts can be a few recordings apart.
+     *
+     * @return  The copied counts
+     */
+    @NotNull
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets[i].sum();
+        }
+
+        return new HistogramSnapshot(counts, this.count.sum(), this.sum.sum(), this.max.get());
+    }
+
+    /**
+     * Return the bucket of the given duration
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+
+        // the SUB_BITS bits after the highest one pick the bucket inside the power of two
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Return the smallest duration of the given bucket
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int index = bucket - SUB_BUCKETS;
+        int shift = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+
+    /**
+     * Return the largest duration of the given bucket
+     */
+    static long upperBound(int bucket) {
+        if (bucket == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return lowerBound(bucket + 1) - 1;
+    }
+}
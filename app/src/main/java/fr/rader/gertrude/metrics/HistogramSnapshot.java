@@ -0,0 +1,92 @@
+package fr.rader.gertrude.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The counts of a {@link Histogram} at one point in time
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(@NotNull final long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Return the number of recorded durations
+     *
+     * @return  The number of recorded durations
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Return the sum of the recorded durations
+     *
+     * @return  The sum of the recorded durations, in nanoseconds
+     */
+    public long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * Return the longest recorded duration
+     *
+     * @return  The longest recorded duration, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Return the average recorded duration
+     *
+     * @return  The average duration, in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Return the duration under which the given part of the recorded durations are.
+     * The duration is the upper bound of the bucket holding it, so it's at most 25% above the real one.
+     *
+     * @param percentile    The percentile, between 0 and 100
+     * @return              The duration, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        long total = 0;
+        for (long count : this.counts) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        // the rank of the duration we're looking for, starting at 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(Histogram.upperBound(i), this.max);
+            }
+        }
+
+        return this.max;
+    }
+}
@@ -0,0 +1,22 @@
+package fr.rader.gertrude.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sends the metrics of the commands somewhere, like a log file or a monitoring system.
+ * Implement this to plug your own backend, {@link TextMetricsExporter} writes them as plain text.
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+
+    /**
+     * Export the given metrics
+     *
+     * @param metrics       The metrics of each command
+     * @throws IOException  If the metrics couldn't be written
+     */
+    void export(@NotNull final List<CommandMetricsSnapshot> metrics) throws IOException;
+}
@@ -0,0 +1,92 @@
+package fr.rader.gertrude.metrics;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A {@link MetricsExporter} writing the metrics as plain text, one value per line.
+ * The lines follow Prometheus' text format, so the output can be scraped as is:
+ * <pre>
+ *     gertrude_command_invocations_total{command="ping"} 42
+ *     gertrude_command_duration_seconds{command="ping",phase="execution",quantile="0.99"} 0.000262144
+ * </pre>
+ */
+public final class TextMetricsExporter implements MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Appendable out;
+
+    /**
+     * Create a new exporter writing to the given output
+     *
+     * @param out   Where to write the metrics, it's flushed after each export if it's {@link Flushable}
+     */
+    public TextMetricsExporter(@NotNull final Appendable out) {
+        Checks.notNull(out, "out");
+
+        this.out = out;
+    }
+
+    @Override
+    public void export(@NotNull final List<CommandMetricsSnapshot> metrics) throws IOException {
+        Checks.notNull(metrics, "metrics");
+
+        for (CommandMetricsSnapshot command : metrics) {
+            String label = "command=\"" + escape(command.getName()) + "\"";
+
+            counter("gertrude_command_invocations_total", label, command.getInvocations());
+            counter("gertrude_command_errors_total", label, command.getErrors());
+            counter("gertrude_command_rejections_total", label, command.getRejections());
+            counter("gertrude_command_autocompletions_total", label, command.getAutoCompletions());
+            counter("gertrude_command_autocomplete_errors_total", label, command.getAutoCompleteErrors());
+
+            durations(label, "lookup", command.getLookup());
+            durations(label, "binding", command.getBinding());
+            durations(label, "execution", command.getExecution());
+            durations(label, "autocomplete", command.getAutoComplete());
+        }
+
+        if (this.out instanceof Flushable) {
+            ((Flushable) this.out).flush();
+        }
+    }
+
+    private void counter(@NotNull final String name, @NotNull final String label, long value) throws IOException {
+        this.out.append(name).append('{').append(label).append("} ").append(Long.toString(value)).append('\n');
+    }
+
+    private void durations(@NotNull final String label, @NotNull final String phase, @NotNull final HistogramSnapshot histogram) throws IOException {
+        // nothing to show for the phases that never happened, like the autocompletion of a command without autocompleted options
+        if (histogram.getCount() == 0) {
+            return;
+        }
+
+        String labels = label + ",phase=\"" + phase + "\"";
+
+        for (double quantile : QUANTILES) {
+            this.out.append("gertrude_command_duration_seconds{").append(labels)
+                    .append(",quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                    .append(seconds(histogram.getPercentile(quantile * 100))).append('\n');
+        }
+
+        this.out.append("gertrude_command_duration_seconds_max{").append(labels).append("} ").append(seconds(histogram.getMax())).append('\n');
+        this.out.append("gertrude_command_duration_seconds_sum{").append(labels).append("} ").append(seconds(histogram.getSum())).append('\n');
+        this.out.append("gertrude_command_duration_seconds_count{").append(labels).append("} ").append(Long.toString(histogram.getCount())).append('\n');
+    }
+
+    @NotNull
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    @NotNull
+    private static String escape(@NotNull final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,245 @@
+package fr.rader.gertrude.recording;
+
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the interactions written by an {@link InteractionRecorder}, in the order they were recorded
+ */
+public final class InteractionReader implements Closeable {
+
+    private final Path file;
+    private final CountingInputStream counter;
+    private final DataInputStream input;
+
+    private InteractionReader(@NotNull final Path file, @NotNull final CountingInputStream counter) {
+        this.file = file;
+        this.counter = counter;
+        this.input = new DataInputStream(counter);
+    }
+
+    /**
+     * Open the given recording
+     *
+     * @param file  The recording
+     * @return      The reader, positioned on the first record
+     * @throws IOException  If the file cannot be read, or isn't a recording this version of Gertrude can read
+     */
+    @NotNull
+    public static InteractionReader open(@NotNull final Path file) throws IOException {
+        Checks.notNull(file, "file");
+
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        DataInputStream input = new DataInputStream(counter);
+
+        try {
+            byte[] magic = new byte[InteractionRecorder.MAGIC.length];
+            input.readFully(magic);
+
+            if (!Arrays.equals(magic, InteractionRecorder.MAGIC)) {
+                throw new IOException(file + " isn't an interaction recording");
+            }
+
+            int version = input.readUnsignedByte();
+            if (version != InteractionRecorder.VERSION) {
+                throw new IOException(file + " is a recording of version " + version + ", expected version " + InteractionRecorder.VERSION);
+            }
+        } catch (IOException e) {
+            input.close();
+
+            if (e instanceof EOFException) {
+                throw new IOException(file + " isn't an interaction recording");
+            }
+
+            throw e;
+        }
+
+        return new InteractionReader(file, counter);
+    }
+
+    /**
+     * Read the whole recording, and return the length of its header and its complete records.
+     * The bytes after this length are a record cut short, they must be removed before appending to the recording.
+     *
+     * @param file  The recording
+     * @return      The number of bytes up to the end of the last complete record
+     * @throws IOException  If the file cannot be read, or isn't a recording this version of Gertrude can read
+     */
+    static long completeLength(@NotNull final Path file) throws IOException {
+        try (InteractionReader reader = open(file)) {
+            long length = reader.counter.count;
+            while (reader.read() != null) {
+                length = reader.counter.count;
+            }
+
+            return length;
+        }
+    }
+
+    /**
+     * Read the next interaction.
+     * A record cut short, like the last one of a bot that crashed, is treated as the end of the recording.
+     *
+     * @return  The next interaction, or {@code null} at the end of the recording
+     * @throws IOException  If the file cannot be read, or is corrupted
+     */
+    @Nullable
+    public InteractionRecord read() throws IOException {
+        int kindId = this.input.read();
+        if (kindId == -1) {
+            return null;
+        }
+
+        InteractionRecord.Kind kind = InteractionRecord.Kind.fromId(kindId);
+        if (kind == null) {
+            throw new IOException("Unknown interaction kind " + kindId + " in " + this.file);
+        }
+
+        try {
+            long timestamp = readVarLong();
+            long guildId = readVarLong();
+            long userId = readVarLong();
+            long commandId = readVarLong();
+            String commandPath = readString();
+
+            int optionCount = (int) readVarLong();
+            List<InteractionRecord.Option> options = new ArrayList<>(optionCount);
+            for (int i = 0; i < optionCount; i++) {
+                options.add(readOption());
+            }
+
+            return new InteractionRecord(kind, timestamp, guildId, userId, commandId, commandPath, Collections.unmodifiableList(options));
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private InteractionRecord.Option readOption() throws IOException {
+        String name = readString();
+
+        int typeByte = this.input.readUnsignedByte();
+        boolean focused = (typeByte & InteractionRecorder.FOCUSED_FLAG) != 0;
+        OptionType type = OptionType.fromKey(typeByte & ~InteractionRecorder.FOCUSED_FLAG);
+
+        if (focused) {
+            return new InteractionRecord.Option(name, type, readString(), true);
+        }
+
+        Object value;
+        switch (type) {
+            case STRING:
+                value = readString();
+                break;
+            case INTEGER:
+                long zigzag = readVarLong();
+                value = (zigzag >>> 1) ^ -(zigzag & 1);
+                break;
+            case NUMBER:
+                value = Double.longBitsToDouble(this.input.readLong());
+                break;
+            case BOOLEAN:
+                value = this.input.readUnsignedByte() != 0;
+                break;
+            case USER:
+            case CHANNEL:
+            case ROLE:
+            case MENTIONABLE:
+            case ATTACHMENT:
+                value = readVarLong();
+                break;
+            default:
+                throw new IOException("Unknown option type " + typeByte + " in " + this.file);
+        }
+
+        return new InteractionRecord.Option(name, type, value, false);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = this.input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed var-long in " + this.file);
+    }
+
+    @NotNull
+    private String readString() throws IOException {
+        long length = readVarLong();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Malformed string in " + this.file);
+        }
+
+        byte[] bytes = new byte[(int) length];
+        this.input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    /**
+     * Counts the bytes read from the file, to know where the last complete record ends
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(@NotNull final InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                this.count++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(@NotNull final byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                this.count += read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package fr.rader.gertrude.recording;
+
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An interaction read back from a recording
+ *
+ * @see InteractionRecorder
+ * @see InteractionReader
+ */
+public final class InteractionRecord {
+
+    private final Kind kind;
+    private final long timestamp;
+
+    private final long guildId;
+    private final long userId;
+    private final long commandId;
+    private final String commandPath;
+
+    private final List<Option> options;
+
+    InteractionRecord(
+            @NotNull final Kind kind,
+            long timestamp,
+            long guildId,
+            long userId,
+            long commandId,
+            @NotNull final String commandPath,
+            @NotNull final List<Option> options
+    ) {
+        this.kind = kind;
+        this.timestamp = timestamp;
+
+        this.guildId = guildId;
+        this.userId = userId;
+        this.commandId = commandId;
+        this.commandPath = commandPath;
+
+        this.options = options;
+    }
+
+    /**
+     * Return whether the interaction is a slash command or an autocompletion
+     *
+     * @return The interaction's kind
+     */
+    @NotNull
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Return the moment the interaction was received
+     *
+     * @return The number of milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Return the id of the guild the interaction was sent in
+     *
+     * @return The guild's id, or 0 if it wasn't sent in a guild
+     */
+    public long getGuildId() {
+        return this.guildId;
+    }
+
+    /**
+     * Return the id of the user who sent the interaction
+     *
+     * @return The user's id
+     */
+    public long getUserId() {
+        return this.userId;
+    }
+
+    /**
+     * Return the id Discord gave to the command
+     *
+     * @return The command's id
+     */
+    public long getCommandId() {
+        return this.commandId;
+    }
+
+    /**
+     * Return the command's full name, like "name subcommandGroup subcommand"
+     *
+     * @return The command's path
+     */
+    @NotNull
+    public String getCommandPath() {
+        return this.commandPath;
+    }
+
+    /**
+     * Return the options of the interaction, in the order Discord sent them
+     *
+     * @return The options
+     */
+    @NotNull
+    public List<Option> getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Return the option being autocompleted
+     *
+     * @return The focused option, or {@code null} for a slash command
+     */
+    @Nullable
+    public Option getFocusedOption() {
+        for (Option option : this.options) {
+            if (option.isFocused()) {
+                return option;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The kinds of interactions recorded
+     */
+    public enum Kind {
+        /**
+         * A slash command sent by a user
+         */
+        SLASH_COMMAND(1),
+
+        /**
+         * An option being typed by a user
+         */
+        AUTOCOMPLETE(2);
+
+        private final int id;
+
+        Kind(int id) {
+            this.id = id;
+        }
+
+        int getId() {
+            return this.id;
+        }
+
+        @Nullable
+        static Kind fromId(int id) {
+            for (Kind kind : values()) {
+                if (kind.id == id) {
+                    return kind;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * An option of a recorded interaction.
+     * The value is a {@link String} for string options and the focused option, a {@link Long} for integers
+     * and for the ids of users, channels, roles, mentionables and attachments, a {@link Double} for numbers
+     * and a {@link Boolean} for booleans.
+     */
+    public static final class Option {
+
+        private final String name;
+        private final OptionType type;
+        private final Object value;
+        private final boolean focused;
+
+        Option(@NotNull final String name, @NotNull final OptionType type, @NotNull final Object value, boolean focused) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+            this.focused = focused;
+        }
+
+        /**
+         * Return the option's name
+         *
+         * @return The option's name
+         */
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Return the option's type
+         *
+         * @return The option's type
+         */
+        @NotNull
+        public OptionType getType() {
+            return this.type;
+        }
+
+        /**
+         * Return the option's value
+         *
+         * @return The option's value
+         */
+        @NotNull
+        public Object getValue() {
+            return this.value;
+        }
+
+        /**
+         * Check if the option was being autocompleted
+         *
+         * @return true if the option is the focused option of an autocompletion
+         */
+        public boolean isFocused() {
+            return this.focused;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package fr.rader.gertrude.recording;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
+import net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the interactions received by Gertrude's listeners to a file, so they can be replayed later.
+ *
+ * The file starts with the "GRTR" magic number and a version byte, followed by the records.
+ * Each record is:
+ * <ul>
+ *     <li>the kind of interaction, on one byte</li>
+ *     <li>the timestamp in milliseconds, the guild id (0 outside guilds), the user id and the command id, as var-longs</li>
+ *     <li>the command's full name</li>
+ *     <li>the number of options as a var-int, then each option's name, its type on one byte,
+ *     with the highest bit set if it's focused, and its value</li>
+ * </ul>
+ * Strings are written as a var-int length followed by their UTF-8 bytes. Integers are zigzag encoded var-longs,
+ * numbers are 8 bytes, booleans are one byte, and users, channels, roles, mentionables and attachments are their id.
+ * The value of the focused option is always a string, since it's still being typed.
+ *
+ * The records are buffered, {@link #close()} the recorder when the bot stops or the last ones are lost.
+ * When the bot crashed while writing a record, the record cut short is removed when the recording is opened again,
+ * so the records appended afterwards can still be read.
+ * If the file cannot be written, the recording stops.
+ * The options' values are recorded as they are typed, this file must be kept as private as the messages of your users.
+ *
+ * @see InteractionReader
+ */
+public final class InteractionRecorder implements Closeable, Flushable {
+
+    static final byte[] MAGIC = {'G', 'R', 'T', 'R'};
+    static final int VERSION = 1;
+    static final int FOCUSED_FLAG = 0x80;
+
+    private final Path file;
+    private final OutputStream output;
+
+    // reused by each record, only touched while holding the lock
+    private final ByteArrayOutputStream buffer;
+    private final ByteArrayOutputStream optionsBuffer;
+    private boolean closed;
+
+    private InteractionRecorder(@NotNull final Path file, @NotNull final OutputStream output) {
+        this.file = file;
+        this.output = output;
+        this.buffer = new ByteArrayOutputStream(256);
+        this.optionsBuffer = new ByteArrayOutputStream(128);
+    }
+
+    /**
+     * Open a recorder appending to the given file. The file is created if it doesn't exist.
+     * An existing recording is read to its last complete record, and anything after it is removed.
+     *
+     * @param file  The file to append the interactions to
+     * @return      The recorder
+     * @throws IOException  If the file cannot be opened, or isn't a recording Gertrude can append to
+     */
+    @NotNull
+    public static InteractionRecorder open(@NotNull final Path file) throws IOException {
+        Checks.notNull(file, "file");
+
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        if (!empty) {
+            // the records have no length, the reader would read the ones appended after a record cut short as its end
+            long length = InteractionReader.completeLength(file);
+            if (length < Files.size(file)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+            }
+        }
+
+        OutputStream output = new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                1 << 16
+        );
+
+        if (empty) {
+            output.write(MAGIC);
+            output.write(VERSION);
+        }
+
+        return new InteractionRecorder(file, output);
+    }
+
+    /**
+     * Append a slash command to the recording
+     *
+     * @param event The slash command's event
+     */
+    public void record(@NotNull final SlashCommandInteractionEvent event) {
+        record(InteractionRecord.Kind.SLASH_COMMAND, event, event, null);
+    }
+
+    /**
+     * Append an autocompletion to the recording
+     *
+     * @param event The autocompletion's event
+     */
+    public void record(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        record(InteractionRecord.Kind.AUTOCOMPLETE, event, event, event.getFocusedOption());
+    }
+
+    private void record(
+            @NotNull final InteractionRecord.Kind kind,
+            @NotNull final GenericInteractionCreateEvent event,
+            @NotNull final CommandInteractionPayload payload,
+            @Nullable final AutoCompleteQuery focusedOption
+    ) {
+        Guild guild = event.getGuild();
+
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            try {
+                this.buffer.reset();
+                this.buffer.write(kind.getId());
+
+                writeVarLong(this.buffer, System.currentTimeMillis());
+                writeVarLong(this.buffer, guild == null ? 0 : guild.getIdLong());
+                writeVarLong(this.buffer, event.getUser().getIdLong());
+                writeVarLong(this.buffer, payload.getCommandIdLong());
+                writeString(this.buffer, payload.getFullCommandName());
+
+                writeOptions(payload, focusedOption);
+
+                this.buffer.writeTo(this.output);
+            } catch (IOException e) {
+                System.err.println("Cannot record the interactions in " + this.file + ", the recording stopped: " + e.getMessage());
+                closeQuietly();
+            } catch (RuntimeException e) {
+                // only this interaction is lost
+                System.err.println("Cannot record interaction '" + payload.getFullCommandName() + "': " + e);
+            }
+        }
+    }
+
+    private void writeOptions(@NotNull final CommandInteractionPayload payload, @Nullable final AutoCompleteQuery focusedOption) throws IOException {
+        int count = 0;
+        ByteArrayOutputStream options = this.optionsBuffer;
+        options.reset();
+
+        for (OptionMapping option : payload.getOptions()) {
+            if (focusedOption != null && option.getName().equals(focusedOption.getName())) {
+                writeString(options, option.getName());
+                options.write(focusedOption.getType().getKey() | FOCUSED_FLAG);
+                writeString(options, focusedOption.getValue());
+                count++;
+                continue;
+            }
+
+            if (writeOption(options, option)) {
+                count++;
+            }
+        }
+
+        writeVarLong(this.buffer, count);
+        options.writeTo(this.buffer);
+    }
+
+    /**
+     * Write an option's name, type and value
+     *
+     * @return false if the option's type cannot be recorded and nothing was written
+     */
+    private static boolean writeOption(@NotNull final ByteArrayOutputStream output, @NotNull final OptionMapping option) {
+        OptionType type = option.getType();
+        // the values are read as strings, JDA's getters refuse some of the types
+        String value = option.getAsString();
+
+        switch (type) {
+            case STRING:
+            case INTEGER:
+            case NUMBER:
+            case BOOLEAN:
+            case USER:
+            case CHANNEL:
+            case ROLE:
+            case MENTIONABLE:
+            case ATTACHMENT:
+                break;
+            default:
+                return false;
+        }
+
+        writeString(output, option.getName());
+        output.write(type.getKey());
+
+        switch (type) {
+            case STRING:
+                writeString(output, value);
+                break;
+            case INTEGER:
+                long integer = Long.parseLong(value);
+                writeVarLong(output, (integer << 1) ^ (integer >> 63));
+                break;
+            case NUMBER:
+                long bits = Double.doubleToLongBits(Double.parseDouble(value));
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    output.write((int) (bits >>> shift));
+                }
+                break;
+            case BOOLEAN:
+                output.write(Boolean.parseBoolean(value) ? 1 : 0);
+                break;
+            default:
+                writeVarLong(output, Long.parseUnsignedLong(value));
+                break;
+        }
+
+        return true;
+    }
+
+    private static void writeVarLong(@NotNull final ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.write((int) value);
+    }
+
+    private static void writeString(@NotNull final ByteArrayOutputStream output, @NotNull final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarLong(output, bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Write the buffered records to the file
+     *
+     * @throws IOException  If the file cannot be written
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!this.closed) {
+            this.output.flush();
+        }
+    }
+
+    /**
+     * Write the buffered records to the file and stop recording
+     *
+     * @throws IOException  If the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            this.output.close();
+        }
+    }
+
+    private void closeQuietly() {
+        this.closed = true;
+
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            // the recording already failed
+        }
+    }
+}
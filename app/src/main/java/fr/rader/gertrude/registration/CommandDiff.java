@@ -0,0 +1,119 @@
+package fr.rader.gertrude.registration;
+
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The changes needed to turn the commands registered to Discord into the wanted commands.
+ * Commands are matched by name: a wanted command that isn't registered, or whose registered version differs,
+ * has to be upserted, which keeps its id if it exists. A registered command that isn't wanted anymore has to be deleted.
+ * Like {@code updateCommands()}, this deletes the registered user and message commands, as Gertrude only creates slash commands.
+ */
+public final class CommandDiff {
+
+    private final List<Command> unchanged;
+    private final List<SlashCommandData> upserts;
+    private final List<Command> deletions;
+
+    private CommandDiff(
+            @NotNull final List<Command> unchanged,
+            @NotNull final List<SlashCommandData> upserts,
+            @NotNull final List<Command> deletions
+    ) {
+        this.unchanged = Collections.unmodifiableList(unchanged);
+        this.upserts = Collections.unmodifiableList(upserts);
+        this.deletions = Collections.unmodifiableList(deletions);
+    }
+
+    /**
+     * Compare the registered commands with the wanted ones
+     *
+     * @param registered    The commands registered to Discord
+     * @param wanted        The commands that should be registered
+     * @return              The changes to send to Discord
+     */
+    @NotNull
+    public static CommandDiff of(@NotNull final Collection<? extends Command> registered, @NotNull final Collection<? extends SlashCommandData> wanted) {
+        Checks.noneNull(registered, "registered");
+        Checks.noneNull(wanted, "wanted");
+
+        Map<String, Command> registeredByName = new HashMap<>();
+        List<Command> deletions = new ArrayList<>();
+
+        for (Command command : registered) {
+            if (command.getType() == Command.Type.SLASH) {
+                registeredByName.put(command.getName(), command);
+            } else {
+                deletions.add(command);
+            }
+        }
+
+        List<Command> unchanged = new ArrayList<>();
+        List<SlashCommandData> upserts = new ArrayList<>();
+
+        for (SlashCommandData command : wanted) {
+            Command current = registeredByName.remove(command.getName());
+
+            // both sides go through the same JSON as the fingerprint,
+            // so the fields Discord fills with their default values compare equal
+            if (current != null && CommandFingerprint.canonicalJson(SlashCommandData.fromCommand(current)).equals(CommandFingerprint.canonicalJson(command))) {
+                unchanged.add(current);
+            } else {
+                upserts.add(command);
+            }
+        }
+
+        // what's left isn't wanted anymore
+        deletions.addAll(registeredByName.values());
+
+        return new CommandDiff(unchanged, upserts, deletions);
+    }
+
+    /**
+     * Return the registered commands that don't need to be sent again
+     *
+     * @return  The unchanged commands
+     */
+    @NotNull
+    public List<Command> getUnchanged() {
+        return this.unchanged;
+    }
+
+    /**
+     * Return the commands to create, or to replace if a command with the same name is registered
+     *
+     * @return  The commands to upsert
+     */
+    @NotNull
+    public List<SlashCommandData> getUpserts() {
+        return this.upserts;
+    }
+
+    /**
+     * Return the registered commands to delete
+     *
+     * @return  The commands to delete
+     */
+    @NotNull
+    public List<Command> getDeletions() {
+        return this.deletions;
+    }
+
+    /**
+     * Return true if the registered commands are already the wanted ones
+     *
+     * @return  true if there is nothing to send, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.upserts.isEmpty() && this.deletions.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CommandDiff{unchanged=" + this.unchanged.size() + ", upserts=" + this.upserts.size() + ", deletions=" + this.deletions.size() + "}";
+    }
+}
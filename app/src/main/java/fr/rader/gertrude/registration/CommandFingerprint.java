@@ -0,0 +1,164 @@
+package fr.rader.gertrude.registration;
+
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Util class to compare command trees without sending them to Discord.
+ * A command is turned into canonical JSON: the same JSON Discord receives, with the keys of every object sorted,
+ * so two commands built the same way always give the same string.
+ */
+public final class CommandFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // the keys are sorted alphabetically, except the name which comes first,
+    // so the canonical JSON of commands and options can be sorted by name
+    private static final Comparator<String> NAME_FIRST = (a, b) -> {
+        if (a.equals(b)) {
+            return 0;
+        }
+
+        if (a.equals("name")) {
+            return -1;
+        }
+
+        if (b.equals("name")) {
+            return 1;
+        }
+
+        return a.compareTo(b);
+    };
+
+    // private constructor, we don't want an instance of this class
+    private CommandFingerprint() {
+    }
+
+    /**
+     * Compute the fingerprint of the given commands.
+     * The order of the commands doesn't matter, but the order of their options does, like for Discord.
+     *
+     * @param commands  The commands to compute the fingerprint of
+     * @return          The SHA-256 hash of the commands' canonical JSON, as a hex string
+     */
+    @NotNull
+    public static String of(@NotNull final Collection<? extends CommandData> commands) {
+        Checks.notNull(commands, "commands");
+
+        List<String> jsons = new ArrayList<>();
+        for (CommandData command : commands) {
+            jsons.add(canonicalJson(command));
+        }
+
+        // commands are identified by their name, which starts their canonical JSON
+        Collections.sort(jsons);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java implementation has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        for (String json : jsons) {
+            digest.update(json.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+
+        return new String(hex);
+    }
+
+    /**
+     * Turn the given command into canonical JSON
+     *
+     * @param command   The command
+     * @return          The command's JSON, with sorted keys
+     */
+    @NotNull
+    public static String canonicalJson(@NotNull final CommandData command) {
+        Checks.notNull(command, "command");
+
+        // going through the JSON bytes turns the nested data objects and arrays into plain maps and lists
+        Map<String, Object> data = DataObject.fromJson(command.toData().toJson()).toMap();
+
+        StringBuilder builder = new StringBuilder();
+        write(builder, data);
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(@NotNull final StringBuilder builder, final Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>(NAME_FIRST);
+            sorted.putAll((Map<String, Object>) value);
+
+            builder.append('{');
+
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+
+                first = false;
+                writeString(builder, entry.getKey());
+                builder.append(':');
+                write(builder, entry.getValue());
+            }
+
+            builder.append('}');
+        } else if (value instanceof Collection) {
+            builder.append('[');
+
+            boolean first = true;
+            for (Object element : (Collection<Object>) value) {
+                if (!first) {
+                    builder.append(',');
+                }
+
+                first = false;
+                write(builder, element);
+            }
+
+            builder.append(']');
+        } else if (value instanceof String) {
+            writeString(builder, (String) value);
+        } else {
+            // numbers, booleans and null
+            builder.append(value);
+        }
+    }
+
+    private static void writeString(@NotNull final StringBuilder builder, @NotNull final String value) {
+        builder.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        builder.append('"');
+    }
+}
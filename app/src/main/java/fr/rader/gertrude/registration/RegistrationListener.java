@@ -0,0 +1,54 @@
+package fr.rader.gertrude.registration;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gets notified of the progress of a command registration.
+ * The guild is {@code null} for the global commands.
+ *
+ * The methods are called from JDA's threads or Gertrude's timer, so they should return quickly.
+ */
+public interface RegistrationListener {
+
+    /**
+     * Called when the commands were sent to Discord
+     *
+     * @param guild     The guild the commands were registered to, or {@code null} for the global commands
+     * @param commands  The commands Discord sent back
+     */
+    default void onRegistered(@Nullable final Guild guild, @NotNull final List<Command> commands) {
+    }
+
+    /**
+     * Called when the commands didn't change since they were last registered, so they weren't sent again
+     *
+     * @param guild         The guild the commands are registered to, or {@code null} for the global commands
+     * @param commandIds    The ids of the registered commands by name, usually read from the {@link RegistrationState}
+     */
+    default void onUnchanged(@Nullable final Guild guild, @NotNull final Map<String, Long> commandIds) {
+    }
+
+    /**
+     * Called when the commands couldn't be registered, after all the attempts failed
+     *
+     * @param guild     The guild the commands couldn't be registered to, or {@code null} for the global commands
+     * @param failure   Why the last attempt failed
+     */
+    default void onFailed(@Nullable final Guild guild, @NotNull final Throwable failure) {
+    }
+
+    /**
+     * Called each time the registration to a guild is done, successful or not
+     *
+     * @param done  The number of guilds the registration is done for
+     * @param total The number of guilds to register the commands to
+     */
+    default void onProgress(int done, int total) {
+    }
+}
@@ -0,0 +1,64 @@
+package fr.rader.gertrude.registration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome of a command registration, once it's done for all the guilds
+ */
+public final class RegistrationResult {
+
+    private final int registered;
+    private final int unchanged;
+    private final Map<Long, Throwable> failures;
+
+    RegistrationResult(int registered, int unchanged, @NotNull final Map<Long, Throwable> failures) {
+        this.registered = registered;
+        this.unchanged = unchanged;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Return the number of guilds the commands were sent to
+     *
+     * @return  The number of registered guilds
+     */
+    public int getRegistered() {
+        return this.registered;
+    }
+
+    /**
+     * Return the number of guilds whose commands didn't change, and weren't sent again
+     *
+     * @return  The number of unchanged guilds
+     */
+    public int getUnchanged() {
+        return this.unchanged;
+    }
+
+    /**
+     * Return why the registration failed, by guild id. The global commands use the id 0.
+     *
+     * @return  The failures, by guild id
+     */
+    @NotNull
+    public Map<Long, Throwable> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * Return true if the commands were registered to all the guilds
+     *
+     * @return  true if nothing failed, false otherwise
+     */
+    public boolean isSuccessful() {
+        return this.failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RegistrationResult{registered=" + this.registered + ", unchanged=" + this.unchanged + ", failed=" + this.failures.size() + "}";
+    }
+}
@@ -0,0 +1,469 @@
+package fr.rader.gertrude.registration;
+
+import fr.rader.gertrude.commands.CommandRegistry;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.internal.requests.CompletedRestAction;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Sends the commands to Discord, a few guilds at a time.
+ * Sending the commands of thousands of guilds at once would flood JDA's request queue and hit Discord's rate limits,
+ * so only a fixed number of registrations run at the same time, the others wait in a queue.
+ *
+ * A failed registration is attempted again after a delay that doubles with each attempt,
+ * unless Discord refused the commands (like a missing access to the guild), as it would refuse them again.
+ * If a {@link RegistrationState} is given, the commands that didn't change since they were last registered aren't sent again,
+ * and their ids are read from the state instead of being retrieved from Discord.
+ *
+ * By default, the whole list of commands is sent to Discord, which replaces the registered ones.
+ * In incremental mode, the registered commands are retrieved first and compared with a {@link CommandDiff},
+ * and only the commands that changed are sent. The unchanged commands keep their id.
+ */
+public final class RegistrationScheduler {
+
+    private final CommandRegistry registry;
+    private final RegistrationState state;
+
+    private final int parallelism;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final boolean incremental;
+
+    private final ScheduledExecutorService timer;
+    private final List<RegistrationListener> listeners;
+
+    private final Queue<Job> pending;
+    private final AtomicInteger running;
+
+    /**
+     * Create a new registration scheduler
+     *
+     * @param registry      The registry to give the registered commands' ids to
+     * @param state         The fingerprints of the registered commands, or {@code null} to always send the commands
+     * @param parallelism   The maximum number of registrations running at the same time
+     * @param maxAttempts   The maximum number of attempts of each registration
+     * @param backoff       The delay before the second attempt, it doubles with each attempt
+     * @param unit          The unit of the delay
+     * @param incremental   true to only send the commands that changed, false to send all of them
+     * @param timer         The executor the attempts are delayed with
+     * @param listeners     The listeners to notify of the progress of the registrations
+     */
+    public RegistrationScheduler(
+            @NotNull final CommandRegistry registry,
+            @Nullable final RegistrationState state,
+            int parallelism,
+            int maxAttempts,
+            long backoff,
+            @NotNull final TimeUnit unit,
+            boolean incremental,
+            @NotNull final ScheduledExecutorService timer,
+            @NotNull final List<RegistrationListener> listeners
+    ) {
+        Checks.notNull(registry, "registry");
+        Checks.positive(parallelism, "parallelism");
+        Checks.positive(maxAttempts, "maxAttempts");
+        Checks.notNegative(backoff, "backoff");
+        Checks.notNull(unit, "unit");
+        Checks.notNull(timer, "timer");
+        Checks.noneNull(listeners, "listeners");
+
+        this.registry = registry;
+        this.state = state;
+
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = unit.toNanos(backoff);
+        this.incremental = incremental;
+
+        this.timer = timer;
+        this.listeners = new CopyOnWriteArrayList<>(listeners);
+
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.running = new AtomicInteger();
+    }
+
+    /**
+     * Register the given commands as global commands
+     *
+     * @param jda       The JDA instance to register the commands with
+     * @param commands  The commands to register
+     * @return          A future completed once the registration is done
+     */
+    @NotNull
+    public CompletableFuture<RegistrationResult> registerGlobal(@NotNull final JDA jda, @NotNull final List<SlashCommandData> commands) {
+        Checks.notNull(jda, "jda");
+        Checks.noneNull(commands, "commands");
+
+        return schedule(Collections.singletonList(new Target(jda, null)), commands);
+    }
+
+    /**
+     * Register the given commands to each of the given guilds
+     *
+     * @param guilds    The guilds to register the commands to
+     * @param commands  The commands to register
+     * @return          A future completed once the registration is done for all the guilds
+     */
+    @NotNull
+    public CompletableFuture<RegistrationResult> registerGuilds(@NotNull final Collection<? extends Guild> guilds, @NotNull final List<SlashCommandData> commands) {
+        Checks.noneNull(guilds, "guilds");
+        Checks.noneNull(commands, "commands");
+
+        List<Target> targets = new ArrayList<>();
+        for (Guild guild : guilds) {
+            targets.add(new Target(guild.getJDA(), guild));
+        }
+
+        return schedule(targets, commands);
+    }
+
+    /**
+     * Add a listener notified of the progress of the registrations scheduled afterwards
+     *
+     * @param listener  The listener to add
+     */
+    public void addListener(@NotNull final RegistrationListener listener) {
+        Checks.notNull(listener, "listener");
+
+        this.listeners.add(listener);
+    }
+
+    @NotNull
+    private CompletableFuture<RegistrationResult> schedule(@NotNull final List<Target> targets, @NotNull final List<SlashCommandData> commands) {
+        // the commands are the same for all the guilds, we only compute their fingerprint once
+        String fingerprint = this.state == null ? null : CommandFingerprint.of(commands);
+        Batch batch = new Batch(targets.size(), this.state);
+
+        for (Target target : targets) {
+            this.pending.offer(new Job(batch, target, commands, fingerprint));
+        }
+
+        pump();
+        return batch.future;
+    }
+
+    /**
+     * Start pending jobs while there are free slots
+     */
+    private void pump() {
+        while (!this.pending.isEmpty() && tryAcquire()) {
+            Job job = this.pending.poll();
+
+            if (job == null) {
+                // another thread took the last job between our check and our poll
+                this.running.decrementAndGet();
+                continue;
+            }
+
+            // the unchanged commands with known ids don't need any request, so the next job starts right away
+            if (job.skip()) {
+                this.running.decrementAndGet();
+                continue;
+            }
+
+            job.attempt(1);
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = this.running.get();
+            if (current >= this.parallelism) {
+                return false;
+            }
+
+            if (this.running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return true if the request may succeed if it's sent again
+     */
+    private static boolean isRetryable(@NotNull final Throwable failure) {
+        if (failure instanceof ErrorResponseException) {
+            return ((ErrorResponseException) failure).isServerError();
+        }
+
+        return true;
+    }
+
+    /**
+     * The registration of the commands to one guild, or the global commands
+     */
+    private final class Job {
+
+        private final Batch batch;
+        private final Target target;
+        private final List<SlashCommandData> commands;
+        private final String fingerprint;
+
+        private Job(
+                @NotNull final Batch batch,
+                @NotNull final Target target,
+                @NotNull final List<SlashCommandData> commands,
+                @Nullable final String fingerprint
+        ) {
+            this.batch = batch;
+            this.target = target;
+            this.commands = commands;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Give the registry the saved ids of the commands, if they didn't change and their ids are known
+         *
+         * @return  true if the job is done, false if it needs to send a request
+         */
+        private boolean skip() {
+            if (!isUnchanged()) {
+                return false;
+            }
+
+            Map<String, Long> ids = this.target.getCommandIds(state);
+            if (ids == null) {
+                return false;
+            }
+
+            registry.registerCommandIds(ids);
+
+            notifyListeners(listener -> listener.onUnchanged(this.target.guild, ids));
+            this.batch.unchanged.incrementAndGet();
+
+            done();
+            return true;
+        }
+
+        private boolean isUnchanged() {
+            return this.fingerprint != null && this.fingerprint.equals(this.target.getFingerprint(state));
+        }
+
+        private void attempt(int attempt) {
+            boolean unchanged = isUnchanged();
+
+            RestAction<List<Command>> action;
+            if (unchanged) {
+                // the ids weren't saved yet, like in a state file written by an older version
+                action = this.target.retrieveCommands();
+            } else if (incremental) {
+                action = this.target.retrieveCommands().flatMap(this::applyDiff);
+            } else {
+                action = this.target.updateCommands(this.commands);
+            }
+
+            action.queue(registered -> {
+                registry.registerCommandIds(registered);
+
+                Map<String, Long> ids = new HashMap<>();
+                for (Command command : registered) {
+                    ids.put(command.getName(), command.getIdLong());
+                }
+
+                if (this.fingerprint != null) {
+                    this.target.save(state, this.fingerprint, ids);
+                }
+
+                if (unchanged) {
+                    notifyListeners(listener -> listener.onUnchanged(this.target.guild, ids));
+                    this.batch.unchanged.incrementAndGet();
+                } else {
+                    notifyListeners(listener -> listener.onRegistered(this.target.guild, registered));
+                    this.batch.registered.incrementAndGet();
+                }
+
+                finish();
+            }, failure -> {
+                if (attempt < maxAttempts && isRetryable(failure)) {
+                    // the slot stays taken while we wait, so the other guilds don't make things worse
+                    long delay = backoffNanos << Math.min(attempt - 1, 16);
+                    timer.schedule(() -> attempt(attempt + 1), delay, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                this.batch.failures.put(this.target.getId(), failure);
+                notifyListeners(listener -> listener.onFailed(this.target.guild, failure));
+
+                finish();
+            });
+        }
+
+        /**
+         * Send the changes between the registered commands and ours
+         *
+         * @param registered    The commands registered to Discord
+         * @return              An action returning the registered commands once they're the same as ours
+         */
+        @NotNull
+        private RestAction<List<Command>> applyDiff(@NotNull final List<Command> registered) {
+            CommandDiff diff = CommandDiff.of(registered, this.commands);
+
+            if (diff.isEmpty()) {
+                return new CompletedRestAction<>(this.target.jda, diff.getUnchanged());
+            }
+
+            List<RestAction<Command>> changes = new ArrayList<>();
+            for (SlashCommandData command : diff.getUpserts()) {
+                changes.add(this.target.upsertCommand(command));
+            }
+
+            for (Command command : diff.getDeletions()) {
+                // a deletion returns nothing, it's filtered out below
+                changes.add(this.target.deleteCommand(command).map(ignored -> null));
+            }
+
+            return RestAction.allOf(changes).map(results -> {
+                List<Command> commands = new ArrayList<>(diff.getUnchanged());
+                for (Command command : results) {
+                    if (command != null) {
+                        commands.add(command);
+                    }
+                }
+
+                return commands;
+            });
+        }
+
+        private void notifyListeners(@NotNull final Consumer<RegistrationListener> notification) {
+            for (RegistrationListener listener : listeners) {
+                try {
+                    notification.accept(listener);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void finish() {
+            done();
+
+            running.decrementAndGet();
+            pump();
+        }
+
+        private void done() {
+            int done = this.batch.done.incrementAndGet();
+            notifyListeners(listener -> listener.onProgress(done, this.batch.total));
+
+            if (done == this.batch.total) {
+                this.batch.complete();
+            }
+        }
+    }
+
+    /**
+     * The JDA instance registering global commands, or the guild to register commands to
+     */
+    private static final class Target {
+
+        private final JDA jda;
+        private final Guild guild;
+
+        private Target(@NotNull final JDA jda, @Nullable final Guild guild) {
+            this.jda = jda;
+            this.guild = guild;
+        }
+
+        private long getId() {
+            return this.guild == null ? 0 : this.guild.getIdLong();
+        }
+
+        @NotNull
+        private RestAction<List<Command>> retrieveCommands() {
+            return this.guild == null ? this.jda.retrieveCommands() : this.guild.retrieveCommands();
+        }
+
+        @NotNull
+        private RestAction<List<Command>> updateCommands(@NotNull final List<SlashCommandData> commands) {
+            return this.guild == null
+                    ? this.jda.updateCommands().addCommands(commands)
+                    : this.guild.updateCommands().addCommands(commands);
+        }
+
+        @NotNull
+        private RestAction<Command> upsertCommand(@NotNull final SlashCommandData command) {
+            return this.guild == null ? this.jda.upsertCommand(command) : this.guild.upsertCommand(command);
+        }
+
+        @NotNull
+        private RestAction<Void> deleteCommand(@NotNull final Command command) {
+            return this.guild == null ? this.jda.deleteCommandById(command.getIdLong()) : this.guild.deleteCommandById(command.getIdLong());
+        }
+
+        @Nullable
+        private String getFingerprint(@Nullable final RegistrationState state) {
+            if (state == null) {
+                return null;
+            }
+
+            return this.guild == null ? state.getGlobalFingerprint() : state.getGuildFingerprint(this.guild.getIdLong());
+        }
+
+        @Nullable
+        private Map<String, Long> getCommandIds(@Nullable final RegistrationState state) {
+            if (state == null) {
+                return null;
+            }
+
+            return this.guild == null ? state.getGlobalCommandIds() : state.getGuildCommandIds(this.guild.getIdLong());
+        }
+
+        private void save(@NotNull final RegistrationState state, @NotNull final String fingerprint, @NotNull final Map<String, Long> ids) {
+            if (this.guild == null) {
+                state.setGlobalFingerprint(fingerprint);
+                state.setGlobalCommandIds(ids);
+            } else {
+                state.setGuildFingerprint(this.guild.getIdLong(), fingerprint);
+                state.setGuildCommandIds(this.guild.getIdLong(), ids);
+            }
+        }
+    }
+
+    /**
+     * The jobs of one call to {@link #registerGlobal(JDA, List)} or {@link #registerGuilds(Collection, List)}
+     */
+    private static final class Batch {
+
+        private final int total;
+
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger registered = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private final Map<Long, Throwable> failures = new ConcurrentHashMap<>();
+
+        private final CompletableFuture<RegistrationResult> future = new CompletableFuture<>();
+
+        // the fingerprints and ids set by the jobs are saved once the whole batch is done
+        private final RegistrationState state;
+
+        private Batch(int total, @Nullable final RegistrationState state) {
+            this.total = total;
+            this.state = state;
+
+            if (total == 0) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            // this does nothing if no job changed the state
+            if (this.state != null) {
+                this.state.save();
+            }
+
+            this.future.complete(new RegistrationResult(this.registered.get(), this.unchanged.get(), new HashMap<>(this.failures)));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package fr.rader.gertrude.registration;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The fingerprints of the commands last registered to Discord, saved in a small properties file.
+ * The global commands are saved with the {@code global} key, and the commands of a guild with the {@code guild.<id>} key.
+ * The ids Discord gave to the commands are saved next to their fingerprint, with the {@code .ids} suffix,
+ * so the commands that didn't change don't have to be retrieved to know their ids.
+ * The fingerprints are changed in memory, and written to the file by {@link #save()},
+ * so registering the commands to thousands of guilds writes the file once instead of once per guild.
+ * Deleting the file makes Gertrude register all the commands again.
+ *
+ * @see CommandFingerprint
+ */
+public final class RegistrationState {
+
+    private static final String GLOBAL_KEY = "global";
+    private static final String GUILD_KEY_PREFIX = "guild.";
+    private static final String IDS_KEY_SUFFIX = ".ids";
+
+    private final Path file;
+    private final Properties fingerprints;
+
+    // true if the fingerprints changed since they were last saved, guarded by this
+    private boolean dirty;
+
+    // held while writing the file, so two saves don't write the same temporary file
+    private final Object saveLock = new Object();
+
+    private RegistrationState(@NotNull final Path file, @NotNull final Properties fingerprints) {
+        this.file = file;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Read the state from the given file. If the file doesn't exist, the state is empty.
+     *
+     * @param file  The state file
+     * @return      The state
+     * @throws IOException  If the file cannot be read
+     */
+    @NotNull
+    public static RegistrationState load(@NotNull final Path file) throws IOException {
+        Checks.notNull(file, "file");
+
+        Properties fingerprints = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            fingerprints.load(input);
+        } catch (NoSuchFileException e) {
+            // nothing was registered yet
+        }
+
+        return new RegistrationState(file, fingerprints);
+    }
+
+    /**
+     * Return the fingerprint of the global commands last registered
+     *
+     * @return  The fingerprint, or {@code null} if the global commands were never registered
+     */
+    @Nullable
+    public synchronized String getGlobalFingerprint() {
+        return this.fingerprints.getProperty(GLOBAL_KEY);
+    }
+
+    /**
+     * Return the fingerprint of the commands last registered to the given guild
+     *
+     * @param guildId   The guild's id
+     * @return          The fingerprint, or {@code null} if the guild's commands were never registered
+     */
+    @Nullable
+    public synchronized String getGuildFingerprint(long guildId) {
+        return this.fingerprints.getProperty(GUILD_KEY_PREFIX + guildId);
+    }
+
+    /**
+     * Set the fingerprint of the global commands, it's written to the file by the next {@link #save()}
+     *
+     * @param fingerprint   The fingerprint of the registered commands
+     */
+    public synchronized void setGlobalFingerprint(@NotNull final String fingerprint) {
+        Checks.notNull(fingerprint, "fingerprint");
+
+        this.fingerprints.setProperty(GLOBAL_KEY, fingerprint);
+        this.dirty = true;
+    }
+
+    /**
+     * Set the fingerprint of the given guild's commands, it's written to the file by the next {@link #save()}
+     *
+     * @param guildId       The guild's id
+     * @param fingerprint   The fingerprint of the registered commands
+     */
+    public synchronized void setGuildFingerprint(long guildId, @NotNull final String fingerprint) {
+        Checks.notNull(fingerprint, "fingerprint");
+
+        this.fingerprints.setProperty(GUILD_KEY_PREFIX + guildId, fingerprint);
+        this.dirty = true;
+    }
+
+    /**
+     * Return the ids of the global commands last registered
+     *
+     * @return  The ids by command name, or {@code null} if they're not known
+     */
+    @Nullable
+    public synchronized Map<String, Long> getGlobalCommandIds() {
+        return parseIds(this.fingerprints.getProperty(GLOBAL_KEY + IDS_KEY_SUFFIX));
+    }
+
+    /**
+     * Return the ids of the commands last registered to the given guild
+     *
+     * @param guildId   The guild's id
+     * @return          The ids by command name, or {@code null} if they're not known
+     */
+    @Nullable
+    public synchronized Map<String, Long> getGuildCommandIds(long guildId) {
+        return parseIds(this.fingerprints.getProperty(GUILD_KEY_PREFIX + guildId + IDS_KEY_SUFFIX));
+    }
+
+    /**
+     * Set the ids of the global commands, they're written to the file by the next {@link #save()}
+     *
+     * @param ids   The ids Discord gave to the commands, by command name
+     */
+    public synchronized void setGlobalCommandIds(@NotNull final Map<String, Long> ids) {
+        Checks.notNull(ids, "ids");
+
+        setIds(GLOBAL_KEY + IDS_KEY_SUFFIX, ids);
+    }
+
+    /**
+     * Set the ids of the given guild's commands, they're written to the file by the next {@link #save()}
+     *
+     * @param guildId   The guild's id
+     * @param ids       The ids Discord gave to the commands, by command name
+     */
+    public synchronized void setGuildCommandIds(long guildId, @NotNull final Map<String, Long> ids) {
+        Checks.notNull(ids, "ids");
+
+        setIds(GUILD_KEY_PREFIX + guildId + IDS_KEY_SUFFIX, ids);
+    }
+
+    // the ids are saved as name:id pairs separated by commas, command names cannot contain either of them
+    private void setIds(@NotNull final String key, @NotNull final Map<String, Long> ids) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> entry : ids.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+
+            builder.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+
+        String value = builder.toString();
+        if (!value.equals(this.fingerprints.getProperty(key))) {
+            this.fingerprints.setProperty(key, value);
+            this.dirty = true;
+        }
+    }
+
+    @Nullable
+    private static Map<String, Long> parseIds(@Nullable final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        for (String pair : value.split(",")) {
+            int separator = pair.lastIndexOf(':');
+            if (separator <= 0) {
+                // an edited file, the ids will be retrieved again
+                return null;
+            }
+
+            try {
+                ids.put(pair.substring(0, separator), Long.parseLong(pair.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Write the state to a temporary file and move it over the state file,
+     * so a crash while saving doesn't leave a half written file behind.
+     * This does nothing if the fingerprints didn't change since they were last saved.
+     * The fingerprints are copied before writing the file, so they can still be read and changed meanwhile.
+     */
+    public void save() {
+        synchronized (this.saveLock) {
+            Properties fingerprints;
+            synchronized (this) {
+                if (!this.dirty) {
+                    return;
+                }
+
+                fingerprints = new Properties();
+                fingerprints.putAll(this.fingerprints);
+                this.dirty = false;
+            }
+
+            if (!write(fingerprints)) {
+                // try again with the next save
+                synchronized (this) {
+                    this.dirty = true;
+                }
+            }
+        }
+    }
+
+    private boolean write(@NotNull final Properties fingerprints) {
+        try {
+            Path parent = this.file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Path temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                fingerprints.store(output, "Gertrude's registered commands, delete this file to register them again");
+            }
+
+            Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cannot save the registration state to " + this.file + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fr.rader.gertrude.utils;
+
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.*;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gives the channels of the types a parameter accepts, as the parameter's type.
+ * The channel types whose channels are instances of the parameter's type are found once, when the command is registered,
+ * so resolving a channel only has to check its type is one of them.
+ *
+ * <h2>Example:</h2>
+ * <pre><code>
+ * ChannelResolver&lt;AudioChannel&gt; resolver = ChannelResolver.of(AudioChannel.class);
+ * resolver.getChannelTypes(); // VOICE and STAGE
+ * resolver.resolve(channel);  // the channel if it's a voice or stage channel, null otherwise
+ * </code></pre>
+ *
+ * @param <T>   The parameter's type
+ */
+public final class ChannelResolver<T extends Channel> {
+
+    // the interface the channels of each type implement
+    private static final Map<ChannelType, Class<? extends Channel>> CHANNEL_CLASSES = new EnumMap<>(ChannelType.class);
+
+    private final Class<T> type;
+    private final Set<ChannelType> channelTypes;
+
+    private ChannelResolver(@NotNull final Class<T> type, @NotNull final Set<ChannelType> channelTypes) {
+        this.type = type;
+        this.channelTypes = channelTypes;
+    }
+
+    /**
+     * Create the resolver of the given type
+     *
+     * @param type  The parameter's type
+     * @param <T>   The parameter's type
+     * @return      The resolver, whose channel types are empty if no channel can be an instance of the given type
+     */
+    @NotNull
+    public static <T extends Channel> ChannelResolver<T> of(@NotNull final Class<T> type) {
+        Checks.notNull(type, "type");
+
+        EnumSet<ChannelType> channelTypes = EnumSet.noneOf(ChannelType.class);
+        for (Map.Entry<ChannelType, Class<? extends Channel>> entry : CHANNEL_CLASSES.entrySet()) {
+            if (type.isAssignableFrom(entry.getValue())) {
+                channelTypes.add(entry.getKey());
+            }
+        }
+
+        return new ChannelResolver<>(type, Collections.unmodifiableSet(channelTypes));
+    }
+
+    /**
+     * Give the channel as the parameter's type
+     *
+     * @param channel   The channel sent by Discord
+     * @return          The channel, or {@code null} if there's no channel or its type isn't one of {@link #getChannelTypes()}
+     */
+    @Nullable
+    public T resolve(@Nullable final Channel channel) {
+        if (channel == null || !this.channelTypes.contains(channel.getType())) {
+            return null;
+        }
+
+        return this.type.cast(channel);
+    }
+
+    /**
+     * @return  The parameter's type
+     */
+    @NotNull
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    /**
+     * @return  The channel types whose channels are instances of the parameter's type
+     */
+    @NotNull
+    public Set<ChannelType> getChannelTypes() {
+        return this.channelTypes;
+    }
+
+    static {
+        CHANNEL_CLASSES.put(ChannelType.TEXT,                   TextChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.PRIVATE,                PrivateChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.VOICE,                  VoiceChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.CATEGORY,               Category.class);
+        CHANNEL_CLASSES.put(ChannelType.NEWS,                   NewsChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.STAGE,                  StageChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.GUILD_NEWS_THREAD,      ThreadChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.GUILD_PUBLIC_THREAD,    ThreadChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.GUILD_PRIVATE_THREAD,   ThreadChannel.class);
+        CHANNEL_CLASSES.put(ChannelType.FORUM,                  ForumChannel.class);
+    }
+}
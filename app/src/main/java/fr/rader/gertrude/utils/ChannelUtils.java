@@ -7,7 +7,6 @@ import net.dv8tion.jda.api.entities.channel.concrete.NewsChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
-import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
 import net.dv8tion.jda.api.entities.channel.unions.GuildChannelUnion;
@@ -15,28 +14,19 @@ import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * A basic utility class to get data from a channel, cast a channel to another channel, etc...
  */
 public class ChannelUtils {
 
-    private static final List<Class<?>> CHANNELS = List.of(
-            MessageChannel.class,
-            TextChannel.class,
-            NewsChannel.class,
-            ThreadChannel.class,
-            VoiceChannel.class
-    );
-
     /**
      * Get the channel associated with the given MessageChannelUnion
      *
      * @param channel   The channel to get
      * @return          The channel associated with the given MessageChannelUnion
+     * @deprecated      This checks the channel's type every time, use a {@link ChannelResolver} of the expected type instead
      */
+    @Deprecated
     @Nullable
     public static Channel getAsNormalChannel(@NotNull final MessageChannelUnion channel) {
         ChannelType type = channel.getType();
@@ -77,7 +67,9 @@ public class ChannelUtils {
      *
      * @param channel   The channel to get
      * @return          The channel associated with the given GuildChannelUnion
+     * @deprecated      This checks the channel's type every time, use a {@link ChannelResolver} of the expected type instead
      */
+    @Deprecated
     @Nullable
     public static Channel getAsNormalChannel(@NotNull final GuildChannelUnion channel) {
         ChannelType type = channel.getType();
@@ -134,7 +126,23 @@ public class ChannelUtils {
         return null;
     }
 
+    /**
+     * Return true if the channel a command is sent in can be an instance of the given class
+     *
+     * @param clazz The class to check
+     * @return      true if the class is a channel a command can be sent in
+     */
     public static boolean isChannel(@NotNull final Class<?> clazz) {
-        return CHANNELS.contains(clazz);
+        if (!Channel.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+
+        for (ChannelType type : ChannelResolver.of(clazz.asSubclass(Channel.class)).getChannelTypes()) {
+            if (type.isMessage()) {
+                return true;
+            }
+        }
+
+        return false;
     }
 }
@@ -0,0 +1,179 @@
+package fr.rader.gertrude.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash map with primitive {@code long} keys.
+ * This is used to look up objects by their Discord snowflake without boxing the key.
+ * This map isn't thread safe, it must be fully built before being shared between threads.
+ *
+ * @param <V>   The type of the values
+ */
+public final class LongObjectMap<V> {
+
+    // the key 0 is never a valid snowflake, so we use it to mark empty slots
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+
+    private int size;
+    private int mask;
+
+    /**
+     * Create a new map that can hold {@code expectedSize} entries without resizing
+     *
+     * @param expectedSize  The number of entries we expect this map to hold
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 4));
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Create a copy of the given map
+     *
+     * @param other The map to copy
+     */
+    public LongObjectMap(LongObjectMap<? extends V> other) {
+        this.keys = Arrays.copyOf(other.keys, other.keys.length);
+        this.values = Arrays.copyOf(other.values, other.values.length);
+        this.size = other.size;
+        this.mask = other.mask;
+    }
+
+    /**
+     * Link the given value to the given key, replacing the previous value if there was one
+     *
+     * @param key   The key, must not be 0
+     * @param value The value to link to the key
+     */
+    public void put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key cannot be 0");
+        }
+
+        // keep the load factor under 0.5 so probe sequences stay short
+        if ((this.size + 1) * 2 > this.keys.length) {
+            resize(this.keys.length * 2);
+        }
+
+        int index = indexFor(key);
+        while (this.keys[index] != EMPTY) {
+            if (this.keys[index] == key) {
+                this.values[index] = value;
+                return;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+    }
+
+    /**
+     * Get the value linked to the given key
+     *
+     * @param key   The key to get the value of
+     * @return      The value if there is one, {@code null} otherwise
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY) {
+            return null;
+        }
+
+        int index = indexFor(key);
+        long current;
+        while ((current = this.keys[index]) != EMPTY) {
+            if (current == key) {
+                return (V) this.values[index];
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return  The number of entries in this map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Give each entry of this map to the given consumer, in no particular order
+     *
+     * @param consumer  The consumer to give the entries to
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != EMPTY) {
+                consumer.accept(this.keys[i], (V) this.values[i]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+
+            int index = indexFor(oldKeys[i]);
+            while (this.keys[index] != EMPTY) {
+                index = (index + 1) & this.mask;
+            }
+
+            this.keys[index] = oldKeys[i];
+            this.values[index] = oldValues[i];
+        }
+    }
+
+    private int indexFor(long key) {
+        // snowflakes have a timestamp in their high bits and a counter in their low bits,
+        // so we mix both halves before masking
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(expectedSize * 2 - 1) << 1;
+        return Math.max(capacity, 8);
+    }
+
+    /**
+     * Receives the entries of a {@link LongObjectMap}, without boxing the keys
+     *
+     * @param <V>   The type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * Receive one entry of the map
+         *
+         * @param key   The key of the entry
+         * @param value The value of the entry
+         */
+        void accept(long key, V value);
+    }
+}
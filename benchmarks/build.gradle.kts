@@ -0,0 +1,32 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":app"))
+
+    // Gertrude only uses JDA internally, the benchmarks build JDA's events and options themselves
+    jmh("net.dv8tion:JDA:5.0.0-beta.5")
+    jmh("net.sf.trove4j:trove4j:3.0.3")
+}
+
+jmh {
+    jmhVersion.set("1.36")
+
+    // report the allocations of each operation next to its time
+    profilers.add("gc")
+
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
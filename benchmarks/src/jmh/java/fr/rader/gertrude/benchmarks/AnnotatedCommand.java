@@ -0,0 +1,38 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.annotations.Param;
+import fr.rader.gertrude.annotations.SlashCommand;
+import fr.rader.gertrude.commands.Command;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The first command of {@link SyntheticCommands}, declared with annotations and without a {@link fr.rader.gertrude.commands.CommandBinder},
+ * so the registry calls it through an invoker built from its {@link java.lang.reflect.Method}
+ */
+public final class AnnotatedCommand extends Command {
+
+    // read by the benchmarks, so the command method isn't optimized away
+    private long calls;
+
+    @SlashCommand(
+            command = "command0 <text> [amount]",
+            description = "A synthetic command"
+    )
+    public void run(
+            @Param(name = "text", description = "Some text")
+            @NotNull final String text,
+            @Param(name = "amount", description = "Some amount")
+            long amount
+    ) {
+        this.calls += text.length() + amount;
+    }
+
+    /**
+     * Return a value depending on all the calls to {@link #run(String, long)}
+     *
+     * @return  The sum of the options' values
+     */
+    public long getCalls() {
+        return this.calls;
+    }
+}
@@ -0,0 +1,66 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.commands.CommandMethod;
+import fr.rader.gertrude.commands.CommandRegistry;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CommandMethod#getAutoCompleteChoices(String, CommandAutoCompleteInteractionEvent)}
+ * for the three ways of answering an autocompletion: static choices, an autocomplete method filtering
+ * the words on each call, and the same method behind a cache that always hits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AutoCompleteBenchmark {
+
+    @Param({"100", "10000"})
+    private int wordCount;
+
+    private CommandRegistry registry;
+    private AutoCompleteCommands commands;
+
+    private CommandMethod command;
+
+    private CommandAutoCompleteInteractionEvent staticEvent;
+    private CommandAutoCompleteInteractionEvent filteredEvent;
+    private CommandAutoCompleteInteractionEvent cachedEvent;
+
+    @Setup
+    public void setup() {
+        this.registry = CommandRegistry.getInstance();
+        this.commands = new AutoCompleteCommands(this.wordCount);
+        this.registry.registerCommandClass(this.commands);
+
+        this.command = this.registry.getCommandMethod(AutoCompleteCommands.NAME, null, null);
+
+        this.staticEvent = Stubs.autoComplete(AutoCompleteCommands.NAME, "static", "1");
+        this.filteredEvent = Stubs.autoComplete(AutoCompleteCommands.NAME, "filtered", "1");
+        this.cachedEvent = Stubs.autoComplete(AutoCompleteCommands.NAME, "cached", "1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.registry.unregisterCommandClass(this.commands);
+    }
+
+    @Benchmark
+    public List<Choice> staticChoices() {
+        return this.command.getAutoCompleteChoices("static", this.staticEvent);
+    }
+
+    @Benchmark
+    public List<Choice> filtered() {
+        return this.command.getAutoCompleteChoices("filtered", this.filteredEvent);
+    }
+
+    @Benchmark
+    public List<Choice> cached() {
+        return this.command.getAutoCompleteChoices("cached", this.cachedEvent);
+    }
+}
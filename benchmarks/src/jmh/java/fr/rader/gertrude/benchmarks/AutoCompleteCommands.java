@@ -0,0 +1,100 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.annotations.CacheScope;
+import fr.rader.gertrude.commands.*;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command.Choice;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A command with three autocompleted options answering from the same words:
+ * {@code static} uses a {@link ChoiceIndex}, {@code filtered} filters the words on each call,
+ * and {@code cached} filters them behind an {@link AutoCompleteCache}.
+ */
+public final class AutoCompleteCommands extends Command {
+
+    /**
+     * The name of the command
+     */
+    public static final String NAME = "search";
+
+    private final List<String> words;
+
+    /**
+     * Create a new command answering from the given number of words
+     *
+     * @param wordCount The number of words
+     */
+    public AutoCompleteCommands(int wordCount) {
+        this.words = new ArrayList<>();
+        for (int i = 0; i < wordCount; i++) {
+            this.words.add(Integer.toString(i * 7919, 36));
+        }
+    }
+
+    /**
+     * Return the words starting with the focused option's value, like most autocomplete methods do
+     *
+     * @param event The autocompletion event
+     * @return      At most 25 choices
+     */
+    @NotNull
+    public List<Choice> filter(@NotNull final CommandAutoCompleteInteractionEvent event) {
+        String value = event.getFocusedOption().getValue().toLowerCase(Locale.ROOT);
+
+        List<Choice> choices = new ArrayList<>();
+        for (String word : this.words) {
+            if (word.startsWith(value)) {
+                choices.add(new Choice(word, word));
+
+                if (choices.size() == 25) {
+                    break;
+                }
+            }
+        }
+
+        return choices;
+    }
+
+    /**
+     * Describes the command of an {@link AutoCompleteCommands}
+     */
+    public static final class Binder implements CommandBinder<AutoCompleteCommands> {
+
+        @NotNull
+        @Override
+        public Class<AutoCompleteCommands> getCommandClass() {
+            return AutoCompleteCommands.class;
+        }
+
+        @NotNull
+        @Override
+        public List<CompiledCommand> bind(@NotNull final AutoCompleteCommands command) {
+            AutoCompleteProvider filter = command::filter;
+
+            CompiledCommand compiledCommand = new CompiledCommand(
+                    NAME + " [static] [filtered] [cached]",
+                    NAME,
+                    null,
+                    null,
+                    "Searches the words",
+                    "",
+                    "",
+                    parameters -> {}
+            )
+                    .option(String.class, "static", "A word", false, new ChoiceIndex(OptionType.STRING, () -> command.words))
+                    .option(String.class, "filtered", "A word", false, filter)
+                    .option(String.class, "cached", "A word", false, new AutoCompleteCache(filter, 1, TimeUnit.HOURS, 1000, CacheScope.GLOBAL));
+
+            List<CompiledCommand> commands = new ArrayList<>();
+            commands.add(compiledCommand);
+            return commands;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.commands.Command;
+import fr.rader.gertrude.commands.CommandMethod;
+import fr.rader.gertrude.commands.CommandRegistry;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures {@link CommandMethod#invoke(SlashCommandInteractionEvent)}: binding a string and a long option,
+ * then calling the command method. The command method itself does almost nothing.
+ * With {@code binder=false}, the same command is declared with annotations and called through the invokers built from reflection.
+ * {@link #optionLookup()} measures the stubbed event alone, to tell Gertrude's cost apart from the stub's.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BindingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    @Param({"true", "false"})
+    private boolean binder;
+
+    private CommandRegistry registry;
+    private Command commands;
+    private LongSupplier calls;
+
+    private CommandMethod command;
+    private SlashCommandInteractionEvent event;
+
+    @Setup
+    public void setup() {
+        this.registry = CommandRegistry.getInstance();
+        this.registry.setRecordMetrics(this.metrics);
+
+        if (this.binder) {
+            SyntheticCommands commands = new SyntheticCommands(1);
+            this.commands = commands;
+            this.calls = commands::getCalls;
+        } else {
+            AnnotatedCommand command = new AnnotatedCommand();
+            this.commands = command;
+            this.calls = command::getCalls;
+        }
+
+        this.registry.registerCommandClass(this.commands);
+
+        this.command = this.registry.getCommandMethod(SyntheticCommands.name(0), null, null);
+
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("text", "hello");
+        options.put("amount", 42L);
+        this.event = Stubs.slashCommand(SyntheticCommands.name(0), 0, options);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.registry.unregisterCommandClass(this.commands);
+        this.registry.setRecordMetrics(false);
+    }
+
+    @Benchmark
+    public long invoke() {
+        this.command.invoke(this.event);
+        return this.calls.getAsLong();
+    }
+
+    @Benchmark
+    public OptionMapping optionLookup() {
+        return this.event.getOption("amount");
+    }
+}
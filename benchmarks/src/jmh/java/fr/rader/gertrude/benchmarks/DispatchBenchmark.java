@@ -0,0 +1,81 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.commands.CommandMethod;
+import fr.rader.gertrude.commands.CommandRegistry;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CommandRegistry#getCommandMethod(long, String, String, String)}, the lookup done for each event,
+ * with more and more commands. Each operation looks up the next command, so they aren't all in the same cache line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+
+    private static final long UNKNOWN_ID = 1;
+
+    @Param({"10", "100", "1000"})
+    private int commandCount;
+
+    private CommandRegistry registry;
+    private SyntheticCommands commands;
+
+    private String[] names;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setup() {
+        this.registry = CommandRegistry.getInstance();
+        this.commands = new SyntheticCommands(this.commandCount);
+        this.registry.registerCommandClass(this.commands);
+
+        this.names = new String[this.commandCount];
+        this.ids = new long[this.commandCount];
+
+        List<Command> discordCommands = new ArrayList<>();
+        for (int i = 0; i < this.commandCount; i++) {
+            this.names[i] = SyntheticCommands.name(i);
+            this.ids[i] = 1_000_000L + i;
+
+            discordCommands.add(Stubs.discordCommand(this.names[i], this.ids[i]));
+        }
+
+        this.registry.registerCommandIds(discordCommands);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.registry.unregisterCommandClass(this.commands);
+    }
+
+    private int nextIndex() {
+        int index = this.next;
+        this.next = index + 1 == this.commandCount ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public CommandMethod byId() {
+        int index = nextIndex();
+        return this.registry.getCommandMethod(this.ids[index], this.names[index], null, null);
+    }
+
+    @Benchmark
+    public CommandMethod byName() {
+        // an unknown id falls back to the name, like for the commands registered before Gertrude knew their id
+        int index = nextIndex();
+        return this.registry.getCommandMethod(UNKNOWN_ID, this.names[index], null, null);
+    }
+
+    @Benchmark
+    public CommandMethod unknown() {
+        return this.registry.getCommandMethod(UNKNOWN_ID, "unknown", null, null);
+    }
+}
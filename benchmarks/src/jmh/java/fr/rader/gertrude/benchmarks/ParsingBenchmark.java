@@ -0,0 +1,52 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.lexer.CommandSignature;
+import fr.rader.gertrude.lexer.Scanner;
+import fr.rader.gertrude.lexer.Tokenizer;
+import fr.rader.gertrude.lexer.tokens.Token;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of a command string, done once per distinct command string when a class is registered with reflection.
+ * {@link #signature()} is what the registry does, the tokenizer and the scanner are the lexer it used to go through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParsingBenchmark {
+
+    @Param({"ping", "admin users ban <user> [reason] [days]"})
+    private String command;
+
+    @Benchmark
+    public void tokenizer(final Blackhole blackhole) {
+        Tokenizer tokenizer = new Tokenizer(this.command);
+
+        Token token;
+        while ((token = tokenizer.readToken()) != null) {
+            blackhole.consume(token);
+        }
+    }
+
+    @Benchmark
+    public void scanner(final Blackhole blackhole) {
+        Scanner scanner = new Scanner(this.command);
+
+        // the registry looks one token ahead to find the subcommands
+        blackhole.consume(scanner.token(1));
+
+        Token token;
+        while ((token = scanner.token()) != null) {
+            blackhole.consume(token);
+            scanner.nextToken();
+        }
+    }
+
+    @Benchmark
+    public CommandSignature signature() {
+        return CommandSignature.compile(this.command);
+    }
+}
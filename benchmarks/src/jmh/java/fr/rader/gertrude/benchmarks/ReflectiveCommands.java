@@ -0,0 +1,50 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.annotations.Param;
+import fr.rader.gertrude.annotations.SlashCommand;
+import fr.rader.gertrude.commands.Command;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+/**
+ * A few annotated commands without a {@link fr.rader.gertrude.commands.CommandBinder},
+ * so the registry has to parse their command strings and read their parameters with reflection
+ */
+public final class ReflectiveCommands extends Command {
+
+    @SlashCommand(
+            command = "ping",
+            description = "Answers with pong"
+    )
+    public void ping(SlashCommandInteractionEvent event) {}
+
+    @SlashCommand(
+            command = "admin users ban <user> [reason] [days]",
+            description = "Administration commands",
+            subcommandDescription = "Bans a user",
+            subcommandGroupDescription = "Manages the users"
+    )
+    public void ban(
+            @Param(name = "user", description = "The user to ban")
+            User user,
+            @Param(name = "reason", description = "Why the user is banned")
+            String reason,
+            @Param(name = "days", description = "The number of days of messages to delete")
+            long days,
+            SlashCommandInteractionEvent event
+    ) {}
+
+    @SlashCommand(
+            command = "admin users kick <user> [reason]",
+            description = "Administration commands",
+            subcommandDescription = "Kicks a user",
+            subcommandGroupDescription = "Manages the users"
+    )
+    public void kick(
+            @Param(name = "user", description = "The user to kick")
+            User user,
+            @Param(name = "reason", description = "Why the user is kicked")
+            String reason,
+            SlashCommandInteractionEvent event
+    ) {}
+}
@@ -0,0 +1,69 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.commands.CommandRegistry;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full {@link CommandRegistry#registerCommandClass(fr.rader.gertrude.commands.Command)},
+ * from reading the command class to publishing the new dispatch table, followed by its unregistration.
+ * {@link #discordCommands()} measures building the commands sent to Discord.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegistrationBenchmark {
+
+    private CommandRegistry registry;
+
+    private ReflectiveCommands reflectiveCommands;
+    private SyntheticCommands compiledCommands;
+
+    @Setup
+    public void setup() {
+        this.registry = CommandRegistry.getInstance();
+
+        this.reflectiveCommands = new ReflectiveCommands();
+        this.compiledCommands = new SyntheticCommands(10);
+    }
+
+    @Benchmark
+    public boolean reflection() {
+        this.registry.registerCommandClass(this.reflectiveCommands);
+        return this.registry.unregisterCommandClass(this.reflectiveCommands);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        this.registry.registerCommandClass(this.compiledCommands);
+        return this.registry.unregisterCommandClass(this.compiledCommands);
+    }
+
+    /**
+     * Keeps the commands registered while building their Discord data
+     */
+    @State(Scope.Thread)
+    public static class Registered {
+
+        private ReflectiveCommands commands;
+
+        @Setup
+        public void setup() {
+            this.commands = new ReflectiveCommands();
+            CommandRegistry.getInstance().registerCommandClass(this.commands);
+        }
+
+        @TearDown
+        public void tearDown() {
+            CommandRegistry.getInstance().unregisterCommandClass(this.commands);
+        }
+    }
+
+    @Benchmark
+    public List<SlashCommandData> discordCommands(final Registered registered) {
+        return this.registry.getDiscordCommands();
+    }
+}
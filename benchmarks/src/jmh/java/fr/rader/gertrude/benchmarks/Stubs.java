@@ -0,0 +1,147 @@
+package fr.rader.gertrude.benchmarks;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
+import net.dv8tion.jda.api.interactions.commands.*;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Util class to create JDA's events and entities without a connection to Discord.
+ * The interactions are proxies answering the few methods Gertrude calls, any other method throws.
+ *
+ * A call to a proxy allocates its arguments array, this is included in the benchmarks' allocations.
+ */
+final class Stubs {
+
+    // private constructor, we don't want an instance of this class
+    private Stubs() {
+    }
+
+    /**
+     * Create a slash command event with the given options
+     *
+     * @param commandName   The name of the command
+     * @param commandId     The id of the command
+     * @param options       The value of each option, only strings and longs are supported
+     * @return              The event
+     */
+    @NotNull
+    static SlashCommandInteractionEvent slashCommand(@NotNull final String commandName, long commandId, @NotNull final Map<String, Object> options) {
+        List<OptionMapping> mappings = new ArrayList<>();
+        for (Map.Entry<String, Object> option : options.entrySet()) {
+            mappings.add(option(option.getKey(), option.getValue(), false));
+        }
+
+        List<OptionMapping> optionList = Collections.unmodifiableList(mappings);
+
+        SlashCommandInteraction interaction = proxy(SlashCommandInteraction.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "getFullCommandName":
+                    return commandName;
+                case "getCommandIdLong":
+                    return commandId;
+                case "getSubcommandName":
+                case "getSubcommandGroup":
+                    return null;
+                case "getOptions":
+                    return optionList;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        return new SlashCommandInteractionEvent(null, 0, interaction);
+    }
+
+    /**
+     * Create an autocompletion event for the given option
+     *
+     * @param commandName   The name of the command
+     * @param optionName    The autocompleted option
+     * @param value         The value being typed
+     * @return              The event
+     */
+    @NotNull
+    static CommandAutoCompleteInteractionEvent autoComplete(@NotNull final String commandName, @NotNull final String optionName, @NotNull final String value) {
+        AutoCompleteQuery query = new AutoCompleteQuery(option(optionName, value, true));
+        User user = proxy(User.class, (proxy, method, args) -> {
+            if (method.getName().equals("getIdLong")) {
+                return 1L;
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        CommandAutoCompleteInteraction interaction = proxy(CommandAutoCompleteInteraction.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "getFullCommandName":
+                    return commandName;
+                case "getCommandIdLong":
+                    return 0L;
+                case "getSubcommandName":
+                case "getSubcommandGroup":
+                case "getGuild":
+                    return null;
+                case "getFocusedOption":
+                    return query;
+                case "getUser":
+                    return user;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        return new CommandAutoCompleteInteractionEvent(null, 0, interaction);
+    }
+
+    /**
+     * Create a command as Discord sends it back once registered
+     *
+     * @param name  The name of the command
+     * @param id    The id of the command
+     * @return      The command
+     */
+    @NotNull
+    static Command discordCommand(@NotNull final String name, long id) {
+        return proxy(Command.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getIdLong":
+                    return id;
+                case "getType":
+                    return Command.Type.SLASH;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @NotNull
+    private static OptionMapping option(@NotNull final String name, @NotNull final Object value, boolean focused) {
+        OptionType type = value instanceof Long ? OptionType.INTEGER : OptionType.STRING;
+
+        DataObject data = DataObject.empty()
+                .put("name", name)
+                .put("type", type.getKey())
+                .put("value", value)
+                .put("focused", focused);
+
+        return new OptionMapping(data, new TLongObjectHashMap<>(), null, null);
+    }
+
+    @NotNull
+    private static <T> T proxy(@NotNull final Class<T> type, @NotNull final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
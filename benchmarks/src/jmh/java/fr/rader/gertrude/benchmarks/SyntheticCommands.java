@@ -0,0 +1,96 @@
+package fr.rader.gertrude.benchmarks;
+
+import fr.rader.gertrude.commands.Command;
+import fr.rader.gertrude.commands.CommandBinder;
+import fr.rader.gertrude.commands.CompiledCommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command class with any number of commands, named {@code command0}, {@code command1}...
+ * Each command has a required string option and an optional long option.
+ * Its commands are described by a hand-written {@link CommandBinder}, like the ones the annotation processor generates.
+ */
+public final class SyntheticCommands extends Command {
+
+    private final int count;
+
+    // read by the benchmarks, so the command method isn't optimized away
+    private long calls;
+
+    /**
+     * Create a new class with the given number of commands
+     *
+     * @param count The number of commands
+     */
+    public SyntheticCommands(int count) {
+        this.count = count;
+    }
+
+    /**
+     * The method behind all the commands
+     *
+     * @param text      The string option
+     * @param amount    The long option
+     */
+    public void run(@NotNull final String text, long amount) {
+        this.calls += text.length() + amount;
+    }
+
+    /**
+     * Return a value depending on all the calls to {@link #run(String, long)}
+     *
+     * @return  The sum of the options' values
+     */
+    public long getCalls() {
+        return this.calls;
+    }
+
+    /**
+     * Return the name of the command at the given index
+     *
+     * @param index The index of the command
+     * @return      The command's name
+     */
+    @NotNull
+    public static String name(int index) {
+        return "command" + index;
+    }
+
+    /**
+     * Describes the commands of a {@link SyntheticCommands}
+     */
+    public static final class Binder implements CommandBinder<SyntheticCommands> {
+
+        @NotNull
+        @Override
+        public Class<SyntheticCommands> getCommandClass() {
+            return SyntheticCommands.class;
+        }
+
+        @NotNull
+        @Override
+        public List<CompiledCommand> bind(@NotNull final SyntheticCommands command) {
+            List<CompiledCommand> commands = new ArrayList<>();
+
+            for (int i = 0; i < command.count; i++) {
+                String name = name(i);
+
+                commands.add(new CompiledCommand(
+                        name + " <text> [amount]",
+                        name,
+                        null,
+                        null,
+                        "A synthetic command",
+                        "",
+                        "",
+                        parameters -> command.run((String) parameters[0], (long) parameters[1])
+                ).option(String.class, "text", "Some text", true).option(long.class, "amount", "Some amount", false));
+            }
+
+            return commands;
+        }
+    }
+}
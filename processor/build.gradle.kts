@@ -0,0 +1,46 @@
+plugins {
+    java
+
+    signing
+    `maven-publish`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+
+    withJavadocJar()
+    withSourcesJar()
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // the processor reads Gertrude's annotations and parses the command strings with Gertrude's lexer
+    implementation(project(":app"))
+
+    compileOnly("org.jetbrains:annotations:13.0")
+}
+
+publishing {
+    repositories {
+        maven {
+            name = "raderRepository"
+            url = uri("https://repo.rader.fr/releases")
+            credentials(PasswordCredentials::class)
+            authentication {
+                create<BasicAuthentication>("basic")
+            }
+        }
+    }
+    publications {
+        create<MavenPublication>("maven") {
+            groupId = "fr.rader"
+            artifactId = "gertrude-processor"
+            version = "1.2.0"
+            from(components["java"])
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package fr.rader.gertrude.processor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the source code of a generated {@code CommandBinder}.
+ * The generated binder creates one {@code CompiledCommand} per command method, and calls the methods directly.
+ */
+final class BinderWriter {
+
+    private static final String INDENT = "    ";
+
+    private final Writer writer;
+
+    BinderWriter(@NotNull final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write the binder class
+     *
+     * @param packageName   The package of the command class, the binder is generated in the same package
+     * @param binderName    The simple name of the binder
+     * @param commandClass  The canonical name of the command class
+     * @param commands      The command methods of the command class
+     */
+    void write(
+            @NotNull final String packageName,
+            @NotNull final String binderName,
+            @NotNull final String commandClass,
+            @NotNull final List<CommandModel> commands
+    ) throws IOException {
+        if (!packageName.isEmpty()) {
+            line(0, "package " + packageName + ";");
+            line(0, "");
+        }
+
+        line(0, "import fr.rader.gertrude.commands.CommandBinder;");
+        line(0, "import fr.rader.gertrude.commands.CompiledCommand;");
+        line(0, "");
+        line(0, "import java.util.Arrays;");
+        line(0, "import java.util.List;");
+        line(0, "");
+        line(0, "/**");
+        line(0, " * Generated by Gertrude's annotation processor from {@link " + commandClass + "}, do not edit.");
+        line(0, " */");
+        line(0, "public final class " + binderName + " implements CommandBinder<" + commandClass + "> {");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public Class<" + commandClass + "> getCommandClass() {");
+        line(2, "return " + commandClass + ".class;");
+        line(1, "}");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line(1, "public List<CompiledCommand> bind(final " + commandClass + " command) {");
+        line(2, "return Arrays.asList(");
+
+        for (int i = 0; i < commands.size(); i++) {
+            writeCommand(commandClass, commands.get(i), i == commands.size() - 1);
+        }
+
+        line(2, ");");
+        line(1, "}");
+        line(0, "}");
+    }
+
+    private void writeCommand(@NotNull final String commandClass, @NotNull final CommandModel command, boolean last) throws IOException {
+        line(3, "new CompiledCommand(");
+        line(5, literal(command.getCommand()) + ",");
+        line(5, literal(command.getName()) + ",");
+        line(5, literal(command.getSubcommandGroup()) + ",");
+        line(5, literal(command.getSubcommand()) + ",");
+        line(5, literal(command.getDescription()) + ",");
+        line(5, literal(command.getSubcommandDescription()) + ",");
+        line(5, literal(command.getSubcommandGroupDescription()) + ",");
+        line(5, "parameters -> " + invocation(commandClass, command));
+
+        List<String> calls = new ArrayList<>();
+
+        for (ParameterModel parameter : command.getParameters()) {
+            StringBuilder builder = new StringBuilder();
+
+            if (parameter.isOption()) {
+                // static choices are indexed once the option's type is known, when the command is registered
+                builder.append(parameter.getChoicesMethod() != null && parameter.getAutoCompleteMethod() == null ? ".optionWithChoices(" : ".option(")
+                       .append(parameter.getType()).append(".class, ")
+                       .append(literal(parameter.getOptionName())).append(", ")
+                       .append(literal(parameter.getDescription())).append(", ")
+                       .append(parameter.isRequired());
+
+                if (parameter.getAutoCompleteMethod() != null) {
+                    builder.append(", ").append(autoCompleteProvider(parameter));
+
+                    // a cache already knows its scope
+                    if (parameter.getCacheTtl() <= 0 && !"GLOBAL".equals(parameter.getCacheScope())) {
+                        builder.append(", fr.rader.gertrude.annotations.CacheScope.").append(parameter.getCacheScope());
+                    }
+                } else if (parameter.getChoicesMethod() != null) {
+                    builder.append(", () -> ")
+                           .append(parameter.isStaticChoicesMethod() ? commandClass : "command")
+                           .append('.').append(parameter.getChoicesMethod()).append("()");
+                }
+
+                builder.append(')');
+            } else {
+                builder.append(".parameter(").append(parameter.getType()).append(".class)");
+            }
+
+            calls.add(builder.toString());
+        }
+
+        if (!command.getInterceptors().isEmpty()) {
+            StringBuilder builder = new StringBuilder(".intercept(");
+
+            for (int i = 0; i < command.getInterceptors().size(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+
+                builder.append(command.getInterceptors().get(i)).append(".class");
+            }
+
+            calls.add(builder.append(')').toString());
+        }
+
+        if (command.getMaxConcurrency() > 0) {
+            calls.add(".bulkhead(" + command.getMaxConcurrency() + ", " + command.getMaxQueued() + ")");
+        }
+
+        if (command.getCooldownUses() > 0) {
+            calls.add(".cooldown(" + command.getCooldownUses() + ", " + command.getCooldownPer() + "L, "
+                    + "java.util.concurrent.TimeUnit." + command.getCooldownUnit() + ", "
+                    + "fr.rader.gertrude.annotations.CooldownScope." + command.getCooldownScope() + ")");
+        }
+
+        String separator = last ? "" : ",";
+
+        line(3, calls.isEmpty() ? ")" + separator : ")");
+
+        for (int i = 0; i < calls.size(); i++) {
+            line(5, i == calls.size() - 1 ? calls.get(i) + separator : calls.get(i));
+        }
+    }
+
+    /**
+     * Return the autocompletion provider of the parameter, wrapped in a cache if the parameter asks for one
+     */
+    @NotNull
+    private String autoCompleteProvider(@NotNull final ParameterModel parameter) {
+        String provider = "event -> command." + parameter.getAutoCompleteMethod() + "(event)";
+        if (parameter.getCacheTtl() <= 0) {
+            return provider;
+        }
+
+        return "new fr.rader.gertrude.commands.AutoCompleteCache("
+               + provider + ", "
+               + parameter.getCacheTtl() + ", "
+               + "java.util.concurrent.TimeUnit.SECONDS, "
+               + parameter.getCacheSize() + ", "
+               + "fr.rader.gertrude.annotations.CacheScope." + parameter.getCacheScope() + ")";
+    }
+
+    /**
+     * Return the call to the command method, with each bound parameter cast to the method's parameter type
+     */
+    @NotNull
+    private String invocation(@NotNull final String commandClass, @NotNull final CommandModel command) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(command.isStaticMethod() ? commandClass : "command")
+               .append('.')
+               .append(command.getMethodName())
+               .append('(');
+
+        List<ParameterModel> parameters = command.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append('(').append(parameters.get(i).getType()).append(") parameters[").append(i).append(']');
+        }
+
+        return builder.append(')').toString();
+    }
+
+    /**
+     * Turn the given string into a Java string literal
+     */
+    @NotNull
+    private static String literal(final String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+
+                case '\n':
+                    builder.append("\\n");
+                    break;
+
+                case '\r':
+                    builder.append("\\r");
+                    break;
+
+                case '\t':
+                    builder.append("\\t");
+                    break;
+
+                default:
+                    // we don't know the encoding the source will be read with, so we escape everything that isn't ascii
+                    if (c < 0x20 || c > 0x7E) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+
+    private void line(int indent, @NotNull final String line) throws IOException {
+        if (!line.isEmpty()) {
+            for (int i = 0; i < indent; i++) {
+                this.writer.write(INDENT);
+            }
+
+            this.writer.write(line);
+        }
+
+        this.writer.write('\n');
+    }
+}
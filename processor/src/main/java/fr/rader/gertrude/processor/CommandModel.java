@@ -0,0 +1,157 @@
+package fr.rader.gertrude.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A command method, as read from the source code by the {@link SlashCommandProcessor}
+ */
+final class CommandModel {
+
+    private final String command;
+
+    private final String name;
+    private final String subcommandGroup;
+    private final String subcommand;
+
+    private final String description;
+    private final String subcommandDescription;
+    private final String subcommandGroupDescription;
+
+    private final String methodName;
+    private final boolean staticMethod;
+
+    private final List<ParameterModel> parameters;
+
+    private final int maxConcurrency;
+    private final int maxQueued;
+
+    // 0 uses if the command has no cooldown
+    private final int cooldownUses;
+    private final long cooldownPer;
+    private final String cooldownUnit;
+    private final String cooldownScope;
+
+    // the qualified names of the interceptor classes, the class' ones first
+    private final List<String> interceptors;
+
+    CommandModel(
+            @NotNull final String command,
+            @NotNull final String name,
+            @Nullable final String subcommandGroup,
+            @Nullable final String subcommand,
+            @NotNull final String description,
+            @NotNull final String subcommandDescription,
+            @NotNull final String subcommandGroupDescription,
+            @NotNull final String methodName,
+            boolean staticMethod,
+            @NotNull final List<ParameterModel> parameters,
+            int maxConcurrency,
+            int maxQueued,
+            int cooldownUses,
+            long cooldownPer,
+            @Nullable final String cooldownUnit,
+            @Nullable final String cooldownScope,
+            @NotNull final List<String> interceptors
+    ) {
+        this.command = command;
+        this.name = name;
+        this.subcommandGroup = subcommandGroup;
+        this.subcommand = subcommand;
+        this.description = description;
+        this.subcommandDescription = subcommandDescription;
+        this.subcommandGroupDescription = subcommandGroupDescription;
+        this.methodName = methodName;
+        this.staticMethod = staticMethod;
+        this.parameters = parameters;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+        this.cooldownUses = cooldownUses;
+        this.cooldownPer = cooldownPer;
+        this.cooldownUnit = cooldownUnit;
+        this.cooldownScope = cooldownScope;
+        this.interceptors = interceptors;
+    }
+
+    @NotNull
+    String getCommand() {
+        return this.command;
+    }
+
+    @NotNull
+    String getName() {
+        return this.name;
+    }
+
+    @Nullable
+    String getSubcommandGroup() {
+        return this.subcommandGroup;
+    }
+
+    @Nullable
+    String getSubcommand() {
+        return this.subcommand;
+    }
+
+    @NotNull
+    String getDescription() {
+        return this.description;
+    }
+
+    @NotNull
+    String getSubcommandDescription() {
+        return this.subcommandDescription;
+    }
+
+    @NotNull
+    String getSubcommandGroupDescription() {
+        return this.subcommandGroupDescription;
+    }
+
+    @NotNull
+    String getMethodName() {
+        return this.methodName;
+    }
+
+    boolean isStaticMethod() {
+        return this.staticMethod;
+    }
+
+    @NotNull
+    List<ParameterModel> getParameters() {
+        return this.parameters;
+    }
+
+    int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    int getCooldownUses() {
+        return this.cooldownUses;
+    }
+
+    long getCooldownPer() {
+        return this.cooldownPer;
+    }
+
+    @Nullable
+    String getCooldownUnit() {
+        return this.cooldownUnit;
+    }
+
+    @Nullable
+    String getCooldownScope() {
+        return this.cooldownScope;
+    }
+
+    @NotNull
+    List<String> getInterceptors() {
+        return this.interceptors;
+    }
+}
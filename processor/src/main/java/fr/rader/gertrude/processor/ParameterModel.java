@@ -0,0 +1,140 @@
+package fr.rader.gertrude.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A command method parameter, as read from the source code by the {@link SlashCommandProcessor}
+ */
+final class ParameterModel {
+
+    // the erased type, as it should be written in the generated source
+    private final String type;
+
+    // these are only set for options
+    private final String optionName;
+    private final String description;
+    private final boolean required;
+    private final String autoCompleteMethod;
+
+    // the autocompletion cache is only used if the ttl is positive
+    private final int cacheTtl;
+    private final int cacheSize;
+    private final String cacheScope;
+
+    // only set for options with static choices
+    private final String choicesMethod;
+    private final boolean staticChoicesMethod;
+
+    private ParameterModel(
+            @NotNull final String type,
+            @Nullable final String optionName,
+            @Nullable final String description,
+            boolean required,
+            @Nullable final String autoCompleteMethod,
+            int cacheTtl,
+            int cacheSize,
+            @Nullable final String cacheScope,
+            @Nullable final String choicesMethod,
+            boolean staticChoicesMethod
+    ) {
+        this.type = type;
+        this.optionName = optionName;
+        this.description = description;
+        this.required = required;
+        this.autoCompleteMethod = autoCompleteMethod;
+        this.cacheTtl = cacheTtl;
+        this.cacheSize = cacheSize;
+        this.cacheScope = cacheScope;
+        this.choicesMethod = choicesMethod;
+        this.staticChoicesMethod = staticChoicesMethod;
+    }
+
+    /**
+     * Create a parameter read from the command's options
+     */
+    @NotNull
+    static ParameterModel option(
+            @NotNull final String type,
+            @NotNull final String optionName,
+            @NotNull final String description,
+            boolean required,
+            @Nullable final String autoCompleteMethod,
+            int cacheTtl,
+            int cacheSize,
+            @NotNull final String cacheScope,
+            @Nullable final String choicesMethod,
+            boolean staticChoicesMethod
+    ) {
+        return new ParameterModel(
+                type,
+                optionName,
+                description,
+                required,
+                autoCompleteMethod,
+                cacheTtl,
+                cacheSize,
+                cacheScope,
+                choicesMethod,
+                staticChoicesMethod
+        );
+    }
+
+    /**
+     * Create a parameter that isn't an option
+     */
+    @NotNull
+    static ParameterModel parameter(@NotNull final String type) {
+        return new ParameterModel(type, null, null, false, null, 0, 0, null, null, false);
+    }
+
+    @NotNull
+    String getType() {
+        return this.type;
+    }
+
+    boolean isOption() {
+        return this.optionName != null;
+    }
+
+    @Nullable
+    String getOptionName() {
+        return this.optionName;
+    }
+
+    @Nullable
+    String getDescription() {
+        return this.description;
+    }
+
+    boolean isRequired() {
+        return this.required;
+    }
+
+    @Nullable
+    String getAutoCompleteMethod() {
+        return this.autoCompleteMethod;
+    }
+
+    int getCacheTtl() {
+        return this.cacheTtl;
+    }
+
+    int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    @Nullable
+    String getCacheScope() {
+        return this.cacheScope;
+    }
+
+    @Nullable
+    String getChoicesMethod() {
+        return this.choicesMethod;
+    }
+
+    boolean isStaticChoicesMethod() {
+        return this.staticChoicesMethod;
+    }
+}
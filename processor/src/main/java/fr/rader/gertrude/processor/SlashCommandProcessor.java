@@ -0,0 +1,510 @@
+package fr.rader.gertrude.processor;
+
+import fr.rader.gertrude.annotations.Cooldown;
+import fr.rader.gertrude.annotations.Param;
+import fr.rader.gertrude.annotations.SlashCommand;
+import fr.rader.gertrude.lexer.CommandSignature;
+import fr.rader.gertrude.lexer.exceptions.LexingException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@code CommandBinder} for each class with {@link SlashCommand} methods.
+ * The command strings are read into the same {@link CommandSignature} Gertrude uses at runtime, so invalid commands fail the build.
+ * At runtime, Gertrude uses the generated binders instead of reflection to register and call the commands.
+ *
+ * Classes that cannot be bound without reflection (private classes or methods) are skipped with a warning,
+ * Gertrude registers them with reflection like it always did.
+ */
+@SupportedAnnotationTypes("fr.rader.gertrude.annotations.SlashCommand")
+public final class SlashCommandProcessor extends AbstractProcessor {
+
+    private static final String COMMAND_CLASS = "fr.rader.gertrude.commands.Command";
+    private static final String COMMAND_BINDER_CLASS = "fr.rader.gertrude.commands.CommandBinder";
+    private static final String AUTOCOMPLETE_EVENT_CLASS = "net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent";
+    private static final String AUTOCOMPLETE_COLLECTION_TYPE = "net.dv8tion.jda.api.interactions.commands.Command.Choice";
+    private static final String INTERCEPT_CLASS = "fr.rader.gertrude.annotations.Intercept";
+
+    private static final String BINDER_SUFFIX = "_GertrudeBinder";
+
+    // the binders generated during all the rounds, they're listed in the service file once we're done
+    private final List<String> binders = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        // group the command methods by the class declaring them
+        Map<TypeElement, List<ExecutableElement>> commandClasses = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(SlashCommand.class)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+
+            commandClasses.computeIfAbsent((TypeElement) element.getEnclosingElement(), type -> new ArrayList<>())
+                          .add((ExecutableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : commandClasses.entrySet()) {
+            processClass(entry.getKey(), entry.getValue());
+        }
+
+        return false;
+    }
+
+    /**
+     * Validate the command methods of the given class, and generate its binder if they're all valid
+     */
+    private void processClass(@NotNull final TypeElement type, @NotNull final List<ExecutableElement> methods) {
+        TypeElement commandType = this.processingEnv.getElementUtils().getTypeElement(COMMAND_CLASS);
+        if (commandType == null || !this.processingEnv.getTypeUtils().isSubtype(
+                this.processingEnv.getTypeUtils().erasure(type.asType()),
+                this.processingEnv.getTypeUtils().erasure(commandType.asType())
+        )) {
+            warning(type, "Class " + type.getQualifiedName() + " has @SlashCommand methods but doesn't extend " + COMMAND_CLASS);
+            return;
+        }
+
+        // the binder is looked up with the exact class of the command instance, abstract classes never match
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return;
+        }
+
+        boolean bindable = isAccessible(type);
+
+        List<CommandModel> commands = new ArrayList<>();
+        boolean valid = true;
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                bindable = false;
+            }
+
+            CommandModel command = parseCommand(type, method);
+            if (command == null) {
+                valid = false;
+                continue;
+            }
+
+            for (TypeElement interceptor : findInterceptors(type, method)) {
+                if (!isAccessibleFrom(type, interceptor)) {
+                    bindable = false;
+                }
+            }
+
+            for (ParameterModel parameter : command.getParameters()) {
+                if (parameter.getAutoCompleteMethod() != null && !isAccessible(type, parameter.getAutoCompleteMethod())) {
+                    bindable = false;
+                }
+
+                if (parameter.getChoicesMethod() != null && isPrivate(findChoicesMethod(type, parameter.getChoicesMethod()))) {
+                    bindable = false;
+                }
+            }
+
+            commands.add(command);
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        if (!bindable) {
+            warning(type, "Class " + type.getQualifiedName() + " or some of its command methods are private, it will be registered with reflection");
+            return;
+        }
+
+        writeBinder(type, commands);
+    }
+
+    /**
+     * Parse the command string of the given method, the same way the CommandRegistry does at runtime
+     *
+     * @return  The command, or {@code null} if the command is invalid
+     */
+    @Nullable
+    private CommandModel parseCommand(@NotNull final TypeElement type, @NotNull final ExecutableElement method) {
+        SlashCommand slashCommand = method.getAnnotation(SlashCommand.class);
+
+        CommandSignature signature;
+        try {
+            signature = CommandSignature.of(slashCommand.command());
+        } catch (LexingException e) {
+            error(method, "Invalid command '" + slashCommand.command() + "': " + e.getMessage());
+            return null;
+        }
+
+        List<CommandSignature.Option> signatureOptions = signature.getOptions();
+        int optionCount = 0;
+
+        List<ParameterModel> parameters = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            String parameterType = erasure(parameter.asType());
+
+            Param param = parameter.getAnnotation(Param.class);
+            if (param == null) {
+                parameters.add(ParameterModel.parameter(parameterType));
+                continue;
+            }
+
+            if (optionCount == signatureOptions.size()) {
+                error(parameter, "Missing option in '" + slashCommand.command() + "' for parameter " + parameter.getSimpleName());
+                return null;
+            }
+
+            CommandSignature.Option signatureOption = signatureOptions.get(optionCount++);
+
+            String autoCompleteMethod = null;
+            if (!param.autocomplete().isEmpty()) {
+                autoCompleteMethod = param.autocomplete();
+
+                if (!validateAutoCompleteMethod(type, parameter, autoCompleteMethod)) {
+                    return null;
+                }
+
+                if (param.cacheTtl() > 0 && param.cacheSize() <= 0) {
+                    error(parameter, "The autocompletion cache size of parameter " + parameter.getSimpleName() + " must be positive");
+                    return null;
+                }
+            }
+
+            ExecutableElement choicesMethod = null;
+            if (!param.choices().isEmpty()) {
+                if (autoCompleteMethod != null) {
+                    error(parameter, "Parameter " + parameter.getSimpleName() + " cannot have both choices and an autocomplete method");
+                    return null;
+                }
+
+                choicesMethod = validateChoicesMethod(type, parameter, param.choices());
+                if (choicesMethod == null) {
+                    return null;
+                }
+            }
+
+            parameters.add(ParameterModel.option(
+                    parameterType,
+                    signatureOption.getName(),
+                    param.description(),
+                    signatureOption.isRequired(),
+                    autoCompleteMethod,
+                    param.cacheTtl(),
+                    param.cacheSize(),
+                    param.cacheScope().name(),
+                    choicesMethod == null ? null : param.choices(),
+                    choicesMethod != null && choicesMethod.getModifiers().contains(Modifier.STATIC)
+            ));
+        }
+
+        for (int i = optionCount; i < signatureOptions.size(); i++) {
+            warning(method, "Option '" + signatureOptions.get(i).getName() + "' in '" + slashCommand.command() + "' has no matching @Param parameter, it will be ignored");
+        }
+
+        Cooldown cooldown = method.getAnnotation(Cooldown.class);
+        if (cooldown != null && (cooldown.uses() <= 0 || cooldown.per() <= 0)) {
+            error(method, "The uses and the duration of the cooldown of '" + slashCommand.command() + "' must be positive");
+            return null;
+        }
+
+        List<String> interceptors = new ArrayList<>();
+        for (TypeElement interceptor : findInterceptors(type, method)) {
+            interceptors.add(interceptor.getQualifiedName().toString());
+        }
+
+        return new CommandModel(
+                slashCommand.command(),
+                signature.getName(),
+                signature.getSubcommandGroup(),
+                signature.getSubcommand(),
+                slashCommand.description(),
+                slashCommand.subcommandDescription(),
+                slashCommand.subcommandGroupDescription(),
+                method.getSimpleName().toString(),
+                method.getModifiers().contains(Modifier.STATIC),
+                parameters,
+                slashCommand.maxConcurrency(),
+                slashCommand.maxQueued(),
+                cooldown == null ? 0 : cooldown.uses(),
+                cooldown == null ? 0 : cooldown.per(),
+                cooldown == null ? null : cooldown.unit().name(),
+                cooldown == null ? null : cooldown.scope().name(),
+                interceptors
+        );
+    }
+
+    /**
+     * Get the interceptor classes given to the {@code @Intercept} annotations of the class, then of the method
+     */
+    @NotNull
+    private List<TypeElement> findInterceptors(@NotNull final TypeElement type, @NotNull final ExecutableElement method) {
+        List<TypeElement> interceptors = new ArrayList<>();
+
+        for (Element element : Arrays.asList(type, method)) {
+            for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+                if (!annotationType.getQualifiedName().contentEquals(INTERCEPT_CLASS)) {
+                    continue;
+                }
+
+                // the classes are read from the annotation's mirror, reading them from the annotation would throw
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (!entry.getKey().getSimpleName().contentEquals("value")) {
+                        continue;
+                    }
+
+                    for (AnnotationValue value : arrayValues(entry.getValue())) {
+                        interceptors.add((TypeElement) ((DeclaredType) value.getValue()).asElement());
+                    }
+                }
+            }
+        }
+
+        return interceptors;
+    }
+
+    /**
+     * Get the elements of an annotation's array value, an array value with a single element is a list too
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static List<? extends AnnotationValue> arrayValues(@NotNull final AnnotationValue value) {
+        return (List<? extends AnnotationValue>) value.getValue();
+    }
+
+    /**
+     * Check the autocompletion method the same way the CommandMethod does at runtime
+     */
+    private boolean validateAutoCompleteMethod(@NotNull final TypeElement type, @NotNull final VariableElement parameter, @NotNull final String name) {
+        ExecutableElement method = findAutoCompleteMethod(type, name);
+        if (method == null) {
+            error(parameter, "AutoComplete method " + name + "(" + AUTOCOMPLETE_EVENT_CLASS + ") doesn't exist in " + type.getQualifiedName());
+            return false;
+        }
+
+        if (method.getModifiers().contains(Modifier.STATIC)) {
+            error(parameter, "AutoComplete method " + name + " is static!");
+            return false;
+        }
+
+        TypeElement collectionType = this.processingEnv.getElementUtils().getTypeElement("java.util.Collection");
+        TypeMirror returnType = method.getReturnType();
+        if (!this.processingEnv.getTypeUtils().isAssignable(
+                this.processingEnv.getTypeUtils().erasure(returnType),
+                this.processingEnv.getTypeUtils().erasure(collectionType.asType())
+        )) {
+            error(parameter, "Return value for autocomplete method " + name + " is not a Collection!");
+            return false;
+        }
+
+        List<? extends TypeMirror> arguments = returnType instanceof DeclaredType
+                ? ((DeclaredType) returnType).getTypeArguments()
+                : Collections.<TypeMirror>emptyList();
+
+        if (arguments.size() != 1 || !arguments.get(0).toString().equals(AUTOCOMPLETE_COLLECTION_TYPE)) {
+            error(parameter, "Collection type for autocomplete method " + name + " return value is not a JDA Command.Choice!");
+            return false;
+        }
+
+        return true;
+    }
+
+    @Nullable
+    private ExecutableElement findAutoCompleteMethod(@NotNull final TypeElement type, @NotNull final String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!method.getSimpleName().contentEquals(name) || method.getParameters().size() != 1) {
+                continue;
+            }
+
+            if (erasure(method.getParameters().get(0).asType()).equals(AUTOCOMPLETE_EVENT_CLASS)) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Check that the choices method with the given name exists and returns a Collection.
+     * If it doesn't, we report an error and return {@code null}
+     */
+    @Nullable
+    private ExecutableElement validateChoicesMethod(@NotNull final TypeElement type, @NotNull final VariableElement parameter, @NotNull final String name) {
+        ExecutableElement method = findChoicesMethod(type, name);
+        if (method == null) {
+            error(parameter, "Choices method " + name + "() doesn't exist in " + type.getQualifiedName());
+            return null;
+        }
+
+        TypeElement collectionType = this.processingEnv.getElementUtils().getTypeElement("java.util.Collection");
+        if (!this.processingEnv.getTypeUtils().isAssignable(
+                this.processingEnv.getTypeUtils().erasure(method.getReturnType()),
+                this.processingEnv.getTypeUtils().erasure(collectionType.asType())
+        )) {
+            error(parameter, "Return value for choices method " + name + " is not a Collection!");
+            return null;
+        }
+
+        return method;
+    }
+
+    @Nullable
+    private ExecutableElement findChoicesMethod(@NotNull final TypeElement type, @NotNull final String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns true if the generated binder, which lives in the same package, can access the given class
+     */
+    private boolean isAccessible(@NotNull final TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+
+            element = element.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the generated binder, which lives in the package of the given command class, can access the given class
+     */
+    private boolean isAccessibleFrom(@NotNull final TypeElement commandType, @NotNull final TypeElement type) {
+        if (!isAccessible(type)) {
+            return false;
+        }
+
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                return this.processingEnv.getElementUtils().getPackageOf(type)
+                        .equals(this.processingEnv.getElementUtils().getPackageOf(commandType));
+            }
+
+            element = element.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    private static boolean isPrivate(@Nullable final ExecutableElement method) {
+        return method == null || method.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    /**
+     * Returns true if the generated binder can access the autocompletion method with the given name
+     */
+    private boolean isAccessible(@NotNull final TypeElement type, @NotNull final String autoCompleteMethod) {
+        ExecutableElement method = findAutoCompleteMethod(type, autoCompleteMethod);
+        return method != null && !method.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    private void writeBinder(@NotNull final TypeElement type, @NotNull final List<CommandModel> commands) {
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binderName = binderName(type);
+        String qualifiedBinderName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(qualifiedBinderName, type);
+
+            try (Writer writer = file.openWriter()) {
+                new BinderWriter(writer).write(
+                        packageName,
+                        binderName,
+                        type.getQualifiedName().toString(),
+                        commands
+                );
+            }
+        } catch (IOException e) {
+            error(type, "Cannot write " + qualifiedBinderName + ": " + e.getMessage());
+            return;
+        }
+
+        this.binders.add(qualifiedBinderName);
+    }
+
+    /**
+     * List all the generated binders so Gertrude can find them with a ServiceLoader
+     */
+    private void writeServiceFile() {
+        if (this.binders.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject file = this.processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT,
+                    "",
+                    "META-INF/services/" + COMMAND_BINDER_CLASS
+            );
+
+            try (Writer writer = file.openWriter()) {
+                for (String binder : this.binders) {
+                    writer.write(binder);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the CommandBinder service file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return the binder's simple name, nested classes are flattened: {@code Outer.Inner} becomes {@code Outer_Inner_GertrudeBinder}
+     */
+    @NotNull
+    private static String binderName(@NotNull final TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+
+        Element element = type.getEnclosingElement();
+        while (element instanceof TypeElement) {
+            name.insert(0, element.getSimpleName() + "_");
+            element = element.getEnclosingElement();
+        }
+
+        return name.append(BINDER_SUFFIX).toString();
+    }
+
+    @NotNull
+    private String erasure(@NotNull final TypeMirror type) {
+        return this.processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void error(@NotNull final Element element, @NotNull final String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(@NotNull final Element element, @NotNull final String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
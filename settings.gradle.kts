@@ -1,2 +1,5 @@
 rootProject.name = "Gertrude"
 include("app")
+include("processor")
+include("benchmarks")
+include("testing")
@@ -0,0 +1,49 @@
+plugins {
+    java
+
+    signing
+    `maven-publish`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+
+    withJavadocJar()
+    withSourcesJar()
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":app"))
+    implementation("net.dv8tion:JDA:5.0.0-beta.5")
+
+    // the simulated options are built like JDA builds them, JDA only declares trove at runtime
+    implementation("net.sf.trove4j:trove4j:3.0.3")
+
+    compileOnly("org.jetbrains:annotations:13.0")
+}
+
+publishing {
+    repositories {
+        maven {
+            name = "raderRepository"
+            url = uri("https://repo.rader.fr/releases")
+            credentials(PasswordCredentials::class)
+            authentication {
+                create<BasicAuthentication>("basic")
+            }
+        }
+    }
+    publications {
+        create<MavenPublication>("maven") {
+            groupId = "fr.rader"
+            artifactId = "gertrude-testing"
+            version = "1.2.0"
+            from(components["java"])
+        }
+    }
+}
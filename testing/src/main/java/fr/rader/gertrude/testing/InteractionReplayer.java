@@ -0,0 +1,221 @@
+package fr.rader.gertrude.testing;
+
+import fr.rader.gertrude.metrics.Histogram;
+import fr.rader.gertrude.recording.InteractionReader;
+import fr.rader.gertrude.recording.InteractionRecord;
+import fr.rader.gertrude.recording.InteractionRecorder;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the interactions of a recording made by an {@link InteractionRecorder} through an {@link InteractionSimulator},
+ * and measures how long they take to be acknowledged.
+ *
+ * The interactions are dispatched one after the other on the calling thread, like JDA's event thread dispatches them,
+ * either with the delays they were received with or as fast as possible.
+ * With the original timing, the latency is measured from the moment the interaction should have been sent.
+ *
+ * The simulator only knows users, so the channels, roles, mentionables and attachments given as options are left out,
+ * and only the focused option of the autocompletions is sent.
+ */
+public final class InteractionReplayer {
+
+    private final InteractionSimulator simulator;
+
+    private boolean originalTiming;
+    private long timeoutNanos;
+
+    /**
+     * Create a new replayer keeping the original timing, with Discord's 3 seconds timeout
+     *
+     * @param simulator The simulator sending the interactions
+     */
+    public InteractionReplayer(@NotNull final InteractionSimulator simulator) {
+        Checks.notNull(simulator, "simulator");
+
+        this.simulator = simulator;
+
+        this.originalTiming = true;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(3);
+    }
+
+    /**
+     * Set whether the interactions are sent with the delays they were received with, or as fast as possible
+     *
+     * @param originalTiming    true to keep the recorded delays, false to send the interactions as fast as possible
+     */
+    public void setOriginalTiming(boolean originalTiming) {
+        this.originalTiming = originalTiming;
+    }
+
+    /**
+     * Set how long an interaction can take to be acknowledged before it's counted as timed out
+     *
+     * @param timeout   The timeout
+     * @param unit      The timeout's unit
+     */
+    public void setTimeout(long timeout, @NotNull final TimeUnit unit) {
+        Checks.positive(timeout, "timeout");
+        Checks.notNull(unit, "unit");
+
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Send all the interactions of the recording, and wait for the last ones to be acknowledged
+     *
+     * @param file  The recording
+     * @return      The throughput and latencies of the interactions
+     * @throws IOException          If the recording cannot be read
+     * @throws InterruptedException If the calling thread is interrupted while replaying
+     */
+    @NotNull
+    public LoadReport replay(@NotNull final Path file) throws IOException, InterruptedException {
+        Checks.notNull(file, "file");
+
+        LongAdder acknowledged = new LongAdder();
+        LongAdder timedOut = new LongAdder();
+        LongAdder failed = new LongAdder();
+        Histogram latency = new Histogram();
+
+        Set<CompletableFuture<Long>> pending = ConcurrentHashMap.newKeySet();
+        long dispatched = 0;
+
+        long start = System.nanoTime();
+        long firstTimestamp = 0;
+
+        try (InteractionReader reader = InteractionReader.open(file)) {
+            InteractionRecord record;
+            while ((record = reader.read()) != null) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                long scheduled;
+                if (this.originalTiming) {
+                    if (dispatched == 0) {
+                        firstTimestamp = record.getTimestamp();
+                    }
+
+                    scheduled = start + TimeUnit.MILLISECONDS.toNanos(record.getTimestamp() - firstTimestamp);
+                    waitUntil(scheduled);
+                } else {
+                    scheduled = System.nanoTime();
+                }
+
+                SimulatedInteraction<?> interaction = createInteraction(record);
+                if (interaction == null) {
+                    continue;
+                }
+
+                CompletableFuture<Long> acknowledgement = interaction.getAcknowledgement();
+                pending.add(acknowledgement);
+                dispatched++;
+
+                acknowledgement.whenComplete((acknowledgedAt, throwable) -> {
+                    pending.remove(acknowledgement);
+
+                    if (throwable != null) {
+                        failed.increment();
+                    } else if (acknowledgedAt - scheduled > this.timeoutNanos) {
+                        timedOut.increment();
+                    } else {
+                        latency.record(acknowledgedAt - scheduled);
+                        acknowledged.increment();
+                    }
+                });
+
+                this.simulator.dispatch(interaction);
+            }
+        }
+
+        // the last interactions have the whole timeout to be acknowledged
+        long deadline = System.nanoTime() + this.timeoutNanos;
+        for (CompletableFuture<Long> acknowledgement : pending) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+
+            try {
+                acknowledgement.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // counted by the callback, or below
+            }
+        }
+
+        timedOut.add(pending.size());
+
+        return new LoadReport(
+                dispatched,
+                acknowledged.sum(),
+                timedOut.sum(),
+                failed.sum(),
+                System.nanoTime() - start,
+                latency.snapshot()
+        );
+    }
+
+    @Nullable
+    private SimulatedInteraction<?> createInteraction(@NotNull final InteractionRecord record) {
+        if (record.getKind() == InteractionRecord.Kind.AUTOCOMPLETE) {
+            InteractionRecord.Option focused = record.getFocusedOption();
+            if (focused == null) {
+                return null;
+            }
+
+            return this.simulator.autoComplete(
+                    record.getGuildId(),
+                    record.getUserId(),
+                    record.getCommandPath(),
+                    focused.getName(),
+                    (String) focused.getValue()
+            );
+        }
+
+        Map<String, Object> options = new LinkedHashMap<>();
+        for (InteractionRecord.Option option : record.getOptions()) {
+            switch (option.getType()) {
+                case STRING:
+                case INTEGER:
+                case NUMBER:
+                case BOOLEAN:
+                    options.put(option.getName(), option.getValue());
+                    break;
+                case USER:
+                    options.put(option.getName(), this.simulator.user((Long) option.getValue()));
+                    break;
+                default:
+                    // the simulator cannot build the other entities
+                    break;
+            }
+        }
+
+        return this.simulator.slashCommand(record.getGuildId(), record.getUserId(), record.getCommandPath(), options);
+    }
+
+    private static void waitUntil(long time) throws InterruptedException {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package fr.rader.gertrude.testing;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.CommandAutoCompleteInteraction;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.AutoCompleteCallbackAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ModalCallbackAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sends slash command and autocompletion interactions to Gertrude's listeners without Discord.
+ *
+ * Gertrude is summoned with the simulator's JDA instance, {@link #getJda()}, which only keeps the event listeners:
+ * <pre>
+ *     InteractionSimulator simulator = new InteractionSimulator();
+ *
+ *     Gertrude gertrude = Gertrude.summonGertrude(simulator.getJda());
+ *     gertrude.registerEvents();
+ *     gertrude.addCommand(new MyCommands());
+ *
+ *     simulator.dispatch(simulator.slashCommand(1, "hello", options));
+ * </pre>
+ * The commands aren't registered to Discord, they're looked up by name.
+ *
+ * The interactions are sent from a user outside any guild unless a guild id is given. They don't have a member or a channel,
+ * and the guilds only know their id.
+ * Their replies are never sent, and any method the simulation doesn't know about throws
+ * an {@link UnsupportedOperationException}.
+ */
+public final class InteractionSimulator {
+
+    // the type of a slash command and of an autocompletion interaction, like Discord sends them
+    private static final int COMMAND_TYPE = 2;
+    private static final int AUTOCOMPLETE_TYPE = 4;
+
+    private final List<EventListener> listeners;
+    private final ConcurrentMap<Long, User> users;
+    private final ConcurrentMap<Long, Guild> guilds;
+    private final AtomicLong nextInteractionId;
+
+    private final JDA jda;
+
+    /**
+     * Create a new simulator without any listener
+     */
+    public InteractionSimulator() {
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.users = new ConcurrentHashMap<>();
+        this.guilds = new ConcurrentHashMap<>();
+        this.nextInteractionId = new AtomicLong(1);
+
+        this.jda = proxy(JDA.class, this::invokeJda);
+    }
+
+    /**
+     * Return the JDA instance to summon Gertrude with.
+     * It only supports adding, removing and listing the event listeners.
+     *
+     * @return The simulator's JDA instance
+     */
+    @NotNull
+    public JDA getJda() {
+        return this.jda;
+    }
+
+    /**
+     * Add listeners receiving the simulated events, in addition to Gertrude's
+     *
+     * @param listeners The listeners to add
+     */
+    public void addEventListener(@NotNull final Object... listeners) {
+        Checks.noneNull(listeners, "listeners");
+
+        for (Object listener : listeners) {
+            if (!(listener instanceof EventListener)) {
+                throw new IllegalArgumentException("Listener must implement EventListener");
+            }
+
+            this.listeners.add((EventListener) listener);
+        }
+    }
+
+    /**
+     * Return the user with the given id.
+     * It can be given as the value of a user option.
+     *
+     * @param id    The user's id
+     * @return      The user
+     */
+    @NotNull
+    public User user(long id) {
+        return this.users.computeIfAbsent(id, this::createUser);
+    }
+
+    /**
+     * Return the guild with the given id
+     *
+     * @param id    The guild's id
+     * @return      The guild
+     */
+    @NotNull
+    public Guild guild(long id) {
+        return this.guilds.computeIfAbsent(id, this::createGuild);
+    }
+
+    /**
+     * Create a slash command interaction sent outside any guild.
+     * The options' values can be strings, integers, decimals, booleans or {@link User}s.
+     *
+     * @param userId    The id of the user sending the command
+     * @param command   The command's path, like "name", "name subcommand" or "name subcommandGroup subcommand"
+     * @param options   The value of each option
+     * @return          The interaction, not dispatched yet
+     */
+    @NotNull
+    public SimulatedInteraction<SlashCommandInteractionEvent> slashCommand(
+            long userId,
+            @NotNull final String command,
+            @NotNull final Map<String, ?> options
+    ) {
+        return slashCommand(0, userId, command, options);
+    }
+
+    /**
+     * Create a slash command interaction.
+     * The options' values can be strings, integers, decimals, booleans or {@link User}s.
+     *
+     * @param guildId   The id of the guild the command is sent in, or 0 to send it outside any guild
+     * @param userId    The id of the user sending the command
+     * @param command   The command's path, like "name", "name subcommand" or "name subcommandGroup subcommand"
+     * @param options   The value of each option
+     * @return          The interaction, not dispatched yet
+     */
+    @NotNull
+    public SimulatedInteraction<SlashCommandInteractionEvent> slashCommand(
+            long guildId,
+            long userId,
+            @NotNull final String command,
+            @NotNull final Map<String, ?> options
+    ) {
+        Checks.notNull(options, "options");
+
+        List<OptionMapping> mappings = new ArrayList<>();
+        for (Map.Entry<String, ?> option : options.entrySet()) {
+            mappings.add(option(option.getKey(), option.getValue(), false));
+        }
+
+        CompletableFuture<Long> acknowledgement = new CompletableFuture<>();
+        InteractionHandler handler = new InteractionHandler(
+                COMMAND_TYPE,
+                command,
+                mappings,
+                null,
+                guildId == 0 ? null : guild(guildId),
+                user(userId),
+                acknowledgement
+        );
+        SlashCommandInteraction interaction = handler.create(SlashCommandInteraction.class);
+
+        return new SimulatedInteraction<>(new SimulatedSlashCommandEvent(this.jda, handler.id, interaction), acknowledgement);
+    }
+
+    /**
+     * Create an autocompletion interaction sent outside any guild
+     *
+     * @param userId    The id of the user typing
+     * @param command   The command's path, like "name", "name subcommand" or "name subcommandGroup subcommand"
+     * @param option    The autocompleted option
+     * @param value     The value being typed
+     * @return          The interaction, not dispatched yet
+     */
+    @NotNull
+    public SimulatedInteraction<CommandAutoCompleteInteractionEvent> autoComplete(
+            long userId,
+            @NotNull final String command,
+            @NotNull final String option,
+            @NotNull final String value
+    ) {
+        return autoComplete(0, userId, command, option, value);
+    }
+
+    /**
+     * Create an autocompletion interaction
+     *
+     * @param guildId   The id of the guild the option is typed in, or 0 to type it outside any guild
+     * @param userId    The id of the user typing
+     * @param command   The command's path, like "name", "name subcommand" or "name subcommandGroup subcommand"
+     * @param option    The autocompleted option
+     * @param value     The value being typed
+     * @return          The interaction, not dispatched yet
+     */
+    @NotNull
+    public SimulatedInteraction<CommandAutoCompleteInteractionEvent> autoComplete(
+            long guildId,
+            long userId,
+            @NotNull final String command,
+            @NotNull final String option,
+            @NotNull final String value
+    ) {
+        OptionMapping focused = option(option, value, true);
+
+        CompletableFuture<Long> acknowledgement = new CompletableFuture<>();
+        InteractionHandler handler = new InteractionHandler(
+                AUTOCOMPLETE_TYPE,
+                command,
+                Collections.singletonList(focused),
+                new AutoCompleteQuery(focused),
+                guildId == 0 ? null : guild(guildId),
+                user(userId),
+                acknowledgement
+        );
+        CommandAutoCompleteInteraction interaction = handler.create(CommandAutoCompleteInteraction.class);
+
+        return new SimulatedInteraction<>(new CommandAutoCompleteInteractionEvent(this.jda, handler.id, interaction), acknowledgement);
+    }
+
+    /**
+     * Send the interaction's event to all the listeners on the calling thread, like JDA's event thread would.
+     * If a listener throws, the interaction's acknowledgement is completed exceptionally.
+     *
+     * @param interaction   The interaction to send
+     * @param <E>           The type of the interaction's event
+     * @return              The same interaction
+     */
+    @NotNull
+    public <E extends GenericInteractionCreateEvent> SimulatedInteraction<E> dispatch(@NotNull final SimulatedInteraction<E> interaction) {
+        Checks.notNull(interaction, "interaction");
+
+        for (EventListener listener : this.listeners) {
+            try {
+                listener.onEvent(interaction.getEvent());
+            } catch (RuntimeException e) {
+                interaction.getAcknowledgement().completeExceptionally(e);
+            }
+        }
+
+        return interaction;
+    }
+
+    @Nullable
+    private Object invokeJda(@NotNull final Object proxy, @NotNull final Method method, @Nullable final Object[] args) {
+        switch (method.getName()) {
+            case "addEventListener":
+                addEventListener((Object[]) args[0]);
+                return null;
+            case "removeEventListener":
+                this.listeners.removeAll(Arrays.asList((Object[]) args[0]));
+                return null;
+            case "getRegisteredListeners":
+                return Collections.unmodifiableList(new ArrayList<Object>(this.listeners));
+            case "getStatus":
+                return JDA.Status.CONNECTED;
+            case "getShardInfo":
+                return JDA.ShardInfo.SINGLE;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "SimulatedJDA";
+            default:
+                throw unsupported("JDA", method);
+        }
+    }
+
+    @NotNull
+    private User createUser(long id) {
+        String name = "user" + id;
+
+        return proxy(User.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getIdLong":
+                    return id;
+                case "getId":
+                    return Long.toString(id);
+                case "getName":
+                    return name;
+                case "getDiscriminator":
+                    return "0000";
+                case "getAsTag":
+                    return name + "#0000";
+                case "getAsMention":
+                    return "<@" + id + ">";
+                case "isBot":
+                case "isSystem":
+                    return false;
+                case "getJDA":
+                    return this.jda;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return Long.hashCode(id);
+                case "toString":
+                    return "User:" + name + "(" + id + ")";
+                default:
+                    throw unsupported("User", method);
+            }
+        });
+    }
+
+    @NotNull
+    private Guild createGuild(long id) {
+        String name = "guild" + id;
+
+        return proxy(Guild.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getIdLong":
+                    return id;
+                case "getId":
+                    return Long.toString(id);
+                case "getName":
+                    return name;
+                case "getJDA":
+                    return this.jda;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return Long.hashCode(id);
+                case "toString":
+                    return "Guild:" + name + "(" + id + ")";
+                default:
+                    throw unsupported("Guild", method);
+            }
+        });
+    }
+
+    /**
+     * Build an option like Discord sends it
+     */
+    @NotNull
+    private OptionMapping option(@NotNull final String name, @NotNull final Object value, boolean focused) {
+        Checks.notNull(name, "name");
+        Checks.notNull(value, "value");
+
+        TLongObjectMap<Object> resolved = new TLongObjectHashMap<>();
+        OptionType type;
+        Object rawValue;
+
+        if (value instanceof String) {
+            type = OptionType.STRING;
+            rawValue = value;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            type = OptionType.INTEGER;
+            rawValue = ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            type = OptionType.NUMBER;
+            rawValue = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            type = OptionType.BOOLEAN;
+            rawValue = value;
+        } else if (value instanceof User) {
+            User user = (User) value;
+            type = OptionType.USER;
+            rawValue = user.getId();
+            resolved.put(user.getIdLong(), user);
+        } else {
+            throw new IllegalArgumentException("Cannot simulate option '" + name + "' of type " + value.getClass().getName());
+        }
+
+        DataObject data = DataObject.empty()
+                .put("name", name)
+                .put("type", type.getKey())
+                .put("value", rawValue);
+
+        if (focused) {
+            data.put("focused", true);
+        }
+
+        // JDA needs its own implementation to parse the mentions, the simulated options have none
+        return new OptionMapping(data, resolved, null, null);
+    }
+
+    @NotNull
+    private static <T> T proxy(@NotNull final Class<T> type, @NotNull final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InteractionSimulator.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @NotNull
+    private static UnsupportedOperationException unsupported(@NotNull final String type, @NotNull final Method method) {
+        return new UnsupportedOperationException(type + "#" + method.getName() + " isn't simulated");
+    }
+
+    /**
+     * Answers the methods of a simulated interaction, and acknowledges it when one of its replies is sent
+     */
+    private final class InteractionHandler implements InvocationHandler {
+
+        private final long id;
+        private final int type;
+
+        private final String name;
+        private final String subcommandName;
+        private final String subcommandGroup;
+        private final String fullCommandName;
+
+        private final List<OptionMapping> options;
+        private final AutoCompleteQuery focusedOption;
+        private final Guild guild;
+        private final User user;
+
+        private final CompletableFuture<Long> acknowledgement;
+
+        // created with the interaction, the hook gives it back
+        private Object interaction;
+        private InteractionHook hook;
+
+        private InteractionHandler(
+                int type,
+                @NotNull final String command,
+                @NotNull final List<OptionMapping> options,
+                @Nullable final AutoCompleteQuery focusedOption,
+                @Nullable final Guild guild,
+                @NotNull final User user,
+                @NotNull final CompletableFuture<Long> acknowledgement
+        ) {
+            Checks.notEmpty(command, "command");
+
+            String[] path = command.trim().split(" +");
+            if (path.length > 3) {
+                throw new IllegalArgumentException("Command '" + command + "' has more than 3 parts");
+            }
+
+            this.id = nextInteractionId.getAndIncrement();
+            this.type = type;
+
+            this.name = path[0];
+            this.subcommandName = path.length > 1 ? path[path.length - 1] : null;
+            this.subcommandGroup = path.length > 2 ? path[1] : null;
+            this.fullCommandName = String.join(" ", path);
+
+            this.options = Collections.unmodifiableList(options);
+            this.focusedOption = focusedOption;
+            this.guild = guild;
+            this.user = user;
+
+            this.acknowledgement = acknowledgement;
+        }
+
+        @NotNull
+        private <T> T create(@NotNull final Class<T> interactionType) {
+            T interaction = proxy(interactionType, this);
+
+            this.interaction = interaction;
+            this.hook = proxy(InteractionHook.class, this::invokeHook);
+
+            return interaction;
+        }
+
+        @Nullable
+        @Override
+        public Object invoke(@NotNull final Object proxy, @NotNull final Method method, @Nullable final Object[] args) {
+            switch (method.getName()) {
+                case "getJDA":
+                    return jda;
+                case "getIdLong":
+                    return this.id;
+                case "getId":
+                    return Long.toString(this.id);
+                case "getTypeRaw":
+                    return this.type;
+                case "getToken":
+                    return "simulated-" + this.id;
+                case "getName":
+                    return this.name;
+                case "getSubcommandName":
+                    return this.subcommandName;
+                case "getSubcommandGroup":
+                    return this.subcommandGroup;
+                case "getFullCommandName":
+                    return this.fullCommandName;
+                case "getCommandIdLong":
+                    // unknown to the registry, the command is looked up by name
+                    return 0L;
+                case "getCommandType":
+                    return Command.Type.SLASH;
+                case "isGuildCommand":
+                    return false;
+                case "getOptions":
+                    return this.options;
+                case "getFocusedOption":
+                    if (this.focusedOption == null) {
+                        throw unsupported("Interaction", method);
+                    }
+
+                    return this.focusedOption;
+                case "getUser":
+                    return this.user;
+                case "getGuild":
+                    return this.guild;
+                case "getMember":
+                case "getChannel":
+                    return null;
+                case "getUserLocale":
+                    return DiscordLocale.ENGLISH_US;
+                case "getGuildLocale":
+                    return DiscordLocale.UNKNOWN;
+                case "isAcknowledged":
+                    return this.acknowledgement.isDone();
+                case "getHook":
+                    return this.hook;
+                case "deferReply":
+                    return action(ReplyCallbackAction.class, true, this.hook);
+                case "replyModal":
+                    return action(ModalCallbackAction.class, true, null);
+                case "replyChoices":
+                    return action(AutoCompleteCallbackAction.class, true, null);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return Long.hashCode(this.id);
+                case "toString":
+                    return "SimulatedInteraction(" + this.fullCommandName + ", " + this.id + ")";
+                default:
+                    throw unsupported("Interaction", method);
+            }
+        }
+
+        @Nullable
+        private Object invokeHook(@NotNull final Object proxy, @NotNull final Method method, @Nullable final Object[] args) {
+            switch (method.getName()) {
+                case "getJDA":
+                    return jda;
+                case "getInteraction":
+                    return this.interaction;
+                case "isExpired":
+                    return false;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SimulatedHook(" + this.id + ")";
+                default:
+                    if (method.getReturnType().isInstance(proxy)) {
+                        return proxy;
+                    }
+
+                    // the messages sent with the hook don't acknowledge the interaction
+                    if (RestAction.class.isAssignableFrom(method.getReturnType())) {
+                        return action(method.getReturnType(), false, null);
+                    }
+
+                    throw unsupported("InteractionHook", method);
+            }
+        }
+
+        /**
+         * Create a request that does nothing when it's sent, except acknowledging the interaction if needed
+         */
+        @NotNull
+        private <T> T action(@NotNull final Class<T> actionType, boolean acknowledges, @Nullable final Object result) {
+            return proxy(actionType, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "queue":
+                        acknowledge(acknowledges);
+                        if (args != null && args.length > 0 && args[0] != null) {
+                            @SuppressWarnings("unchecked")
+                            Consumer<Object> success = (Consumer<Object>) args[0];
+                            success.accept(result);
+                        }
+
+                        return null;
+                    case "complete":
+                        acknowledge(acknowledges);
+                        return result;
+                    case "submit":
+                        acknowledge(acknowledges);
+                        return CompletableFuture.completedFuture(result);
+                    case "getJDA":
+                        return jda;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "SimulatedAction(" + actionType.getSimpleName() + ")";
+                    default:
+                        // the builder methods, like setEphemeral or addContent
+                        if (method.getReturnType().isInstance(proxy)) {
+                            return proxy;
+                        }
+
+                        throw unsupported(actionType.getSimpleName(), method);
+                }
+            });
+        }
+
+        private void acknowledge(boolean acknowledges) {
+            if (acknowledges) {
+                this.acknowledgement.complete(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * JDA turns the message into a reply with its own request implementation, we use the simulated one instead
+     */
+    private static final class SimulatedSlashCommandEvent extends SlashCommandInteractionEvent {
+
+        private SimulatedSlashCommandEvent(@NotNull final JDA jda, long responseNumber, @NotNull final SlashCommandInteraction interaction) {
+            super(jda, responseNumber, interaction);
+        }
+
+        @NotNull
+        @Override
+        public ReplyCallbackAction reply(@NotNull final MessageCreateData message) {
+            Checks.notNull(message, "Message");
+            return deferReply().applyData(message);
+        }
+    }
+}
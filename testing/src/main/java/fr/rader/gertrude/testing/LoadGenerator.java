@@ -0,0 +1,206 @@
+package fr.rader.gertrude.testing;
+
+import fr.rader.gertrude.metrics.Histogram;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends interactions through an {@link InteractionSimulator} for some time, and measures how long they take to be acknowledged.
+ *
+ * Each of the {@link #setConcurrency(int) concurrent} users sends an interaction, waits for it to be acknowledged,
+ * then sends the next one. With a {@link #setRate(double) rate}, the interactions are spread evenly between the users,
+ * and their latency is measured from the moment they should have been sent: when all the users are waiting,
+ * the time the next interaction waits for a user counts, like it would for a real user.
+ *
+ * <pre>
+ *     LoadGenerator generator = new LoadGenerator(simulator, () -&gt; simulator.slashCommand(1, "ping", options));
+ *     generator.setConcurrency(16);
+ *     generator.setRate(500);
+ *
+ *     System.out.println(generator.run(30, TimeUnit.SECONDS));
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private final InteractionSimulator simulator;
+    private final Supplier<? extends SimulatedInteraction<?>> interactions;
+
+    private int concurrency;
+    private double rate;
+    private long timeoutNanos;
+
+    /**
+     * Create a new load generator with one user, no rate limit, and Discord's 3 seconds timeout
+     *
+     * @param simulator     The simulator sending the interactions
+     * @param interactions  Creates the interactions to send, called by all the users at the same time
+     */
+    public LoadGenerator(@NotNull final InteractionSimulator simulator, @NotNull final Supplier<? extends SimulatedInteraction<?>> interactions) {
+        Checks.notNull(simulator, "simulator");
+        Checks.notNull(interactions, "interactions");
+
+        this.simulator = simulator;
+        this.interactions = interactions;
+
+        this.concurrency = 1;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(3);
+    }
+
+    /**
+     * Set the number of users sending interactions at the same time
+     *
+     * @param concurrency   The number of users
+     */
+    public void setConcurrency(int concurrency) {
+        Checks.positive(concurrency, "concurrency");
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Set the number of interactions sent per second by all the users, or 0 to send them as fast as possible
+     *
+     * @param rate  The number of interactions per second
+     */
+    public void setRate(double rate) {
+        if (rate < 0 || Double.isNaN(rate)) {
+            throw new IllegalArgumentException("rate must be positive or 0, provided: " + rate);
+        }
+
+        this.rate = rate;
+    }
+
+    /**
+     * Set how long an interaction can take to be acknowledged before it's counted as timed out
+     *
+     * @param timeout   The timeout
+     * @param unit      The timeout's unit
+     */
+    public void setTimeout(long timeout, @NotNull final TimeUnit unit) {
+        Checks.positive(timeout, "timeout");
+        Checks.notNull(unit, "unit");
+
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Send interactions for the given duration, and wait for the last ones to be acknowledged
+     *
+     * @param duration  How long to send interactions for
+     * @param unit      The duration's unit
+     * @return          The throughput and latencies of the interactions
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the users
+     */
+    @NotNull
+    public LoadReport run(long duration, @NotNull final TimeUnit unit) throws InterruptedException {
+        Checks.positive(duration, "duration");
+        Checks.notNull(unit, "unit");
+
+        Run run = new Run(unit.toNanos(duration));
+
+        Thread[] users = new Thread[this.concurrency];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new Thread(run, "gertrude-load-" + i);
+            users[i].setDaemon(true);
+            users[i].start();
+        }
+
+        try {
+            for (Thread user : users) {
+                user.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread user : users) {
+                user.interrupt();
+            }
+
+            throw e;
+        }
+
+        return new LoadReport(
+                run.dispatched.sum(),
+                run.acknowledged.sum(),
+                run.timedOut.sum(),
+                run.failed.sum(),
+                System.nanoTime() - run.start,
+                run.latency.snapshot()
+        );
+    }
+
+    /**
+     * The state shared by the users of one run
+     */
+    private final class Run implements Runnable {
+
+        private final long start;
+        private final long end;
+
+        // 0 without rate limit
+        private final long periodNanos;
+        private final AtomicLong nextSlot;
+
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder acknowledged = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Histogram latency = new Histogram();
+
+        private Run(long durationNanos) {
+            this.start = System.nanoTime();
+            this.end = this.start + durationNanos;
+
+            this.periodNanos = rate > 0 ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate)) : 0;
+            this.nextSlot = new AtomicLong(this.start);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                long scheduled;
+                if (this.periodNanos > 0) {
+                    scheduled = this.nextSlot.getAndAdd(this.periodNanos);
+                    if (scheduled - this.end >= 0) {
+                        return;
+                    }
+
+                    waitUntil(scheduled);
+                } else {
+                    scheduled = System.nanoTime();
+                    if (scheduled - this.end >= 0) {
+                        return;
+                    }
+                }
+
+                SimulatedInteraction<?> interaction = interactions.get();
+                this.dispatched.increment();
+
+                try {
+                    long acknowledgedAt = simulator.dispatch(interaction).getAcknowledgement().get(timeoutNanos, TimeUnit.NANOSECONDS);
+
+                    this.latency.record(acknowledgedAt - scheduled);
+                    this.acknowledged.increment();
+                } catch (TimeoutException e) {
+                    this.timedOut.increment();
+                } catch (ExecutionException e) {
+                    this.failed.increment();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void waitUntil(long time) {
+            long remaining;
+            while ((remaining = time - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package fr.rader.gertrude.testing;
+
+import fr.rader.gertrude.metrics.HistogramSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of a {@link LoadGenerator} run
+ */
+public final class LoadReport {
+
+    private final long dispatched;
+    private final long acknowledged;
+    private final long timedOut;
+    private final long failed;
+    private final long durationNanos;
+    private final HistogramSnapshot latency;
+
+    LoadReport(long dispatched, long acknowledged, long timedOut, long failed, long durationNanos, @NotNull final HistogramSnapshot latency) {
+        this.dispatched = dispatched;
+        this.acknowledged = acknowledged;
+        this.timedOut = timedOut;
+        this.failed = failed;
+        this.durationNanos = durationNanos;
+        this.latency = latency;
+    }
+
+    /**
+     * Return the number of interactions sent to the listeners
+     *
+     * @return The number of interactions sent
+     */
+    public long getDispatched() {
+        return this.dispatched;
+    }
+
+    /**
+     * Return the number of interactions acknowledged before the timeout
+     *
+     * @return The number of interactions acknowledged
+     */
+    public long getAcknowledged() {
+        return this.acknowledged;
+    }
+
+    /**
+     * Return the number of interactions that weren't acknowledged before the timeout
+     *
+     * @return The number of interactions timed out
+     */
+    public long getTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * Return the number of interactions a listener threw on
+     *
+     * @return The number of interactions failed
+     */
+    public long getFailed() {
+        return this.failed;
+    }
+
+    /**
+     * Return how long the run took, including the wait for the last interactions
+     *
+     * @return The run's duration, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return this.durationNanos;
+    }
+
+    /**
+     * Return the number of interactions acknowledged per second
+     *
+     * @return The throughput
+     */
+    public double getThroughput() {
+        return this.durationNanos == 0 ? 0 : this.acknowledged * (double) TimeUnit.SECONDS.toNanos(1) / this.durationNanos;
+    }
+
+    /**
+     * Return the time the acknowledged interactions took to be acknowledged
+     *
+     * @return The latencies, in nanoseconds
+     */
+    @NotNull
+    public HistogramSnapshot getLatency() {
+        return this.latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                Locale.ROOT,
+                "%d dispatched, %d acknowledged, %d timed out, %d failed in %.1fs (%.1f/s)%n"
+                        + "latency: mean %.3fms, p50 %.3fms, p90 %.3fms, p99 %.3fms, p99.9 %.3fms, max %.3fms",
+                this.dispatched,
+                this.acknowledged,
+                this.timedOut,
+                this.failed,
+                this.durationNanos / 1e9,
+                getThroughput(),
+                this.latency.getMean() / 1e6,
+                this.latency.getPercentile(50) / 1e6,
+                this.latency.getPercentile(90) / 1e6,
+                this.latency.getPercentile(99) / 1e6,
+                this.latency.getPercentile(99.9) / 1e6,
+                this.latency.getMax() / 1e6
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package fr.rader.gertrude.testing;
+
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An interaction created by an {@link InteractionSimulator}, and the moment it was acknowledged.
+ * The interaction is acknowledged when the first reply, deferred reply or list of choices is queued,
+ * completed or submitted, like it would be sent to Discord.
+ *
+ * @param <E> The type of the interaction's event
+ */
+public final class SimulatedInteraction<E extends GenericInteractionCreateEvent> {
+
+    private final E event;
+    private final CompletableFuture<Long> acknowledgement;
+
+    SimulatedInteraction(@NotNull final E event, @NotNull final CompletableFuture<Long> acknowledgement) {
+        this.event = event;
+        this.acknowledgement = acknowledgement;
+    }
+
+    /**
+     * Return the event given to the listeners
+     *
+     * @return The interaction's event
+     */
+    @NotNull
+    public E getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Return a future completed with the {@link System#nanoTime()} at which the interaction was acknowledged.
+     * It's completed exceptionally if a listener threw while receiving the event.
+     *
+     * @return The interaction's acknowledgement
+     */
+    @NotNull
+    public CompletableFuture<Long> getAcknowledgement() {
+        return this.acknowledgement;
+    }
+
+    /**
+     * Check if the interaction was acknowledged
+     *
+     * @return true if the interaction was acknowledged, false otherwise
+     */
+    public boolean isAcknowledged() {
+        return this.acknowledgement.isDone() && !this.acknowledgement.isCompletedExceptionally();
+    }
+}